@@ -0,0 +1,98 @@
+package edu.ucsb.cs156.example.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.security.oauth2.client.web.AuthorizationRequestRepository;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+
+/**
+ * The `CookieOAuth2AuthorizationRequestRepository` keeps the OAuth2 authorization request,
+ * between redirecting to the provider and the provider redirecting back, in a signed cookie
+ * rather than the HttpSession, so that logging in works in the stateless mode whichever
+ * instance each redirect reaches.
+ */
+class CookieOAuth2AuthorizationRequestRepository
+    implements AuthorizationRequestRepository<OAuth2AuthorizationRequest> {
+
+  static final String COOKIE_NAME = "OAUTH2_AUTHORIZATION_REQUEST";
+
+  private static final Duration MAX_AGE = Duration.ofMinutes(5);
+
+  /** The parts of an OAuth2AuthorizationRequest needed to rebuild it; expiresAt is epoch ms. */
+  record StoredRequest(
+      String authorizationUri,
+      String clientId,
+      String redirectUri,
+      Set<String> scopes,
+      String state,
+      Map<String, Object> additionalParameters,
+      Map<String, Object> attributes,
+      String authorizationRequestUri,
+      long expiresAt) {}
+
+  private final SignedCookieCodec codec;
+
+  private final Clock clock;
+
+  CookieOAuth2AuthorizationRequestRepository(SignedCookieCodec codec, Clock clock) {
+    this.codec = codec;
+    this.clock = clock;
+  }
+
+  @Override
+  public OAuth2AuthorizationRequest loadAuthorizationRequest(HttpServletRequest request) {
+    return codec
+        .read(request, COOKIE_NAME, StoredRequest.class)
+        .filter(stored -> stored.expiresAt() > clock.millis())
+        .map(
+            stored ->
+                OAuth2AuthorizationRequest.authorizationCode()
+                    .authorizationUri(stored.authorizationUri())
+                    .clientId(stored.clientId())
+                    .redirectUri(stored.redirectUri())
+                    .scopes(stored.scopes())
+                    .state(stored.state())
+                    .additionalParameters(stored.additionalParameters())
+                    .attributes(stored.attributes())
+                    .authorizationRequestUri(stored.authorizationRequestUri())
+                    .build())
+        .orElse(null);
+  }
+
+  @Override
+  public void saveAuthorizationRequest(
+      OAuth2AuthorizationRequest authorizationRequest,
+      HttpServletRequest request,
+      HttpServletResponse response) {
+    if (authorizationRequest == null) {
+      codec.delete(request, response, COOKIE_NAME);
+      return;
+    }
+    StoredRequest stored =
+        new StoredRequest(
+            authorizationRequest.getAuthorizationUri(),
+            authorizationRequest.getClientId(),
+            authorizationRequest.getRedirectUri(),
+            authorizationRequest.getScopes(),
+            authorizationRequest.getState(),
+            authorizationRequest.getAdditionalParameters(),
+            authorizationRequest.getAttributes(),
+            authorizationRequest.getAuthorizationRequestUri(),
+            clock.millis() + MAX_AGE.toMillis());
+    codec.write(request, response, COOKIE_NAME, stored, MAX_AGE);
+  }
+
+  @Override
+  public OAuth2AuthorizationRequest removeAuthorizationRequest(
+      HttpServletRequest request, HttpServletResponse response) {
+    OAuth2AuthorizationRequest authorizationRequest = loadAuthorizationRequest(request);
+    if (authorizationRequest != null) {
+      codec.delete(request, response, COOKIE_NAME);
+    }
+    return authorizationRequest;
+  }
+}
@@ -0,0 +1,48 @@
+package edu.ucsb.cs156.example.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.security.web.csrf.DeferredCsrfToken;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * The `CsrfCookieFilter` makes sure the browser has the CSRF cookie that the
+ * frontend copies into the X-XSRF-TOKEN header.
+ * 
+ * The cookie only needs to be written once, so requests that already send it
+ * back are skipped, as are static files (paths whose last segment has a dot,
+ * the same split FrontendController uses), which are never followed by a
+ * request that needs the token before a page has loaded.
+ */
+final class CsrfCookieFilter extends OncePerRequestFilter {
+
+  static final String COOKIE_NAME = "XSRF-TOKEN";
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+    if (cookie != null && StringUtils.hasText(cookie.getValue())) {
+      return true;
+    }
+    String path = request.getRequestURI();
+    return path.substring(path.lastIndexOf('/') + 1).contains(".");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    // Loading the deferred token writes the cookie; unlike CsrfToken.getToken() it
+    // does not also compute the masked form of the token, which is not needed here
+    DeferredCsrfToken deferredCsrfToken = (DeferredCsrfToken) request.getAttribute(DeferredCsrfToken.class.getName());
+    if (deferredCsrfToken != null) {
+      deferredCsrfToken.get();
+    }
+    filterChain.doFilter(request, response);
+  }
+}
\ No newline at end of file
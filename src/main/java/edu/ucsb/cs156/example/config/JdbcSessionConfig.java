@@ -0,0 +1,84 @@
+package edu.ucsb.cs156.example.config;
+
+import java.time.Duration;
+import java.util.List;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.session.JdbcSessionDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.jdbc.init.PlatformPlaceholderDatabaseDriverResolver;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.session.FlushMode;
+import org.springframework.session.SaveMode;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.config.annotation.web.http.EnableJdbcHttpSession;
+
+/**
+ * The `JdbcSessionConfig` class keeps HttpSessions in the application's database (Spring Session
+ * JDBC) when `app.sessions.store=jdbc`, so that several instances can serve the same logged-in
+ * users without sticky sessions. With the default, `app.sessions.store=memory`, sessions stay in
+ * the memory of the instance that created them.
+ *
+ * `app.sessions.jdbc.flushMode` chooses whether changes are written when the request ends
+ * (`on_save`) or as soon as they are made (`immediate`), and `app.sessions.jdbc.saveMode`
+ * chooses which attributes are written: with `on_set_attribute` only attributes set during the
+ * request are, rather than all of them.
+ *
+ * Spring Boot's own session auto-configuration is excluded in application.properties, since it
+ * would otherwise turn JDBC sessions on whenever Spring Session JDBC is on the classpath.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sessions.store", havingValue = "jdbc")
+@EnableJdbcHttpSession
+@Slf4j
+public class JdbcSessionConfig {
+
+  private static final String SCHEMA = "classpath:org/springframework/session/jdbc/schema-@@platform@@.sql";
+
+  @Bean
+  public SessionRepositoryCustomizer<JdbcIndexedSessionRepository> jdbcSessionRepositoryCustomizer(
+      @Value("${app.sessions.jdbc.flushMode:on_save}") String flushMode,
+      @Value("${app.sessions.jdbc.saveMode:on_set_attribute}") String saveMode,
+      @Value("${server.servlet.session.timeout:30m}") Duration timeout) {
+    log.info("JDBC sessions: flush mode {}, save mode {}, timeout {}", flushMode, saveMode, timeout);
+    return repository -> {
+      repository.setFlushMode(FlushMode.valueOf(flushMode.toUpperCase()));
+      repository.setSaveMode(SaveMode.valueOf(saveMode.toUpperCase()));
+      repository.setDefaultMaxInactiveInterval(timeout);
+    };
+  }
+
+  /**
+   * The `jdbcSessionSchemaInitializer` creates the SPRING_SESSION tables for the database in
+   * use (H2 locally, Postgres in production) unless they already exist. Any error in creating
+   * them stops the application from starting.
+   */
+  @Bean
+  public JdbcSessionDataSourceScriptDatabaseInitializer jdbcSessionSchemaInitializer(DataSource dataSource) {
+    DatabaseInitializationSettings settings = new DatabaseInitializationSettings();
+    settings.setSchemaLocations(new PlatformPlaceholderDatabaseDriverResolver().resolveAll(dataSource, SCHEMA));
+    settings.setMode(DatabaseInitializationMode.ALWAYS);
+    return new JdbcSessionDataSourceScriptDatabaseInitializer(dataSource, settings) {
+      @Override
+      public boolean initializeDatabase() {
+        return !sessionTablesExist(dataSource) && super.initializeDatabase();
+      }
+    };
+  }
+
+  static boolean sessionTablesExist(DataSource dataSource) {
+    try {
+      new JdbcTemplate(dataSource).queryForObject("select count(*) from SPRING_SESSION where 1 = 0", Long.class);
+      return true;
+    } catch (BadSqlGrammarException e) {
+      return false;
+    }
+  }
+}
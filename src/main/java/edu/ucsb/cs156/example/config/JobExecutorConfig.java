@@ -0,0 +1,67 @@
+package edu.ucsb.cs156.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * The `JobExecutorConfig` class defines the executor that runs jobs launched through
+ * `JobService.runAsJob`.
+ *
+ * At most `app.jobs.executor.poolSize` jobs run at once and at most
+ * `app.jobs.executor.queueCapacity` more wait for a thread; jobs launched beyond that are rejected
+ * rather than queued without bound. With `app.jobs.executor.threads=virtual` the jobs run on Java 21
+ * virtual threads, which suits jobs that mostly wait on the database or the network; the limits
+ * still apply.
+ *
+ * It also defines the schedulers that run `@Scheduled` methods. Job leases are renewed on a
+ * scheduler of their own (`LEASE_SCHEDULER`), so that a slow scheduled task, such as a retention
+ * run, can never hold up the heartbeat long enough for another instance to take over jobs that are
+ * still running. Every other scheduled method shares `taskScheduler`, whose size is
+ * `spring.task.scheduling.pool.size`.
+ */
+@Configuration
+@Slf4j
+public class JobExecutorConfig {
+
+  public static final String JOB_EXECUTOR = "jobExecutor";
+
+  public static final String LEASE_SCHEDULER = "leaseScheduler";
+
+  @Bean(name = JOB_EXECUTOR)
+  public ThreadPoolTaskExecutor jobExecutor(
+      @Value("${app.jobs.executor.threads:platform}") String threads,
+      @Value("${app.jobs.executor.poolSize:4}") int poolSize,
+      @Value("${app.jobs.executor.queueCapacity:100}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("job-");
+    if ("virtual".equals(threads)) {
+      executor.setThreadFactory(Thread.ofVirtual().name("job-", 1).factory());
+    }
+    log.info(
+        "Job executor: {} threads, pool size {}, queue capacity {}", threads, poolSize, queueCapacity);
+    return executor;
+  }
+
+  @Bean(name = LEASE_SCHEDULER)
+  public ThreadPoolTaskScheduler leaseScheduler() {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(1);
+    scheduler.setThreadNamePrefix("job-lease-");
+    return scheduler;
+  }
+
+  // defining leaseScheduler turns off Spring Boot's own scheduler, so define it here; the builder
+  // applies the spring.task.scheduling properties
+  @Bean(name = "taskScheduler")
+  public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+    return builder.build();
+  }
+}
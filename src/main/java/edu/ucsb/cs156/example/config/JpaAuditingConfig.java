@@ -0,0 +1,25 @@
+package edu.ucsb.cs156.example.config;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/**
+ * The `JpaAuditingConfig` class turns on JPA auditing, which fills in the `@CreatedDate` and
+ * `@LastModifiedDate` fields of entities such as `Job` when they are saved.
+ *
+ * The default provider gives a `LocalDateTime`, which cannot be stored in the `ZonedDateTime`
+ * fields these entities use, so the current time is provided as a `ZonedDateTime` instead.
+ */
+@Configuration
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+public class JpaAuditingConfig {
+
+  @Bean
+  public DateTimeProvider auditingDateTimeProvider() {
+    return () -> Optional.of(ZonedDateTime.now());
+  }
+}
@@ -1,8 +1,9 @@
 package edu.ucsb.cs156.example.config;
 
 import edu.ucsb.cs156.example.entities.User;
-import edu.ucsb.cs156.example.repositories.UserRepository;
-import jakarta.servlet.FilterChain;
+import edu.ucsb.cs156.example.services.AdminDirectory;
+import edu.ucsb.cs156.example.services.AuthAuditLog;
+import edu.ucsb.cs156.example.services.CurrentUserService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -22,29 +23,31 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.Http403ForbiddenEntryPoint;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.security.web.authentication.SavedRequestAwareAuthenticationSuccessHandler;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.csrf.CsrfTokenRequestAttributeHandler;
 import org.springframework.security.web.csrf.CsrfTokenRequestHandler;
 import org.springframework.security.web.csrf.XorCsrfTokenRequestAttributeHandler;
 import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.util.StringUtils;
-import org.springframework.web.filter.OncePerRequestFilter;
 
 import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -59,11 +62,26 @@ import java.util.function.Supplier;
 @Slf4j
 public class SecurityConfig {
 
-  @Value("${app.admin.emails}")
-  private final List<String> adminEmails = new ArrayList<>();
+  @Autowired
+  AdminDirectory adminDirectory;
+
+  @Autowired
+  AuthAuditLog authAuditLog;
 
   @Autowired
-  UserRepository userRepository;
+  CurrentUserService currentUserService;
+
+  @Value("${app.auth.stateless.enabled:false}")
+  private boolean stateless = false;
+
+  @Value("${app.auth.stateless.secret:}")
+  private String statelessSecret = "";
+
+  @Value("${app.auth.stateless.tokenTtlMs:900000}")
+  private long statelessTokenTtlMs = 900000;
+
+  @Value("${app.auth.stateless.maxLifetimeMs:43200000}")
+  private long statelessMaxLifetimeMs = 43200000;
 
   /**
    * The `filterChain` method in this Java code configures various security
@@ -77,19 +95,31 @@ public class SecurityConfig {
   // https://docs.spring.io/spring-security/reference/servlet/exploits/csrf.html#csrf-integration-javascript-spa
   @Bean
   public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    TokenSecurityContextRepository tokens = stateless ? this.statelessMode(http) : null;
     http
         .exceptionHandling(handling -> handling.authenticationEntryPoint(new Http403ForbiddenEntryPoint()))
         .oauth2Login(
-            oauth2 -> oauth2.userInfoEndpoint(userInfo -> userInfo.userAuthoritiesMapper(this.userAuthoritiesMapper())))
+            oauth2 -> oauth2
+                .userInfoEndpoint(userInfo -> userInfo.userAuthoritiesMapper(this.userAuthoritiesMapper()))
+                .successHandler(this.loginSuccessHandler(tokens)))
         .csrf(csrf -> csrf
-            .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
+            .csrfTokenRepository(this.csrfTokenRepository())
             .csrfTokenRequestHandler(new SpaCsrfTokenRequestHandler()))
         .addFilterAfter(new CsrfCookieFilter(), BasicAuthenticationFilter.class)
-        .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+        // the actuator endpoints show metrics of every user's jobs, so only admins can read them
+        .authorizeHttpRequests(auth -> auth
+            .requestMatchers(antMatcher("/actuator/**")).hasRole("ADMIN")
+            .anyRequest().permitAll())
         .logout(logout -> logout.logoutRequestMatcher(new AntPathRequestMatcher("/logout")).logoutSuccessUrl("/"));
     return http.build();
   }
 
+  private CookieCsrfTokenRepository csrfTokenRepository() {
+    CookieCsrfTokenRepository repository = CookieCsrfTokenRepository.withHttpOnlyFalse();
+    repository.setCookieName(CsrfCookieFilter.COOKIE_NAME);
+    return repository;
+  }
+
   /**
    * The `webSecurityCustomizer` method is used to configure web security in Java,
    * specifically ignoring requests
@@ -100,17 +130,62 @@ public class SecurityConfig {
     return web -> web.ignoring().requestMatchers(antMatcher("/h2-console/**"));
   }
 
+  /**
+   * The `statelessMode` method configures the optional stateless mode
+   * (app.auth.stateless.enabled): no HttpSession is created, the logged-in user is
+   * kept in a signed token cookie, and the OAuth2 login handshake is kept in a
+   * signed cookie too, so requests can go to any instance.
+   * 
+   * @param http injected HttpSecurity object
+   * @return the repository that issues and checks the token cookie
+   */
+  private TokenSecurityContextRepository statelessMode(HttpSecurity http) throws Exception {
+    SignedCookieCodec codec = new SignedCookieCodec(statelessSecret);
+    TokenSecurityContextRepository tokens = new TokenSecurityContextRepository(
+        codec, Duration.ofMillis(statelessTokenTtlMs), Duration.ofMillis(statelessMaxLifetimeMs),
+        adminDirectory, Clock.systemUTC());
+    http
+        .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+        .securityContext(context -> context.securityContextRepository(tokens))
+        .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+        .oauth2Login(oauth2 -> oauth2.authorizationEndpoint(authorization -> authorization
+            .authorizationRequestRepository(new CookieOAuth2AuthorizationRequestRepository(codec, Clock.systemUTC()))))
+        .addFilterAfter(tokens.renewalFilter(), SecurityContextHolderFilter.class)
+        .logout(logout -> logout.deleteCookies(TokenSecurityContextRepository.COOKIE_NAME));
+    return tokens;
+  }
+
+  /**
+   * The `loginSuccessHandler` stores or updates the user's record once, when they log in,
+   * rather than on whichever request first asks for the current user; in the stateless
+   * mode it then issues the token cookie. It then redirects as Spring Security does by default.
+   * 
+   * @param tokens the token repository in the stateless mode, otherwise null
+   */
+  private AuthenticationSuccessHandler loginSuccessHandler(TokenSecurityContextRepository tokens) {
+    return new SavedRequestAwareAuthenticationSuccessHandler() {
+      @Override
+      public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+          Authentication authentication) throws ServletException, IOException {
+        if (authentication instanceof OAuth2AuthenticationToken token) {
+          User user = currentUserService.userLoggedIn(token.getPrincipal());
+          if (tokens != null && user != null) {
+            tokens.issue(request, response, user, token);
+          }
+        }
+        super.onAuthenticationSuccess(request, response, authentication);
+      }
+    };
+  }
+
   private GrantedAuthoritiesMapper userAuthoritiesMapper() {
     return (authorities) -> {
       Set<GrantedAuthority> mappedAuthorities = new HashSet<>();
-      log.info("********** authorities={}", authorities);
 
       authorities.forEach(authority -> {
-        log.info("********** authority={}", authority);
         mappedAuthorities.add(authority);
         if (authority instanceof OAuth2UserAuthority oauth2UserAuthority) {
           Map<String, Object> userAttributes = oauth2UserAuthority.getAttributes();
-          log.info("********** userAttributes={}", userAttributes);
 
           mappedAuthorities.add(new SimpleGrantedAuthority("ROLE_USER"));
 
@@ -122,10 +197,10 @@ public class SecurityConfig {
           if (email.endsWith("@ucsb.edu")) {
             mappedAuthorities.add(new SimpleGrantedAuthority("ROLE_MEMBER"));
           }
+          authAuditLog.loggedIn(email, mappedAuthorities);
         }
 
       });
-      log.info("********** mappedAuthorities={}", mappedAuthorities);
       return mappedAuthorities;
     };
   }
@@ -133,17 +208,13 @@ public class SecurityConfig {
   /**
    * This method checks if the given email belongs to an admin user either from a
    * predefined
-   * list or by querying the user repository.
+   * list or from the admins in the user repository (see AdminDirectory).
    * 
    * @param email email address of the user
    * @return whether the user with the given email is an admin
    */
   public boolean getAdmin(String email) {
-    if (adminEmails.contains(email)) {
-      return true;
-    }
-    Optional<User> u = userRepository.findByEmail(email);
-    return u.isPresent() && u.get().getAdmin();
+    return adminDirectory.isAdmin(email);
   }
 }
 
@@ -184,15 +255,3 @@ final class SpaCsrfTokenRequestHandler extends CsrfTokenRequestAttributeHandler
     return this.delegate.resolveCsrfTokenValue(request, csrfToken);
   }
 }
-
-final class CsrfCookieFilter extends OncePerRequestFilter {
-
-  @Override
-  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
-      throws ServletException, IOException {
-    CsrfToken csrfToken = (CsrfToken) request.getAttribute("_csrf");
-    // Render the token value to a cookie by causing the deferred token to be loaded
-    csrfToken.getToken();
-    filterChain.doFilter(request, response);
-  }
-}
\ No newline at end of file
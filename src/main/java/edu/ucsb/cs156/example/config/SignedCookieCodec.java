@@ -0,0 +1,155 @@
+package edu.ucsb.cs156.example.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * The `SignedCookieCodec` stores values in cookies as JSON signed with HMAC-SHA256
+ * (`base64url(json).base64url(signature)`), so that any instance sharing the secret can trust
+ * them without keeping state of its own.
+ */
+class SignedCookieCodec {
+
+  private static final String ALGORITHM = "HmacSHA256";
+
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final SecretKeySpec key;
+
+  SignedCookieCodec(String secret) {
+    if (secret == null || secret.length() < 32) {
+      throw new IllegalStateException(
+          "app.auth.stateless.secret must be at least 32 characters when app.auth.stateless.enabled is true");
+    }
+    key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+  }
+
+  /**
+   * This method serializes and signs a value.
+   *
+   * @param value the value, serializable by Jackson
+   * @return the signed value, safe to use as a cookie value
+   */
+  String encode(Object value) {
+    try {
+      String payload = ENCODER.encodeToString(mapper.writeValueAsBytes(value));
+      return payload + "." + ENCODER.encodeToString(sign(payload));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * This method checks the signature of a value made by encode and deserializes it.
+   *
+   * @param signed the signed value
+   * @param type the type of the value
+   * @return the value, or empty if it is missing, malformed or not signed with our secret
+   */
+  <T> Optional<T> decode(String signed, Class<T> type) {
+    if (signed == null) {
+      return Optional.empty();
+    }
+    int dot = signed.indexOf('.');
+    if (dot < 0) {
+      return Optional.empty();
+    }
+    String payload = signed.substring(0, dot);
+    try {
+      if (!MessageDigest.isEqual(sign(payload), DECODER.decode(signed.substring(dot + 1)))) {
+        return Optional.empty();
+      }
+      return Optional.of(mapper.readValue(DECODER.decode(payload), type));
+    } catch (IllegalArgumentException | IOException e) {
+      return Optional.empty();
+    }
+  }
+
+  private byte[] sign(String payload) {
+    try {
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(key);
+      return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * This method reads a signed cookie from a request.
+   *
+   * @param request the request
+   * @param name the name of the cookie
+   * @param type the type of the value
+   * @return the value, or empty if the cookie is missing or not valid
+   */
+  <T> Optional<T> read(HttpServletRequest request, String name, Class<T> type) {
+    Cookie cookie = WebUtils.getCookie(request, name);
+    return cookie == null ? Optional.empty() : decode(cookie.getValue(), type);
+  }
+
+  /**
+   * This method signs a value and sends it as an HttpOnly cookie.
+   *
+   * @param request the request, to tell whether the cookie may be sent over http
+   * @param response the response
+   * @param name the name of the cookie
+   * @param value the value, serializable by Jackson
+   * @param maxAge how long the browser keeps the cookie
+   */
+  void write(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      String name,
+      Object value,
+      Duration maxAge) {
+    addCookie(request, response, name, encode(value), maxAge);
+  }
+
+  /**
+   * This method tells the browser to drop a cookie.
+   *
+   * @param request the request
+   * @param response the response
+   * @param name the name of the cookie
+   */
+  void delete(HttpServletRequest request, HttpServletResponse response, String name) {
+    addCookie(request, response, name, "", Duration.ZERO);
+  }
+
+  private static void addCookie(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      String name,
+      String value,
+      Duration maxAge) {
+    ResponseCookie cookie =
+        ResponseCookie.from(name, value)
+            .path("/")
+            .httpOnly(true)
+            .secure(request.isSecure())
+            .sameSite("Lax")
+            .maxAge(maxAge)
+            .build();
+    response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+  }
+}
@@ -0,0 +1,210 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.services.AdminDirectory;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * The `TokenSecurityContextRepository` is used instead of the HttpSession when
+ * app.auth.stateless.enabled is true. The logged-in user's id, email and roles are kept in a
+ * short-lived signed cookie, which any instance can check without a session store or the
+ * database.
+ *
+ * <p>The token is issued by the login success handler, once the user's record has been stored
+ * and has an id, and is re-issued by renewalFilter() once it is past half its lifetime. Renewal
+ * checks again whether the user is an admin, and stops once the user logged in longer ago than
+ * app.auth.stateless.maxLifetimeMs, so that they then have to log in again.
+ */
+class TokenSecurityContextRepository implements SecurityContextRepository {
+
+  static final String COOKIE_NAME = "AUTH_TOKEN";
+
+  /** The contents of the token cookie; times are epoch milliseconds. */
+  record AuthToken(
+      long userId,
+      String email,
+      String sub,
+      String name,
+      String registrationId,
+      List<String> roles,
+      long authenticatedAt,
+      long issuedAt,
+      long expiresAt) {}
+
+  private final SignedCookieCodec codec;
+
+  private final Duration ttl;
+
+  private final Duration maxLifetime;
+
+  private final AdminDirectory adminDirectory;
+
+  private final Clock clock;
+
+  TokenSecurityContextRepository(
+      SignedCookieCodec codec,
+      Duration ttl,
+      Duration maxLifetime,
+      AdminDirectory adminDirectory,
+      Clock clock) {
+    this.codec = codec;
+    this.ttl = ttl;
+    this.maxLifetime = maxLifetime;
+    this.adminDirectory = adminDirectory;
+    this.clock = clock;
+  }
+
+  /**
+   * This method sends the token for a user who has just logged in.
+   *
+   * @param request the request
+   * @param response the response
+   * @param user the user's stored record
+   * @param authentication the user's authentication, with the roles they were given
+   */
+  void issue(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      User user,
+      OAuth2AuthenticationToken authentication) {
+    long now = clock.millis();
+    AuthToken token =
+        new AuthToken(
+            user.getId(),
+            user.getEmail(),
+            user.getGoogleSub(),
+            user.getFullName(),
+            authentication.getAuthorizedClientRegistrationId(),
+            AuthorityUtils.authorityListToSet(authentication.getAuthorities()).stream()
+                .sorted()
+                .toList(),
+            now,
+            now,
+            now + ttl.toMillis());
+    codec.write(request, response, COOKIE_NAME, token, ttl);
+  }
+
+  private Optional<AuthToken> validToken(HttpServletRequest request) {
+    return codec
+        .read(request, COOKIE_NAME, AuthToken.class)
+        .filter(token -> token.expiresAt() > clock.millis());
+  }
+
+  /**
+   * This method builds the authentication held by a token, shaped as after an OAuth2 login so
+   * that the rest of the app does not need to know which mode it runs in.
+   */
+  static OAuth2AuthenticationToken toAuthentication(AuthToken token) {
+    List<GrantedAuthority> authorities =
+        AuthorityUtils.createAuthorityList(token.roles().toArray(String[]::new));
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    attributes.put("user_id", token.userId());
+    attributes.put("email", token.email());
+    if (token.sub() != null) {
+      attributes.put("sub", token.sub());
+    }
+    if (token.name() != null) {
+      attributes.put("name", token.name());
+    }
+    DefaultOAuth2User principal = new DefaultOAuth2User(authorities, attributes, "email");
+    return new OAuth2AuthenticationToken(principal, authorities, token.registrationId());
+  }
+
+  @Override
+  @SuppressWarnings("deprecation")
+  public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+    Optional<AuthToken> token = validToken(requestResponseHolder.getRequest());
+    if (token.isEmpty()) {
+      return null;
+    }
+    SecurityContext context = SecurityContextHolder.createEmptyContext();
+    context.setAuthentication(toAuthentication(token.get()));
+    return context;
+  }
+
+  /**
+   * Logging in is saved by issue() rather than here, since the user's id is only known once
+   * the success handler has stored them; this only drops the cookie when the user logs out.
+   */
+  @Override
+  public void saveContext(
+      SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+    Authentication authentication = context.getAuthentication();
+    if (authentication == null && containsContext(request)) {
+      codec.delete(request, response, COOKIE_NAME);
+    }
+  }
+
+  @Override
+  public boolean containsContext(HttpServletRequest request) {
+    return validToken(request).isPresent();
+  }
+
+  /**
+   * This method returns a filter that re-issues the token once it is past half its lifetime, so
+   * that active users stay logged in, but never past the maximum lifetime of their login.
+   *
+   * @return the filter
+   */
+  OncePerRequestFilter renewalFilter() {
+    return new OncePerRequestFilter() {
+      @Override
+      protected void doFilterInternal(
+          HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+          throws ServletException, IOException {
+        validToken(request).ifPresent(token -> renewIfOld(request, response, token));
+        filterChain.doFilter(request, response);
+      }
+    };
+  }
+
+  private void renewIfOld(HttpServletRequest request, HttpServletResponse response, AuthToken token) {
+    long now = clock.millis();
+    long loginEndsAt = token.authenticatedAt() + maxLifetime.toMillis();
+    if (now - token.issuedAt() < ttl.toMillis() / 2 || token.expiresAt() >= loginEndsAt) {
+      return;
+    }
+    // the user may have been made an admin, or stopped being one, since the token was issued
+    Stream<String> otherRoles = token.roles().stream().filter(role -> !role.equals("ROLE_ADMIN"));
+    List<String> roles =
+        (adminDirectory.isAdmin(token.email())
+                ? Stream.concat(otherRoles, Stream.of("ROLE_ADMIN"))
+                : otherRoles)
+            .sorted()
+            .toList();
+    long expiresAt = Math.min(now + ttl.toMillis(), loginEndsAt);
+    AuthToken renewed =
+        new AuthToken(
+            token.userId(),
+            token.email(),
+            token.sub(),
+            token.name(),
+            token.registrationId(),
+            roles,
+            token.authenticatedAt(),
+            now,
+            expiresAt);
+    codec.write(request, response, COOKIE_NAME, renewed, Duration.ofMillis(expiresAt - now));
+  }
+}
@@ -4,13 +4,29 @@ import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.repositories.FilteredPagesRepository;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.support.DefaultFormattingConversionService;
 import org.springframework.http.HttpStatus;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * This is an abstract class that provides common functionality for all API controllers.
@@ -18,6 +34,18 @@ import java.util.Map;
 
 @Slf4j
 public abstract class ApiController {
+  // request parameters of list endpoints that are not filters: paging, and the _=timestamp that
+  // some clients add to defeat caches
+  private static final Set<String> PAGE_PARAMS = Set.of("page", "size", "sort", "afterId", "_");
+
+  private static final ConversionService CONVERSIONS = new DefaultFormattingConversionService();
+
+  /**
+   * Description of the filter parameters of list endpoints, for the API documentation.
+   */
+  protected static final String FILTERS_DESCRIPTION =
+      "filters by field, e.g. name=value; afterId=N returns the entities after id N, in order of id";
+
   @Autowired
   private CurrentUserService currentUserService;
 
@@ -38,6 +66,66 @@ public abstract class ApiController {
     return Map.of("message", message);
   }
 
+  /**
+   * This method returns a page of the entities in a repository, for the list endpoints of the
+   * controllers. Every request parameter other than page, size, sort and afterId filters by the
+   * field of the entity it names, e.g. name=Freebirds; an empty value, e.g. name=, matches null.
+   * The _=timestamp that some clients add to defeat caches is ignored.
+   *
+   * With afterId, the page holds the entities whose id is greater than afterId, in order of id,
+   * so that a client can read a large table a page at a time by passing the last id it has
+   * seen, rather than page numbers that the database must skip over (keyset pagination).
+   *
+   * @param repository the repository of the entities
+   * @param type the entity class
+   * @param params the request parameters
+   * @param pageable the page, its size and its sort order
+   * @return the page of entities
+   * @throws ResponseStatusException (400) for a filter or sort by a field the entity does not
+   *     have, or a filter value that cannot be converted to the field's type
+   */
+  protected <T> Page<T> listPage(
+      FilteredPagesRepository<T> repository, Class<T> type, Map<String, String> params, Pageable pageable) {
+    List<Specification<T>> filters = new ArrayList<>();
+    for (Map.Entry<String, String> param : params.entrySet()) {
+      if (PAGE_PARAMS.contains(param.getKey())) {
+        continue;
+      }
+      Field field = entityField(type, param.getKey(), "filter");
+      Object value = param.getValue().isEmpty() ? null : convert(param.getValue(), field.getType(), param.getKey());
+      filters.add((root, query, cb) ->
+          value == null ? cb.isNull(root.get(field.getName())) : cb.equal(root.get(field.getName()), value));
+    }
+    for (Sort.Order order : pageable.getSort()) {
+      entityField(type, order.getProperty(), "sort");
+    }
+    if (params.containsKey("afterId")) {
+      entityField(type, "id", "page");
+      Long afterId = (Long) convert(params.get("afterId"), Long.class, "afterId");
+      filters.add((root, query, cb) -> cb.greaterThan(root.<Long>get("id"), afterId));
+      pageable = PageRequest.of(0, pageable.getPageSize(), Sort.by("id"));
+    }
+    return repository.findAll(Specification.allOf(filters), pageable);
+  }
+
+  private static Field entityField(Class<?> type, String name, String action) {
+    Field field = ReflectionUtils.findField(type, name);
+    if (field == null || Modifier.isStatic(field.getModifiers())) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Cannot %s %s by %s".formatted(action, type.getSimpleName(), name));
+    }
+    return field;
+  }
+
+  private static Object convert(String value, Class<?> targetType, String name) {
+    try {
+      return CONVERSIONS.convert(value, targetType);
+    } catch (ConversionException e) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Invalid value for %s: %s".formatted(name, value));
+    }
+  }
+
   /**
    * This method handles the EntityNotFoundException.
    * @param e the exception
@@ -13,7 +13,11 @@ import lombok.extern.slf4j.Slf4j;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -28,6 +32,7 @@ import org.springframework.web.bind.annotation.RestController;
 import jakarta.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 /**
  * This is a REST controller for Articles
@@ -55,6 +60,22 @@ public class ArticlesController extends ApiController {
         return articles;
     }
 
+    /**
+     * List articles a page at a time, optionally filtered by any field
+     *
+     * @param params filters by field, and afterId (see ApiController.listPage)
+     * @param pageable the page, its size and its sort order
+     * @return a page of Article
+     */
+    @Operation(summary = "List articles a page at a time, optionally filtered by any field")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "!id")
+    public Page<Article> pageOfArticles(
+            @Parameter(name = "params", description = FILTERS_DESCRIPTION) @RequestParam Map<String, String> params,
+            @ParameterObject @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        return listPage(articleRepository, Article.class, params, pageable);
+    }
+
     /**
      * Get a single article by id
      * 
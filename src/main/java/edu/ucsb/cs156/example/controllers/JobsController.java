@@ -2,25 +2,60 @@ package edu.ucsb.cs156.example.controllers;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.CompressedJobLog;
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobArchive;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.jobs.TestFanOutJob;
 import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.models.JobExecutorStats;
+import edu.ucsb.cs156.example.models.JobQueueDepth;
+import edu.ucsb.cs156.example.models.JobSummary;
+import edu.ucsb.cs156.example.repositories.CompressedJobLogsRepository;
+import edu.ucsb.cs156.example.repositories.JobArchivesRepository;
+import edu.ucsb.cs156.example.repositories.JobDependenciesRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.jobs.JobArchiveService;
+import edu.ucsb.cs156.example.services.jobs.JobLogCompressionService;
 import edu.ucsb.cs156.example.services.jobs.JobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Jobs")
 @RequestMapping("/api/jobs")
@@ -29,10 +64,34 @@ import org.springframework.web.bind.annotation.RestController;
 public class JobsController extends ApiController {
   @Autowired private JobsRepository jobsRepository;
 
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
+  @Autowired private JobArchivesRepository jobArchivesRepository;
+
+  @Autowired private CompressedJobLogsRepository compressedJobLogsRepository;
+
+  @Autowired private JobDependenciesRepository jobDependenciesRepository;
+
   @Autowired private JobService jobService;
 
+  @Autowired private JobArchiveService jobArchiveService;
+
+  @Autowired private JobLogCompressionService jobLogCompressionService;
+
   @Autowired ObjectMapper mapper;
 
+  private static final MediaType TEXT_PLAIN_UTF8 =
+      new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
+  // sending a launch request again with the same key returns the job it started the first time
+  private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+  private static final String IDEMPOTENCY_KEY_DESCRIPTION =
+      "a unique value for this launch; repeating the request with it returns the same job";
+
+  private static final Set<String> JOB_SUMMARY_SORTS =
+      Set.of("id", "createdAt", "updatedAt", "status", "priority", "startedAt");
+
   @Operation(summary = "List all jobs")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @GetMapping("/all")
@@ -41,17 +100,67 @@ public class JobsController extends ApiController {
     return jobs;
   }
 
+  @Operation(
+      summary =
+          "List jobs a page at a time, without their logs, optionally by status, parent job and creation time")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping(value = "", params = "!id")
+  public Page<JobSummary> listJobs(
+      @Parameter(name = "status", description = "only jobs with this status, e.g. running")
+          @RequestParam(required = false)
+          String status,
+      @Parameter(name = "parentId", description = "only jobs started by this job")
+          @RequestParam(required = false)
+          Long parentId,
+      @Parameter(
+              name = "createdAfter",
+              description = "only jobs created at or after this time, e.g. 2025-05-01T00:00:00Z")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          ZonedDateTime createdAfter,
+      @Parameter(name = "createdBefore", description = "only jobs created before this time")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          ZonedDateTime createdBefore,
+      @ParameterObject @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.DESC)
+          Pageable pageable) {
+    for (Sort.Order order : pageable.getSort()) {
+      if (!JOB_SUMMARY_SORTS.contains(order.getProperty())) {
+        throw new ResponseStatusException(
+            HttpStatus.BAD_REQUEST, "Cannot sort jobs by " + order.getProperty());
+      }
+    }
+    return jobsRepository.findSummaries(status, parentId, createdAfter, createdBefore, pageable);
+  }
+
+  @Operation(summary = "Get the size, load and counters of the executor that runs jobs")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/executor")
+  public JobExecutorStats executorStats() {
+    return jobService.getExecutorStats();
+  }
+
+  @Operation(summary = "Get the number of queued jobs at each priority")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/queue")
+  public List<JobQueueDepth> queueDepth() {
+    return jobsRepository.countQueuedByPriority();
+  }
+
   @Operation(summary = "Delete all job records")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @DeleteMapping("/all")
   public Map<String, String> deleteAllJobs() {
-    jobsRepository.deleteAll();
+    jobLogLinesRepository.deleteAllLines();
+    compressedJobLogsRepository.deleteAllLogs();
+    jobDependenciesRepository.deleteAllDependencies();
+    jobsRepository.deleteAllJobs();
     return Map.of("message", "All jobs deleted");
   }
 
   @Operation(summary = "Get a specific Job Log by ID if it is in the database")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
-  @GetMapping("")
+  @GetMapping(value = "", params = "id")
   public Job getJobLogById(
       @Parameter(name = "id", description = "ID of the job") @RequestParam Long id)
       throws JsonProcessingException {
@@ -69,28 +178,164 @@ public class JobsController extends ApiController {
     if (!jobsRepository.existsById(id)) {
       return Map.of("message", String.format("Job with id %d not found", id));
     }
+    jobLogLinesRepository.deleteAllByJobId(id);
+    compressedJobLogsRepository.deleteAllByJobIdIn(List.of(id));
+    jobDependenciesRepository.deleteAllByJobIdIn(List.of(id));
+    jobDependenciesRepository.deleteAllByDependsOnJobIdIn(List.of(id));
     jobsRepository.deleteById(id);
     return Map.of("message", String.format("Job with id %d deleted", id));
   }
 
+  @Operation(summary = "List the jobs that a job waits for before it runs")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/dependencies")
+  public List<JobSummary> getDependencies(
+      @Parameter(name = "id", description = "ID of the job") @RequestParam Long id) {
+    if (!jobsRepository.existsById(id)) {
+      throw new EntityNotFoundException(Job.class, id);
+    }
+    return jobsRepository.findDependencySummaries(id);
+  }
+
+  @Operation(summary = "Get an archived job and its log by the ID the job had")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/archived")
+  public ResponseEntity<StreamingResponseBody> getArchivedJob(
+      @Parameter(name = "id", description = "ID of the job") @RequestParam Long id) {
+    JobArchive archive =
+        jobArchivesRepository
+            .findById(id)
+            .orElseThrow(() -> new EntityNotFoundException(JobArchive.class, id));
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(out -> jobArchiveService.writeArchive(archive, out));
+  }
+
+  @Operation(summary = "Cancel a queued or running job")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/cancel")
+  public Map<String, String> cancelJob(
+      @Parameter(name = "id", description = "ID of the job") @RequestParam Long id) {
+    if (!jobsRepository.existsById(id)) {
+      throw new EntityNotFoundException(Job.class, id);
+    }
+    if (!jobService.cancelJob(id)) {
+      return Map.of("message", String.format("Job with id %d is not queued or running", id));
+    }
+    return Map.of("message", String.format("Job with id %d is being cancelled", id));
+  }
+
   @Operation(summary = "Launch Test Job (click fail if you want to test exception handling)")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @PostMapping("/launch/testjob")
   public Job launchTestJob(
       @Parameter(name = "fail") @RequestParam Boolean fail,
-      @Parameter(name = "sleepMs") @RequestParam Integer sleepMs) {
+      @Parameter(name = "sleepMs") @RequestParam Integer sleepMs,
+      @Parameter(name = "priority", description = "higher runs first; above 0 is interactive")
+          @RequestParam(defaultValue = "0")
+          int priority,
+      @Parameter(name = "timeoutMs", description = "stop the job after this long (default no limit)")
+          @RequestParam(required = false)
+          Long timeoutMs,
+      @Parameter(name = IDEMPOTENCY_KEY, description = IDEMPOTENCY_KEY_DESCRIPTION)
+          @RequestHeader(name = IDEMPOTENCY_KEY, required = false)
+          String idempotencyKey) {
 
     TestJob testJob = TestJob.builder().fail(fail).sleepMs(sleepMs).build();
-    return jobService.runAsJob(testJob);
+    return jobService.runAsJob(testJob, priority, timeoutMs, idempotencyKey);
   }
 
 
-  @Operation(summary = "Get long job logs")
+  @Operation(
+      summary =
+          "Launch Test Fan-Out Job: test jobs that run in parallel, then one more once they finish")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/launch/testfanout")
+  public Job launchTestFanOutJob(
+      @Parameter(name = "parts", description = "number of test jobs to run in parallel")
+          @RequestParam
+          int parts,
+      @Parameter(name = "sleepMs") @RequestParam Integer sleepMs,
+      @Parameter(name = "fail", description = "fail the last part, so the final step is not run")
+          @RequestParam(defaultValue = "false")
+          boolean fail,
+      @Parameter(name = IDEMPOTENCY_KEY, description = IDEMPOTENCY_KEY_DESCRIPTION)
+          @RequestHeader(name = IDEMPOTENCY_KEY, required = false)
+          String idempotencyKey) {
+
+    TestFanOutJob job = TestFanOutJob.builder().parts(parts).sleepMs(sleepMs).fail(fail).build();
+    return jobService.runAsJob(job, 0, null, idempotencyKey);
+  }
+
+  @Operation(
+      summary =
+          "Get long job logs, optionally only a window of lines (offset, limit) or the last lines (tail)")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @GetMapping("/logs/{id}")
-  public String getJobLogs(@Parameter(name = "id", description = "Job ID") @PathVariable Long id) {
+  public ResponseEntity<Resource> getJobLogs(
+      @Parameter(name = "id", description = "Job ID") @PathVariable Long id,
+      @Parameter(name = "offset", description = "number of the first line to return (default 0)")
+          @RequestParam(required = false)
+          Long offset,
+      @Parameter(name = "limit", description = "maximum number of lines to return (default all)")
+          @RequestParam(required = false)
+          Integer limit,
+      @Parameter(name = "tail", description = "return only the last N lines; overrides offset and limit")
+          @RequestParam(required = false)
+          Integer tail,
+      @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+          String acceptEncoding) {
+
+    // a whole compressed log is sent as it is stored if the client can inflate it, and is
+    // otherwise inflated as it is written to the response, never held in memory as text; either
+    // way each message is one line, with any line breaks in it escaped
+    if (tail == null && offset == null && limit == null) {
+      Optional<CompressedJobLog> compressed = jobLogCompressionService.findCompressedLog(id);
+      if (compressed.isPresent()) {
+        if (acceptsDeflate(acceptEncoding)) {
+          return ResponseEntity.ok()
+              .contentType(TEXT_PLAIN_UTF8)
+              .header(HttpHeaders.CONTENT_ENCODING, "deflate")
+              .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+              .body(new ByteArrayResource(compressed.get().getData()));
+        }
+        return ResponseEntity.ok()
+            .contentType(TEXT_PLAIN_UTF8)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .body(new InputStreamResource(jobLogCompressionService.open(compressed.get())));
+      }
+    }
+
+    String logs =
+        tail != null
+            ? jobService.getJobLogTail(id, tail)
+            : jobService.getJobLogs(id, offset != null ? offset : 0, limit);
+    return ResponseEntity.ok()
+        .contentType(TEXT_PLAIN_UTF8)
+        .body(new ByteArrayResource(logs.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static boolean acceptsDeflate(String acceptEncoding) {
+    return acceptEncoding != null
+        && Arrays.stream(acceptEncoding.split(","))
+            .anyMatch(coding -> coding.trim().equalsIgnoreCase("deflate"));
+  }
+
+  @Operation(
+      summary =
+          "Stream job logs as Server-Sent Events; reconnect with Last-Event-ID to resume after the last line received")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping(value = "/logs/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamJobLogs(
+      @Parameter(name = "id", description = "Job ID") @PathVariable Long id,
+      @Parameter(name = "offset", description = "number of the first line to send (default 0)")
+          @RequestParam(required = false)
+          Long offset,
+      @Parameter(hidden = true) @RequestHeader(value = "Last-Event-ID", required = false)
+          Long lastEventId) {
 
-    return jobService.getJobLogs(id);
+    long fromLine = lastEventId != null ? lastEventId + 1 : (offset != null ? offset : 0);
+    return jobService.streamJobLogs(id, fromLine);
   }
 
 
@@ -15,7 +15,11 @@ import lombok.extern.slf4j.Slf4j;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -30,6 +34,7 @@ import org.springframework.web.bind.annotation.RestController;
 import jakarta.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 
 /**
@@ -58,6 +63,22 @@ public class MenuItemReviewController extends ApiController {
         return reviews;
     }
 
+    /**
+     * List menu item reviews a page at a time, optionally filtered by any field
+     *
+     * @param params filters by field, and afterId (see ApiController.listPage)
+     * @param pageable the page, its size and its sort order
+     * @return a page of MenuItemReview
+     */
+    @Operation(summary = "List menu item reviews a page at a time, optionally filtered by any field")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "!id")
+    public Page<MenuItemReview> pageOfMenuItemReviews(
+            @Parameter(name = "params", description = FILTERS_DESCRIPTION) @RequestParam Map<String, String> params,
+            @ParameterObject @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        return listPage(menuItemReviewRepository, MenuItemReview.class, params, pageable);
+    }
+
     /**
      * Create a new MenuItemReview
      *  
@@ -12,7 +12,11 @@ import lombok.extern.slf4j.Slf4j;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -27,6 +31,7 @@ import org.springframework.web.bind.annotation.RestController;
 import jakarta.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 /**
  * This is a REST controller for Recommendation Requests COntroller
@@ -54,6 +59,22 @@ public class RecommendationRequestController extends ApiController {
         return rr;
     }
 
+    /**
+     * List recommendation requests a page at a time, optionally filtered by any field
+     *
+     * @param params filters by field, and afterId (see ApiController.listPage)
+     * @param pageable the page, its size and its sort order
+     * @return a page of RecommendationRequest
+     */
+    @Operation(summary = "List recommendation requests a page at a time, optionally filtered by any field")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "!id")
+    public Page<RecommendationRequest> pageOfRecommendationRequests(
+            @Parameter(name = "params", description = FILTERS_DESCRIPTION) @RequestParam Map<String, String> params,
+            @ParameterObject @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        return listPage(rrrepository, RecommendationRequest.class, params, pageable);
+    }
+
     /**
      * Get a single recommendation request by id
      * 
@@ -8,7 +8,11 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,6 +25,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.validation.Valid;
 
+import java.util.Map;
+
 /**
  * This is a REST controller for Restaurants
  */
@@ -45,6 +51,22 @@ public class RestaurantsController extends ApiController {
         return restaurants;
     }
 
+    /**
+     * List restaurants a page at a time, optionally filtered by any field
+     *
+     * @param params filters by field, and afterId (see ApiController.listPage)
+     * @param pageable the page, its size and its sort order
+     * @return a page of Restaurant
+     */
+    @Operation(summary = "List restaurants a page at a time, optionally filtered by any field")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "!id")
+    public Page<Restaurant> pageOfRestaurants(
+            @Parameter(name = "params", description = FILTERS_DESCRIPTION) @RequestParam Map<String, String> params,
+            @ParameterObject @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        return listPage(restaurantRepository, Restaurant.class, params, pageable);
+    }
+
     /**
      * This method returns a single restaurant.
      * @param id id of the restaurant to get
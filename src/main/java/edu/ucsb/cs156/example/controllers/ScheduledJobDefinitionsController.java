@@ -0,0 +1,183 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.entities.ScheduledJobDefinition;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.repositories.ScheduledJobDefinitionsRepository;
+import edu.ucsb.cs156.example.services.jobs.ScheduledJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/** This is a REST controller for jobs that run on a schedule */
+@Tag(name = "Scheduled Jobs")
+@RequestMapping("/api/scheduledjobs")
+@RestController
+@Slf4j
+public class ScheduledJobDefinitionsController extends ApiController {
+
+  @Autowired ScheduledJobDefinitionsRepository scheduledJobDefinitionsRepository;
+
+  @Autowired ScheduledJobService scheduledJobService;
+
+  /**
+   * List all scheduled jobs
+   *
+   * @return an iterable of ScheduledJobDefinition
+   */
+  @Operation(summary = "List all scheduled jobs")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/all")
+  public Iterable<ScheduledJobDefinition> allScheduledJobs() {
+    return scheduledJobDefinitionsRepository.findAll();
+  }
+
+  /**
+   * List scheduled jobs a page at a time, optionally filtered by any field
+   *
+   * @param params filters by field, and afterId (see ApiController.listPage)
+   * @param pageable the page, its size and its sort order
+   * @return a page of ScheduledJobDefinition
+   */
+  @Operation(summary = "List scheduled jobs a page at a time, optionally filtered by any field")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping(value = "", params = "!id")
+  public Page<ScheduledJobDefinition> pageOfScheduledJobs(
+          @Parameter(name = "params", description = FILTERS_DESCRIPTION) @RequestParam Map<String, String> params,
+          @ParameterObject @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+      return listPage(scheduledJobDefinitionsRepository, ScheduledJobDefinition.class, params, pageable);
+  }
+
+  /**
+   * Get a single scheduled job by id
+   *
+   * @param id the id of the scheduled job
+   * @return a ScheduledJobDefinition
+   */
+  @Operation(summary = "Get a single scheduled job")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("")
+  public ScheduledJobDefinition getById(@Parameter(name = "id") @RequestParam Long id) {
+    return scheduledJobDefinitionsRepository
+        .findById(id)
+        .orElseThrow(() -> new EntityNotFoundException(ScheduledJobDefinition.class, id));
+  }
+
+  /**
+   * Schedule a job. The jobs run as the current user.
+   *
+   * @param name a name for the schedule
+   * @param jobType name of the PersistableJob class to run
+   * @param payload the fields of the job as JSON
+   * @param cron when to run the job, as a Spring cron expression
+   * @param priority priority of each job; higher runs first
+   * @param timeoutMs timeout of each job, or none for no limit
+   * @param enabled whether the schedule fires
+   * @return the saved scheduled job
+   */
+  @Operation(summary = "Schedule a job")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/post")
+  public ScheduledJobDefinition postScheduledJob(
+      @Parameter(name = "name") @RequestParam String name,
+      @Parameter(name = "jobType", description = "e.g. edu.ucsb.cs156.example.jobs.TestJob")
+          @RequestParam
+          String jobType,
+      @Parameter(name = "payload") @RequestParam(defaultValue = "{}") String payload,
+      @Parameter(
+              name = "cron",
+              description =
+                  "second minute hour day-of-month month day-of-week, e.g. 0 0 3 * * * for 3am"
+                      + " daily")
+          @RequestParam
+          String cron,
+      @Parameter(name = "priority") @RequestParam(defaultValue = "0") int priority,
+      @Parameter(name = "timeoutMs") @RequestParam(required = false) Long timeoutMs,
+      @Parameter(name = "enabled") @RequestParam(defaultValue = "true") boolean enabled) {
+    ScheduledJobDefinition definition =
+        ScheduledJobDefinition.builder()
+            .name(name)
+            .createdBy(getCurrentUser().getUser())
+            .jobType(jobType)
+            .payload(payload)
+            .cron(cron)
+            .priority(priority)
+            .timeoutMs(timeoutMs)
+            .enabled(enabled)
+            .build();
+    return save(definition);
+  }
+
+  /**
+   * Update a scheduled job
+   *
+   * @param id id of the scheduled job to update
+   * @param incoming the new scheduled job
+   * @return the updated scheduled job
+   */
+  @Operation(summary = "Update a scheduled job")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PutMapping("")
+  public ScheduledJobDefinition updateScheduledJob(
+      @Parameter(name = "id") @RequestParam Long id,
+      @RequestBody ScheduledJobDefinition incoming) {
+    ScheduledJobDefinition definition =
+        scheduledJobDefinitionsRepository
+            .findById(id)
+            .orElseThrow(() -> new EntityNotFoundException(ScheduledJobDefinition.class, id));
+
+    definition.setName(incoming.getName());
+    definition.setJobType(incoming.getJobType());
+    definition.setPayload(incoming.getPayload());
+    definition.setCron(incoming.getCron());
+    definition.setPriority(incoming.getPriority());
+    definition.setTimeoutMs(incoming.getTimeoutMs());
+    definition.setEnabled(incoming.getEnabled());
+
+    return save(definition);
+  }
+
+  /**
+   * Delete a scheduled job. Jobs it has already queued are not affected.
+   *
+   * @param id the id of the scheduled job to delete
+   * @return a message indicating the scheduled job was deleted
+   */
+  @Operation(summary = "Delete a scheduled job")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @DeleteMapping("")
+  public Object deleteScheduledJob(@Parameter(name = "id") @RequestParam Long id) {
+    ScheduledJobDefinition definition =
+        scheduledJobDefinitionsRepository
+            .findById(id)
+            .orElseThrow(() -> new EntityNotFoundException(ScheduledJobDefinition.class, id));
+
+    scheduledJobDefinitionsRepository.delete(definition);
+    return genericMessage("Scheduled job with id %s deleted".formatted(id));
+  }
+
+  private ScheduledJobDefinition save(ScheduledJobDefinition definition) {
+    try {
+      return scheduledJobService.save(definition);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+  }
+}
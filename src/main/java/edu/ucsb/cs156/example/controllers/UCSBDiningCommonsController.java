@@ -9,7 +9,11 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,6 +26,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import jakarta.validation.Valid;
 
+import java.util.Map;
+
 /**
  * This is a REST controller for UCSBDiningCommons
  */
@@ -47,6 +53,22 @@ public class UCSBDiningCommonsController extends ApiController {
         return commons;
     }
 
+    /**
+     * List ucsb dining commons a page at a time, optionally filtered by any field
+     *
+     * @param params filters by field, and afterId (see ApiController.listPage)
+     * @param pageable the page, its size and its sort order
+     * @return a page of UCSBDiningCommons
+     */
+    @Operation(summary = "List ucsb dining commons a page at a time, optionally filtered by any field")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "!code")
+    public Page<UCSBDiningCommons> pageOfCommons(
+            @Parameter(name = "params", description = FILTERS_DESCRIPTION) @RequestParam Map<String, String> params,
+            @ParameterObject @PageableDefault(size = 20, sort = "code") Pageable pageable) {
+        return listPage(ucsbDiningCommonsRepository, UCSBDiningCommons.class, params, pageable);
+    }
+
     /**
      * This method returns a single diningcommons.
      * @param code code of the diningcommons
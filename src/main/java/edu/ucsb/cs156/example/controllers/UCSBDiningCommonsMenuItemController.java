@@ -11,7 +11,11 @@ import lombok.extern.slf4j.Slf4j;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,6 +26,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
 
 
 /**
@@ -48,6 +53,22 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
         return items;
     }
 
+    /**
+     * List UCSB Dining Commons Menu Items a page at a time, optionally filtered by any field
+     *
+     * @param params filters by field, and afterId (see ApiController.listPage)
+     * @param pageable the page, its size and its sort order
+     * @return a page of UCSBDiningCommonsMenuItem
+     */
+    @Operation(summary = "List UCSB Dining Commons Menu Items a page at a time, optionally filtered by any field")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "!id")
+    public Page<UCSBDiningCommonsMenuItem> pageOfMenuItems(
+            @Parameter(name = "params", description = FILTERS_DESCRIPTION) @RequestParam Map<String, String> params,
+            @ParameterObject @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        return listPage(ucsbDiningCommonsMenuItemRepository, UCSBDiningCommonsMenuItem.class, params, pageable);
+    }
+
     /**
      * Get a single UCSB Dining Commons Menu Item by id
      * 
@@ -0,0 +1,35 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.Length;
+
+/**
+ * This is a JPA entity that represents the whole log of a finished job, compressed.
+ *
+ * When a job with a long log finishes, its lines are joined with newlines, deflated (zlib format,
+ * which is also what HTTP calls the "deflate" content coding) and stored here, and its rows in
+ * job_log_lines are deleted. Line breaks within a message are escaped (see
+ * JobLogCompressionService), so each line of the text is one line of the log, with the same
+ * number it had in job_log_lines.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "compressed_job_logs")
+public class CompressedJobLog {
+  @Id private long jobId;
+
+  // null until the log is first saved, which lets it be inserted without first selecting by id
+  @Version private Long version;
+
+  // number of log lines that were compressed
+  private long lineCount;
+
+  // length of the log before compression, in characters
+  private long length;
+
+  @Column(length = Length.LONG32)
+  private byte[] data;
+}
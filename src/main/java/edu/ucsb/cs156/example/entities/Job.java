@@ -1,7 +1,9 @@
 package edu.ucsb.cs156.example.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
@@ -13,6 +15,11 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Builder
 @Entity(name = "jobs")
+@Table(
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "jobs_created_by_id_idempotency_key_key",
+            columnNames = {"created_by_id", "idempotency_key"}))
 @EntityListeners(AuditingEntityListener.class)
 public class Job {
   @Id
@@ -29,10 +36,88 @@ public class Job {
 
   private String status;
 
+  // the job that started this one with JobContext.spawn, or null
+  private Long parentId;
+
+  // a key chosen by whoever submitted the job, so that submitting it again returns this job
+  // rather than starting another; unique for the user until it expires, when it is cleared.
+  // Saving the job never writes them again, so a running job cannot restore a cleared key
+  @JsonIgnore
+  @Column(updatable = false)
+  private String idempotencyKey;
+
+  @JsonIgnore
+  @Column(updatable = false)
+  private ZonedDateTime idempotencyKeyExpiresAt;
+
+  // higher runs first; jobs above 0 are interactive and may use the threads kept free for them
+  private int priority;
+
+  // for jobs that wait in the database queue: the PersistableJob class to run and its fields
+  // as JSON, so that any instance can run the job; null for jobs handed straight to the executor
+  private String jobType;
+
+  @JsonIgnore
+  @Column(columnDefinition = "TEXT")
+  private String payload;
+
+  // the instance running the job, and when its claim lapses unless the instance renews it
+  private String leaseOwner;
+  private ZonedDateTime leaseExpiresAt;
+
+  // number of times the job has been started
+  private int attempts;
+
+  // when the current attempt started running
+  private ZonedDateTime startedAt;
+
+  // a queued job is not run before this time; set when a failed attempt is retried after a
+  // backoff, null otherwise
+  private ZonedDateTime runAfter;
+
+  // the job is stopped if it is still running this long after it started; null for no limit
+  private Long timeoutMs;
+
+  // set when someone asks for the running job to be cancelled; its instance then stops it
+  private boolean cancelRequested;
+
+  // the last progress reported through JobContext.progress, and when it was reported;
+  // null if the job has not reported any
+  private Long progressDone;
+  private Long progressTotal;
+  private ZonedDateTime progressUpdatedAt;
+
   // 1048576 is 2^20, which is the max size of a mediumtext in MySQL
   @Column(
       columnDefinition = "TEXT",
       length = 1048576) // needed for long strings, i.e. log entries longer than 255
   // characters
   private String log;
+
+  /**
+   * @return how much of the job is done, from 0 to 100, or null if the job has not reported its
+   *     progress
+   */
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  public Double getPercentComplete() {
+    if (progressDone == null || progressTotal == null || progressTotal <= 0) return null;
+    return Math.min(100.0, 100.0 * progressDone / progressTotal);
+  }
+
+  /**
+   * Estimates when the job will finish, assuming it keeps the average rate it had up to its last
+   * progress report.
+   *
+   * @return the estimated completion time, or null if there is not yet enough progress to tell
+   */
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  public ZonedDateTime getEstimatedCompletionAt() {
+    if (getPercentComplete() == null
+        || progressDone <= 0
+        || startedAt == null
+        || progressUpdatedAt == null) return null;
+    long remaining = Math.max(progressTotal - progressDone, 0);
+    Duration elapsed = Duration.between(startedAt, progressUpdatedAt);
+    return progressUpdatedAt.plus(elapsed.multipliedBy(remaining).dividedBy(progressDone));
+  }
 }
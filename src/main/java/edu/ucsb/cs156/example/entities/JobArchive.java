@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.example.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+import lombok.*;
+import org.hibernate.Length;
+
+/**
+ * This is a JPA entity that represents a job that has been moved out of the jobs table by the
+ * retention policy.
+ *
+ * The job and its whole log are kept as gzip-compressed JSON in {@code data}; the other columns
+ * are copies of the job's fields, so that archives can be found without decompressing them.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "job_archives")
+public class JobArchive {
+  // the id the job had in the jobs table
+  @Id private long id;
+
+  // null until the archive is first saved, which lets new archives be inserted without first
+  // selecting by id, as they would be for an assigned id
+  @JsonIgnore @Version private Long version;
+
+  private String status;
+  private String jobType;
+  private ZonedDateTime createdAt;
+  private ZonedDateTime updatedAt;
+  private ZonedDateTime archivedAt;
+
+  // number of lines in the archived log
+  private long logLines;
+
+  @JsonIgnore
+  @Column(length = Length.LONG32)
+  private byte[] data;
+}
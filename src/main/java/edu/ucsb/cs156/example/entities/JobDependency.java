@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * This is a JPA entity that represents one edge of a graph of jobs: a job that is "waiting" until
+ * another job has finished.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "job_dependencies")
+@Table(
+    indexes = {
+      @Index(name = "job_dependencies_job_id_idx", columnList = "job_id"),
+      @Index(name = "job_dependencies_depends_on_job_id_idx", columnList = "depends_on_job_id")
+    })
+public class JobDependency {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private long id;
+
+  // the job that waits
+  private long jobId;
+
+  // the job it waits for
+  private long dependsOnJobId;
+}
@@ -0,0 +1,32 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * This is a JPA entity that represents a single line of a job's log.
+ *
+ * Log lines are written append-only, one row per call to {@code JobContext.log}, so that logging
+ * from a long-running job costs small inserts rather than rewriting the whole log.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "job_log_lines")
+@Table(indexes = {@Index(name = "job_log_lines_job_id_line_number_idx", columnList = "job_id, line_number")})
+public class JobLogLine {
+  // a pooled sequence (rather than IDENTITY) lets Hibernate batch the inserts of a log flush
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_log_lines_seq")
+  @SequenceGenerator(name = "job_log_lines_seq", sequenceName = "job_log_lines_seq", allocationSize = 50)
+  private long id;
+
+  private long jobId;
+
+  // position of the line within the job's log, starting at 0
+  private long lineNumber;
+
+  @Column(columnDefinition = "TEXT")
+  private String message;
+}
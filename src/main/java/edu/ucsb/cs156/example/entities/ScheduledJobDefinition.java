@@ -0,0 +1,51 @@
+package edu.ucsb.cs156.example.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.time.ZonedDateTime;
+import lombok.*;
+
+/**
+ * This is a JPA entity that represents a job that runs on a schedule: a PersistableJob, given by
+ * its class and its fields as JSON, that is queued each time its cron expression fires.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "scheduled_job_definitions")
+public class ScheduledJobDefinition {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private long id;
+
+  private String name;
+
+  // the user the jobs run as
+  @JsonIgnore
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "created_by_id")
+  private User createdBy;
+
+  // the PersistableJob class to run, and its fields as JSON
+  private String jobType;
+
+  @Column(columnDefinition = "TEXT")
+  private String payload;
+
+  // a Spring cron expression: second, minute, hour, day of month, month, day of week
+  private String cron;
+
+  private boolean enabled;
+
+  // priority and timeout of each job; a null timeout means no limit
+  private int priority;
+  private Long timeoutMs;
+
+  // when the schedule next fires, or null while it is disabled
+  private ZonedDateTime nextRunAt;
+
+  // when it last fired, and the job it queued then
+  private ZonedDateTime lastRunAt;
+  private Long lastJobId;
+}
@@ -0,0 +1,37 @@
+package edu.ucsb.cs156.example.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import edu.ucsb.cs156.example.services.jobs.PersistableJob;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * A job that fans out into several TestJobs that run in parallel, and fans back in to one more
+ * TestJob that runs once they have all finished.
+ */
+@Getter
+@Builder
+@Jacksonized
+public class TestFanOutJob implements PersistableJob {
+
+  private int parts;
+  private int sleepMs;
+  private boolean fail;
+
+  @Override
+  public void accept(JobContext ctx) throws Exception {
+    List<Job> children = new ArrayList<>();
+    for (int part = 0; part < parts; part++) {
+      // only the last part fails, so the final step is not run
+      boolean failPart = fail && part == parts - 1;
+      children.add(ctx.spawn(TestJob.builder().sleepMs(sleepMs).fail(failPart).build()));
+    }
+    ctx.log("Started %d parts: %s".formatted(parts, children.stream().map(Job::getId).toList()));
+    Job finalStep = ctx.spawnAfter(TestJob.builder().sleepMs(0).build(), children);
+    ctx.log("Final step: job %d".formatted(finalStep.getId()));
+  }
+}
@@ -1,13 +1,17 @@
 package edu.ucsb.cs156.example.jobs;
 
 import edu.ucsb.cs156.example.services.jobs.JobContext;
-import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
+import edu.ucsb.cs156.example.services.jobs.PersistableJob;
 import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+@Getter
 @Builder
-public class TestJob implements JobContextConsumer {
+@Jacksonized
+public class TestJob implements PersistableJob {
 
   private boolean fail;
   private int sleepMs;
@@ -18,7 +22,16 @@ public class TestJob implements JobContextConsumer {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
     ctx.log("Hello World! from test job!");
-    Thread.sleep(sleepMs);
+    // sleep in steps, reporting progress after each one; each step sleeps until its share of
+    // sleepMs has passed, so that the steps add up to sleepMs even when it is not a multiple of steps
+    int steps = 10;
+    long startedAt = System.currentTimeMillis();
+    for (int step = 1; step <= steps; step++) {
+      ctx.checkCancelled();
+      long stepEndsAt = startedAt + (long) sleepMs * step / steps;
+      Thread.sleep(Math.max(stepEndsAt - System.currentTimeMillis(), 0));
+      ctx.progress(step, steps);
+    }
     if (fail) {
       throw new Exception("Fail!");
     }
@@ -0,0 +1,23 @@
+package edu.ucsb.cs156.example.models;
+
+import edu.ucsb.cs156.example.entities.Job;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents the contents of a job archive: the job as it was when it
+ * was archived, and its log.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class ArchivedJob {
+  private Job job;
+  private List<String> log;
+}
@@ -0,0 +1,25 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents a snapshot of the executor that runs jobs.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JobExecutorStats {
+  private boolean virtualThreads;
+  private int poolSize;
+  private int activeJobs; // jobs currently running
+  private int queuedJobs; // jobs waiting for a thread
+  private int queueCapacity;
+  private long completedJobs;
+  private long rejectedJobs; // jobs rejected because the queue was full
+}
@@ -0,0 +1,21 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents the jobs waiting in the database queue at one priority.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JobQueueDepth {
+  private int priority;
+  private long queuedJobs;
+  private long users; // number of users with jobs waiting at this priority
+}
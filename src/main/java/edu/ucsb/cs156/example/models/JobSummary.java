@@ -0,0 +1,55 @@
+package edu.ucsb.cs156.example.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import edu.ucsb.cs156.example.entities.Job;
+import java.time.ZonedDateTime;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents a job in a list of jobs: its state and progress, without
+ * its log or payload, which can be large.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JobSummary {
+  private long id;
+  private ZonedDateTime createdAt;
+  private ZonedDateTime updatedAt;
+  private String status;
+  private int priority;
+  private String jobType;
+  private int attempts;
+  private ZonedDateTime startedAt;
+  private Long timeoutMs;
+  private Long progressDone;
+  private Long progressTotal;
+  private ZonedDateTime progressUpdatedAt;
+  private Long parentId;
+
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  public Double getPercentComplete() {
+    return progress().getPercentComplete();
+  }
+
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  public ZonedDateTime getEstimatedCompletionAt() {
+    return progress().getEstimatedCompletionAt();
+  }
+
+  // the percentage and estimate are worked out the same way as for a Job
+  private Job progress() {
+    return Job.builder()
+        .startedAt(startedAt)
+        .progressDone(progressDone)
+        .progressTotal(progressTotal)
+        .progressUpdatedAt(progressUpdatedAt)
+        .build();
+  }
+}
@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.CompressedJobLog;
+import java.util.Collection;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface CompressedJobLogsRepository extends CrudRepository<CompressedJobLog, Long> {
+  /**
+   * This method deletes the compressed logs of several jobs in one statement.
+   * @param jobIds ids of the jobs
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from compressed_job_logs c where c.jobId in :jobIds")
+  void deleteAllByJobIdIn(@Param("jobIds") Collection<Long> jobIds);
+
+  /**
+   * This method deletes the compressed logs of every job in one statement.
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from compressed_job_logs")
+  void deleteAllLogs();
+}
@@ -0,0 +1,23 @@
+package edu.ucsb.cs156.example.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * The FilteredPagesRepository is mixed into repositories whose entities are listed a page at a
+ * time by the API (see ApiController.listPage).
+ *
+ * Spring Data implements findAll with the same method of JpaSpecificationExecutor; this
+ * interface declares only that method, so that the repositories do not also get
+ * JpaSpecificationExecutor.delete(Specification), which would make delete(null) ambiguous.
+ */
+public interface FilteredPagesRepository<T> {
+  /**
+   * This method returns a page of the entities that match a specification.
+   * @param spec the conditions the entities must meet
+   * @param pageable the page, its size and its sort order
+   * @return the page of entities
+   */
+  Page<T> findAll(Specification<T> spec, Pageable pageable);
+}
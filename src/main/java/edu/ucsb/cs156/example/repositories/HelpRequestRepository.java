@@ -10,6 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 
 @Repository
-public interface HelpRequestRepository extends CrudRepository<HelpRequest, Long> {
+public interface HelpRequestRepository extends CrudRepository<HelpRequest, Long>, FilteredPagesRepository<HelpRequest> {
   
 }
\ No newline at end of file
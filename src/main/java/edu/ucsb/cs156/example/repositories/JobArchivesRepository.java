@@ -0,0 +1,23 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.JobArchive;
+import java.time.ZonedDateTime;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface JobArchivesRepository extends CrudRepository<JobArchive, Long> {
+  /**
+   * This method deletes the archives made before a given time, in one statement.
+   * @param cutoff archives made before this time are deleted
+   * @return the number of archives deleted
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from job_archives a where a.archivedAt < :cutoff")
+  int deleteAllArchivedBefore(@Param("cutoff") ZonedDateTime cutoff);
+}
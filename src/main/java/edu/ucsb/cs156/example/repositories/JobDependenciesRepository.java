@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.JobDependency;
+import java.util.Collection;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface JobDependenciesRepository extends CrudRepository<JobDependency, Long> {
+  /**
+   * This method deletes the dependencies of several jobs, i.e. what they wait for, in one
+   * statement.
+   * @param jobIds ids of the waiting jobs
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from job_dependencies d where d.jobId in :jobIds")
+  void deleteAllByJobIdIn(@Param("jobIds") Collection<Long> jobIds);
+
+  /**
+   * This method deletes the dependencies on several jobs, i.e. what waits for them, in one
+   * statement.
+   * @param dependsOnJobIds ids of the jobs waited for
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from job_dependencies d where d.dependsOnJobId in :dependsOnJobIds")
+  void deleteAllByDependsOnJobIdIn(@Param("dependsOnJobIds") Collection<Long> dependsOnJobIds);
+
+  /**
+   * This method deletes the dependencies of every job in one statement.
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from job_dependencies")
+  void deleteAllDependencies();
+}
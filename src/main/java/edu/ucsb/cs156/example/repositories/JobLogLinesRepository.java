@@ -0,0 +1,95 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The JobLogLinesRepository is a repository for JobLogLine entities.
+ */
+@Repository
+public interface JobLogLinesRepository extends CrudRepository<JobLogLine, Long> {
+  /**
+   * This method returns the newest log lines of a job.
+   * @param jobId id of the job
+   * @param limit maximum number of lines to return
+   * @return the newest log lines of the job, newest first
+   */
+  List<JobLogLine> findAllByJobIdOrderByLineNumberDesc(long jobId, Limit limit);
+
+  /**
+   * This method returns the log lines of a job starting from a given line, in the order they were
+   * written.
+   * @param jobId id of the job
+   * @param lineNumber number of the first line to return
+   * @return the log lines of the job from lineNumber onwards, ordered by line number
+   */
+  Iterable<JobLogLine> findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+      long jobId, long lineNumber);
+
+  /**
+   * This method returns at most a given number of log lines of a job starting from a given line,
+   * in the order they were written.
+   * @param jobId id of the job
+   * @param lineNumber number of the first line to return
+   * @param limit maximum number of lines to return
+   * @return the log lines of the job from lineNumber onwards, ordered by line number
+   */
+  List<JobLogLine> findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+      long jobId, long lineNumber, Limit limit);
+
+  /**
+   * This method returns the number of log lines stored for a job.
+   * @param jobId id of the job
+   * @return the number of lines
+   */
+  long countByJobId(long jobId);
+
+  /**
+   * This method returns the total length of the log lines stored for a job, in characters.
+   * @param jobId id of the job
+   * @return the total length of the lines, 0 if there are none
+   */
+  @Query("select coalesce(sum(length(l.message)), 0) from job_log_lines l where l.jobId = :jobId")
+  long sumMessageLengthByJobId(@Param("jobId") long jobId);
+
+  /**
+   * This method deletes all log lines of a job with a single statement.
+   * @param jobId id of the job
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from job_log_lines l where l.jobId = :jobId")
+  void deleteAllByJobId(@Param("jobId") long jobId);
+
+  /**
+   * This method deletes the log lines of every job with a single statement.
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from job_log_lines")
+  void deleteAllLines();
+
+  /**
+   * This method returns the log lines of several jobs, in order.
+   * @param jobIds ids of the jobs
+   * @return the log lines, by job and then by line number
+   */
+  List<JobLogLine> findAllByJobIdInOrderByJobIdAscLineNumberAsc(Collection<Long> jobIds);
+
+  /**
+   * This method deletes the log lines of several jobs in one statement.
+   * @param jobIds ids of the jobs
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from job_log_lines l where l.jobId in :jobIds")
+  void deleteAllByJobIdIn(@Param("jobIds") Collection<Long> jobIds);
+}
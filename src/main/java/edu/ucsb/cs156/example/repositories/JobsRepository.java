@@ -1,8 +1,309 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.JobQueueDepth;
+import edu.ucsb.cs156.example.models.JobSummary;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface JobsRepository extends CrudRepository<Job, Long> {}
+public interface JobsRepository extends CrudRepository<Job, Long> {
+  // selects a JobSummary of each job j
+  String JOB_SUMMARY_SELECT =
+      "select new edu.ucsb.cs156.example.models.JobSummary(j.id, j.createdAt, j.updatedAt,"
+          + " j.status, j.priority, j.jobType, j.attempts, j.startedAt, j.timeoutMs,"
+          + " j.progressDone, j.progressTotal, j.progressUpdatedAt, j.parentId) from jobs j";
+
+  // filters of findSummaries, shared with its count query
+  String JOB_SUMMARY_FILTER =
+      " where (:status is null or j.status = :status)"
+          + " and (:parentId is null or j.parentId = :parentId)"
+          + " and (:createdAfter is null or j.createdAt >= :createdAfter)"
+          + " and (:createdBefore is null or j.createdAt < :createdBefore)";
+
+  // true when job j was submitted by :user, or by no user when :user is null
+  String SAME_USER = "(j.createdBy = :user or (:user is null and j.createdBy is null))";
+
+  // true when job j waits for a job that has not finished yet
+  String HAS_UNFINISHED_DEPENDENCY =
+      "exists (select d from job_dependencies d, jobs p where d.jobId = j.id"
+          + " and p.id = d.dependsOnJobId and p.status in ('waiting', 'queued', 'running'))";
+
+  /**
+   * This method returns a page of job summaries, reading only the columns they need, so that the
+   * log and payload of each job are not loaded. Each filter is ignored when null.
+   * @param status only jobs with this status
+   * @param parentId only jobs started by this job
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @param pageable the page, its size and its sort order, by fields of JobSummary
+   * @return the page of job summaries
+   */
+  @Query(
+      value = JOB_SUMMARY_SELECT + JOB_SUMMARY_FILTER,
+      countQuery = "select count(j) from jobs j" + JOB_SUMMARY_FILTER)
+  Page<JobSummary> findSummaries(
+      @Param("status") String status,
+      @Param("parentId") Long parentId,
+      @Param("createdAfter") ZonedDateTime createdAfter,
+      @Param("createdBefore") ZonedDateTime createdBefore,
+      Pageable pageable);
+
+  /**
+   * This method returns the next queued job to run and locks its row until the end of the
+   * transaction. Jobs are taken by priority, highest first; among jobs of the same priority, the
+   * job of the user with the fewest running jobs goes first, so that one user's batch of jobs
+   * does not hold up everyone else's, and then the oldest job.
+   *
+   * Rows already locked by another transaction are skipped (SELECT ... FOR UPDATE SKIP LOCKED on
+   * Postgres), so that several instances can claim jobs at once without waiting on each other; on
+   * databases without SKIP LOCKED this is a plain SELECT ... FOR UPDATE.
+   *
+   * Jobs waiting out a retry backoff are not taken until their runAfter time.
+   * @param minPriority lowest priority to consider
+   * @param now the current time
+   * @param limit number of jobs to return, normally 1
+   * @return the next unlocked queued job, if any
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query(
+      "select j from jobs j where j.status = 'queued' and j.priority >= :minPriority"
+          + " and (j.runAfter is null or j.runAfter <= :now)"
+          + " order by j.priority desc,"
+          + " (select count(r) from jobs r where r.status = 'running' and r.createdBy = j.createdBy),"
+          + " j.id")
+  List<Job> findNextQueued(
+      @Param("minPriority") int minPriority, @Param("now") ZonedDateTime now, Limit limit);
+
+  /**
+   * This method counts the queued jobs at each priority.
+   * @return the queue depth of each priority that has queued jobs, highest priority first
+   */
+  @Query(
+      "select new edu.ucsb.cs156.example.models.JobQueueDepth(j.priority, count(j), count(distinct u.id))"
+          + " from jobs j left join j.createdBy u where j.status = 'queued'"
+          + " group by j.priority order by j.priority desc")
+  List<JobQueueDepth> countQueuedByPriority();
+
+  /**
+   * This method returns the running jobs whose lease has lapsed, i.e. whose instance has stopped
+   * renewing it, or that never had a lease.
+   * @param now the current time
+   * @return the running jobs with an expired or missing lease
+   */
+  @Query(
+      "select j from jobs j where j.status = 'running' and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now)")
+  List<Job> findAllRunningWithExpiredLease(@Param("now") ZonedDateTime now);
+
+  /**
+   * This method extends the leases an instance holds on the jobs it is running.
+   * @param ids ids of the jobs
+   * @param owner the instance holding the leases
+   * @param expiresAt the new expiry time
+   * @return the number of leases renewed
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "update jobs j set j.leaseExpiresAt = :expiresAt where j.leaseOwner = :owner and j.id in :ids")
+  int renewLeases(
+      @Param("ids") Collection<Long> ids,
+      @Param("owner") String owner,
+      @Param("expiresAt") ZonedDateTime expiresAt);
+
+  /**
+   * This method moves a running job whose lease has lapsed to a new status and clears the lease.
+   * It does nothing if the lease was renewed or the job was released in the meantime, so only one
+   * instance acts on an abandoned job.
+   * @param id id of the job
+   * @param status the new status, e.g. "queued" or "error"
+   * @param now the current time
+   * @return 1 if the job was released, 0 otherwise
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "update jobs j set j.status = :status, j.leaseOwner = null, j.leaseExpiresAt = null"
+          + " where j.id = :id and j.status = 'running'"
+          + " and (j.leaseExpiresAt is null or j.leaseExpiresAt < :now)")
+  int releaseExpiredLease(
+      @Param("id") long id, @Param("status") String status, @Param("now") ZonedDateTime now);
+
+  /**
+   * This method records the progress of a running job without writing the rest of the row.
+   * @param id id of the job
+   * @param startedAt when the job started running
+   * @param done units of work done
+   * @param total total units of work
+   * @param updatedAt when the progress was reported
+   * @return the number of jobs updated
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "update jobs j set j.startedAt = :startedAt, j.progressDone = :done,"
+          + " j.progressTotal = :total, j.progressUpdatedAt = :updatedAt where j.id = :id")
+  int updateProgress(
+      @Param("id") long id,
+      @Param("startedAt") ZonedDateTime startedAt,
+      @Param("done") long done,
+      @Param("total") long total,
+      @Param("updatedAt") ZonedDateTime updatedAt);
+
+  /**
+   * This method cancels a job that has not started yet.
+   * @param id id of the job
+   * @return 1 if the job was queued or waiting and is now cancelled, 0 otherwise
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "update jobs j set j.status = 'cancelled' where j.id = :id and j.status in ('queued', 'waiting')")
+  int cancelQueued(@Param("id") long id);
+
+  /**
+   * This method asks for a running job to be cancelled, wherever it is running.
+   * @param id id of the job
+   * @return 1 if the job is running, 0 otherwise
+   */
+  @Transactional
+  @Modifying
+  @Query("update jobs j set j.cancelRequested = true where j.id = :id and j.status = 'running'")
+  int requestCancel(@Param("id") long id);
+
+  /**
+   * This method finds which of the given jobs have been asked to cancel.
+   * @param ids ids of the jobs
+   * @return the ids of the jobs that have been asked to cancel
+   */
+  @Query("select j.id from jobs j where j.id in :ids and j.cancelRequested = true")
+  List<Long> findCancelRequested(@Param("ids") Collection<Long> ids);
+
+  /**
+   * This method returns finished jobs that were last updated before a given time, oldest first.
+   * Jobs from before updatedAt was recorded count as old. Jobs that a waiting job still waits for
+   * are left out, since it needs their status to decide whether to run. The jobs are locked until
+   * the end of the transaction, and jobs already locked by another transaction are skipped, so that
+   * instances archiving at the same time take different jobs.
+   * @param cutoff jobs last updated before this time are returned
+   * @param limit maximum number of jobs to return
+   * @return the jobs
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query(
+      "select j from jobs j where j.status not in ('waiting', 'queued', 'running')"
+          + " and (j.updatedAt is null or j.updatedAt < :cutoff)"
+          + " and not exists (select d from job_dependencies d, jobs w where d.dependsOnJobId = j.id"
+          + " and w.id = d.jobId and w.status = 'waiting') order by j.id")
+  List<Job> findFinishedBefore(@Param("cutoff") ZonedDateTime cutoff, Limit limit);
+
+  /**
+   * This method deletes several jobs in one statement, without loading them.
+   * @param ids ids of the jobs
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from jobs j where j.id in :ids")
+  void deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+  /** This method deletes every job in one statement, without loading them. */
+  @Transactional
+  @Modifying
+  @Query("delete from jobs")
+  void deleteAllJobs();
+
+  /**
+   * This method returns summaries of the jobs that a job waits for.
+   * @param jobId id of the waiting job
+   * @return the jobs it waits for, by id
+   */
+  @Query(
+      JOB_SUMMARY_SELECT
+          + " where j.id in (select d.dependsOnJobId from job_dependencies d where d.jobId = :jobId)"
+          + " order by j.id")
+  List<JobSummary> findDependencySummaries(@Param("jobId") long jobId);
+
+  /**
+   * This method returns the ids of the waiting jobs whose dependencies have all finished, and
+   * that can therefore be queued.
+   * @return the ids of the jobs
+   */
+  @Query("select j.id from jobs j where j.status = 'waiting' and not " + HAS_UNFINISHED_DEPENDENCY)
+  List<Long> findWaitingIdsWithFinishedDependencies();
+
+  /**
+   * This method returns summaries of the jobs that a job waits for that finished without
+   * completing, e.g. with an error or cancelled.
+   * @param jobId id of the waiting job
+   * @return the jobs, by id
+   */
+  @Query(
+      JOB_SUMMARY_SELECT
+          + " where j.id in (select d.dependsOnJobId from job_dependencies d where d.jobId = :jobId)"
+          + " and j.status <> 'complete' order by j.id")
+  List<JobSummary> findUnsuccessfulDependencies(@Param("jobId") long jobId);
+
+  /**
+   * This method moves a waiting job to a new status, unless it has stopped waiting meanwhile.
+   * @param id id of the job
+   * @param status the new status, "queued" or "error"
+   * @return 1 if the job was moved, 0 if it was no longer waiting
+   */
+  @Transactional
+  @Modifying
+  @Query("update jobs j set j.status = :status where j.id = :id and j.status = 'waiting'")
+  int releaseWaiting(@Param("id") long id, @Param("status") String status);
+
+  /**
+   * This method returns the job a user submitted with an idempotency key, unless the key has
+   * expired.
+   * @param user the user who submitted the job, or null
+   * @param idempotencyKey the key
+   * @param now the current time
+   * @return the job, if there is one
+   */
+  @Query(
+      "select j from jobs j where " + SAME_USER + " and j.idempotencyKey = :idempotencyKey"
+          + " and j.idempotencyKeyExpiresAt > :now")
+  Optional<Job> findByIdempotencyKey(
+      @Param("user") User user,
+      @Param("idempotencyKey") String idempotencyKey,
+      @Param("now") ZonedDateTime now);
+
+  /**
+   * This method clears an idempotency key of a user that has expired, so that it can be used
+   * again.
+   * @param user the user who submitted the job, or null
+   * @param idempotencyKey the key
+   * @param now the current time
+   * @return the number of jobs updated, 0 or 1
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "update jobs j set j.idempotencyKey = null, j.idempotencyKeyExpiresAt = null"
+          + " where " + SAME_USER + " and j.idempotencyKey = :idempotencyKey"
+          + " and j.idempotencyKeyExpiresAt <= :now")
+  int clearExpiredIdempotencyKey(
+      @Param("user") User user,
+      @Param("idempotencyKey") String idempotencyKey,
+      @Param("now") ZonedDateTime now);
+}
@@ -10,5 +10,5 @@ import org.springframework.stereotype.Repository;
  */
 
 @Repository
-public interface MenuItemReviewRepository extends CrudRepository<MenuItemReview, Long> { //database table of menu item reviews with key long
+public interface MenuItemReviewRepository extends CrudRepository<MenuItemReview, Long>, FilteredPagesRepository<MenuItemReview> { //database table of menu item reviews with key long
 }
\ No newline at end of file
@@ -10,6 +10,6 @@ import org.springframework.stereotype.Repository;
  */
 
 @Repository
-public interface RecommendationRequestRepository extends CrudRepository<RecommendationRequest, Long> {
+public interface RecommendationRequestRepository extends CrudRepository<RecommendationRequest, Long>, FilteredPagesRepository<RecommendationRequest> {
  
 }
\ No newline at end of file
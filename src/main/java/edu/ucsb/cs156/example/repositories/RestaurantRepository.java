@@ -9,5 +9,5 @@ import org.springframework.stereotype.Repository;
  * The RestaurantRepository is a repository for Restaurant entities
  */
 @Repository
-public interface RestaurantRepository extends CrudRepository<Restaurant, Long> {
+public interface RestaurantRepository extends CrudRepository<Restaurant, Long>, FilteredPagesRepository<Restaurant> {
 }
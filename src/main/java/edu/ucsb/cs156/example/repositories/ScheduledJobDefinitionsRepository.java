@@ -0,0 +1,57 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.ScheduledJobDefinition;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ScheduledJobDefinitionsRepository
+    extends CrudRepository<ScheduledJobDefinition, Long>,
+        FilteredPagesRepository<ScheduledJobDefinition> {
+  /**
+   * This method returns the enabled schedules that are due to fire.
+   * @param now the current time
+   * @return the schedules whose next run is at or before now, earliest first
+   */
+  @Query(
+      "select d from scheduled_job_definitions d where d.enabled = true and d.nextRunAt <= :now"
+          + " order by d.nextRunAt")
+  List<ScheduledJobDefinition> findDue(@Param("now") ZonedDateTime now);
+
+  /**
+   * This method claims one firing of a schedule by moving its next run on. The update locks the
+   * row, so when several instances try to claim the same firing, exactly one of them sees the
+   * next run it read and succeeds; the others update nothing.
+   * @param id id of the schedule
+   * @param expectedNextRunAt the next run the caller read, i.e. the firing being claimed
+   * @param nextRunAt the run after that
+   * @param now the current time, recorded as the last run
+   * @return 1 if this caller claimed the firing, 0 otherwise
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "update scheduled_job_definitions d set d.nextRunAt = :nextRunAt, d.lastRunAt = :now"
+          + " where d.id = :id and d.nextRunAt = :expectedNextRunAt")
+  int claimRun(
+      @Param("id") long id,
+      @Param("expectedNextRunAt") ZonedDateTime expectedNextRunAt,
+      @Param("nextRunAt") ZonedDateTime nextRunAt,
+      @Param("now") ZonedDateTime now);
+
+  /**
+   * This method records the job that a schedule last queued.
+   * @param id id of the schedule
+   * @param jobId id of the job
+   */
+  @Transactional
+  @Modifying
+  @Query("update scheduled_job_definitions d set d.lastJobId = :jobId where d.id = :id")
+  void recordLastJob(@Param("id") long id, @Param("jobId") long jobId);
+}
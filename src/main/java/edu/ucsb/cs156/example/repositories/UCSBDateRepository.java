@@ -10,7 +10,7 @@ import org.springframework.stereotype.Repository;
  */
 
 @Repository
-public interface UCSBDateRepository extends CrudRepository<UCSBDate, Long> {
+public interface UCSBDateRepository extends CrudRepository<UCSBDate, Long>, FilteredPagesRepository<UCSBDate> {
   /**
    * This method returns all UCSBDate entities with a given quarterYYYYQ.
    * @param quarterYYYYQ quarter in the format YYYYQ (e.g. 20241 for Winter 2024, 20242 for Spring 2024, 20243 for Summer 2024, 20244 for Fall 2024)
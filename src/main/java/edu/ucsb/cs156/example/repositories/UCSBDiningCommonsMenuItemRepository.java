@@ -10,6 +10,6 @@ import org.springframework.stereotype.Repository;
  * The UCSBDiningCommonsRepository is a repository for UCSBDiningCommons entities
  */
 @Repository
-public interface UCSBDiningCommonsMenuItemRepository extends CrudRepository<UCSBDiningCommonsMenuItem, Long> {
+public interface UCSBDiningCommonsMenuItemRepository extends CrudRepository<UCSBDiningCommonsMenuItem, Long>, FilteredPagesRepository<UCSBDiningCommonsMenuItem> {
  
 }
\ No newline at end of file
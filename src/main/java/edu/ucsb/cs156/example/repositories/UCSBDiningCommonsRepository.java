@@ -10,6 +10,6 @@ import org.springframework.stereotype.Repository;
  * The UCSBDiningCommonsRepository is a repository for UCSBDiningCommons entities
  */
 @Repository
-public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String> {
+public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String>, FilteredPagesRepository<UCSBDiningCommons> {
  
 }
\ No newline at end of file
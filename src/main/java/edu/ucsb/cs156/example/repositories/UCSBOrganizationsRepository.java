@@ -10,7 +10,7 @@ import org.springframework.stereotype.Repository;
  */
 
 @Repository
-public interface UCSBOrganizationsRepository extends CrudRepository<UCSBOrganizations, Long> {
+public interface UCSBOrganizationsRepository extends CrudRepository<UCSBOrganizations, Long>, FilteredPagesRepository<UCSBOrganizations> {
 
     
 }
\ No newline at end of file
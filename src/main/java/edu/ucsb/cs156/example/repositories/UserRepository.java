@@ -1,9 +1,11 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.User;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -17,4 +19,11 @@ public interface UserRepository extends CrudRepository<User, Long> {
    * @return Optional of User (empty if not found)
    */
   Optional<User> findByEmail(String email);
+
+  /**
+   * This method returns the emails of all users who are admins.
+   * @return list of emails
+   */
+  @Query("select u.email from users u where u.admin = true and u.email is not null")
+  List<String> findAdminEmails();
 }
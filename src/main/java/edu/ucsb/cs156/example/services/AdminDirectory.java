@@ -0,0 +1,76 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * This component answers whether an email belongs to an admin: either one of the emails in
+ * app.admin.emails, or a user marked as an admin in the database.
+ *
+ * <p>The admins in the database are read all at once and kept for app.users.cacheTtlMs, or
+ * until refresh() is called after a change, so that checking an email is a set lookup.
+ */
+@Component
+public class AdminDirectory {
+
+  @Autowired private UserRepository userRepository;
+
+  @Value("${app.admin.emails}")
+  private final List<String> adminEmails = new ArrayList<>();
+
+  @Value("${app.users.cacheTtlMs:60000}")
+  private long cacheTtlMs = 60000;
+
+  private Set<String> configuredAdmins = Set.of();
+
+  private volatile Set<String> databaseAdmins;
+
+  private volatile long databaseAdminsLoadedAtMs;
+
+  @PostConstruct
+  void hashAdminEmails() {
+    configuredAdmins = Set.copyOf(adminEmails);
+  }
+
+  /**
+   * This method returns whether the email is one of the admin emails in app.admin.emails.
+   *
+   * @param email email address of the user
+   * @return whether the email is a configured admin email
+   */
+  public boolean isConfiguredAdmin(String email) {
+    return email != null && configuredAdmins.contains(email);
+  }
+
+  /**
+   * This method returns whether the user with the given email is an admin, either because the
+   * email is in app.admin.emails or because the user is an admin in the database.
+   *
+   * @param email email address of the user
+   * @return whether the user is an admin
+   */
+  public boolean isAdmin(String email) {
+    return isConfiguredAdmin(email) || (email != null && databaseAdmins().contains(email));
+  }
+
+  /** This method drops the cached admins, so that the next check reads them again. */
+  public void refresh() {
+    databaseAdmins = null;
+  }
+
+  private Set<String> databaseAdmins() {
+    Set<String> admins = databaseAdmins;
+    if (admins == null || System.currentTimeMillis() - databaseAdminsLoadedAtMs > cacheTtlMs) {
+      admins = Set.copyOf(userRepository.findAdminEmails());
+      databaseAdminsLoadedAtMs = System.currentTimeMillis();
+      databaseAdmins = admins;
+    }
+    return admins;
+  }
+}
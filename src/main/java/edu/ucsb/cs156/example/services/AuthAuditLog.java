@@ -0,0 +1,91 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.User;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * This component writes authentication events to the "auth.audit" logger, one line of
+ * key=value pairs per event.
+ *
+ * <p>Events that happen once per login are logged at INFO. Events that happen on every request
+ * are logged at DEBUG, and only for a sample of app.auth.audit.sampleRate of requests; nothing
+ * about them is formatted unless DEBUG is enabled for "auth.audit".
+ */
+@Slf4j(topic = "auth.audit")
+@Component
+public class AuthAuditLog {
+
+  @Value("${app.auth.audit.sampleRate:0.01}")
+  private double sampleRate = 0.01;
+
+  /**
+   * This method logs the roles a user was given when they logged in.
+   *
+   * @param email email address of the user
+   * @param authorities the authorities granted to the user
+   */
+  public void loggedIn(String email, Collection<? extends GrantedAuthority> authorities) {
+    if (log.isInfoEnabled()) {
+      log.info("event=login email={} roles={}", email, roles(authorities));
+    }
+  }
+
+  /**
+   * This method logs that a user's record was stored or updated when they logged in.
+   *
+   * @param user the user that was stored
+   * @param created whether the user was new
+   */
+  public void userStored(User user, boolean created) {
+    if (log.isInfoEnabled()) {
+      log.info(
+          "event=user_stored user_id={} email={} admin={} created={}",
+          user.getId(),
+          user.getEmail(),
+          user.getAdmin(),
+          created);
+    }
+  }
+
+  /**
+   * This method logs, for a sample of requests, the authorities a request was checked against.
+   *
+   * @param name the name of the authenticated principal
+   * @param authorities the authorities granted to the principal
+   */
+  public void authoritiesRead(String name, Collection<? extends GrantedAuthority> authorities) {
+    if (log.isDebugEnabled() && sampled()) {
+      log.debug("event=authorities_read principal={} roles={}", name, roles(authorities));
+    }
+  }
+
+  /**
+   * This method logs, for a sample of requests, the current user returned to a request.
+   *
+   * @param user the current user, or null if nobody is logged in
+   * @param authorities the authorities granted to the current user
+   */
+  public void currentUserRead(User user, Collection<? extends GrantedAuthority> authorities) {
+    if (log.isDebugEnabled() && sampled()) {
+      log.debug(
+          "event=current_user_read user_id={} admin={} roles={}",
+          user == null ? null : user.getId(),
+          user == null ? null : user.getAdmin(),
+          roles(authorities));
+    }
+  }
+
+  private boolean sampled() {
+    return ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  private static List<String> roles(Collection<? extends GrantedAuthority> authorities) {
+    return authorities.stream().map(GrantedAuthority::getAuthority).toList();
+  }
+}
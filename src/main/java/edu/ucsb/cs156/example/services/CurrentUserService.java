@@ -6,6 +6,7 @@ import edu.ucsb.cs156.example.models.CurrentUser;
 import java.util.Collection;
 
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.user.OAuth2User;
 
 /**
  * This is a service that provides information about the current user.
@@ -42,4 +43,14 @@ public abstract class CurrentUserService {
     return getUser() != null;
   }
 
+  /**
+   * This method is called once when a user logs in, so that implementations can store or
+   * update the user's record before any request asks for it.
+   * @param oAuthUser the user as returned by the OAuth2 provider
+   * @return the stored user, or null if this implementation does not store users
+   */
+  public User userLoggedIn(OAuth2User oAuthUser) {
+    return null;
+  }
+
 }
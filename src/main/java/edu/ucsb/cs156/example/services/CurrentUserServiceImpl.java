@@ -3,16 +3,19 @@ package edu.ucsb.cs156.example.services;
 import edu.ucsb.cs156.example.entities.User;
 import edu.ucsb.cs156.example.models.CurrentUser;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.Collection;
-import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
@@ -20,6 +23,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 /**
  * This is a service that provides information about the current user.
@@ -37,8 +42,32 @@ public class CurrentUserServiceImpl extends CurrentUserService {
   @Autowired
   GrantedAuthoritiesService grantedAuthoritiesService;
 
-  @Value("${app.admin.emails}")
-  final private List<String> adminEmails = new ArrayList<String>();
+  @Autowired
+  AdminDirectory adminDirectory;
+
+  @Autowired
+  AuthAuditLog authAuditLog;
+
+  @Value("${app.users.cacheTtlMs:60000}")
+  private long cacheTtlMs = 60000;
+
+  @Value("${app.users.cacheMaxSize:10000}")
+  private long cacheMaxSize = 10000;
+
+  // request attribute holding the user for the rest of the request, once looked up
+  private static final String CURRENT_USER_ATTRIBUTE = CurrentUserServiceImpl.class.getName() + ".user";
+
+  // users by email, so that most requests do not need a database lookup at all; upsertUser is
+  // the only code that writes a user's record, and it puts the stored user here as it does
+  private Cache<String, User> usersByEmail;
+
+  @PostConstruct
+  void buildCache() {
+    usersByEmail = Caffeine.newBuilder()
+        .maximumSize(cacheMaxSize)
+        .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+        .build();
+  }
 
   /**
    * This method returns the current user as a User object.
@@ -49,7 +78,7 @@ public class CurrentUserServiceImpl extends CurrentUserService {
       .user(this.getUser())
       .roles(this.getRoles())
       .build();
-    log.info("getCurrentUser returns {}",cu);
+    authAuditLog.currentUserRead(cu.getUser(), cu.getRoles());
     return cu;
   }
 
@@ -57,7 +86,8 @@ public class CurrentUserServiceImpl extends CurrentUserService {
    * This method obtains the current user that is logged in with OAuth2, if any.
    * The parameters are automatically injected by Spring.
    * 
-   * This method also has a side effect of storing the user in the database if they are not already there.
+   * The user's record is stored when they log in (see userLoggedIn), so this method normally
+   * only reads it, from the cache or else the database.
    * 
    * @param securityContext the security context (provided by Spring)
    * @param authentication the authentication token (provided by Spring)
@@ -67,41 +97,69 @@ public class CurrentUserServiceImpl extends CurrentUserService {
   public User getOAuth2AuthenticatedUser(SecurityContext securityContext, Authentication authentication) {
     OAuth2User oAuthUser = ((OAuth2AuthenticationToken) authentication).getPrincipal();
     String email = oAuthUser.getAttribute("email");
-    String googleSub = oAuthUser.getAttribute("sub");
-    String pictureUrl = oAuthUser.getAttribute("picture");
-    String fullName = oAuthUser.getAttribute("name");
-    String givenName = oAuthUser.getAttribute("given_name");
-    String familyName = oAuthUser.getAttribute("family_name");
-    boolean emailVerified = oAuthUser.getAttribute("email_verified");
-    String locale = oAuthUser.getAttribute("locale");
-    String hostedDomain = oAuthUser.getAttribute("hd");
-
-    java.util.Map<java.lang.String,java.lang.Object> attrs = oAuthUser.getAttributes();
-    log.info("attrs={}",attrs);
+    User cached = usersByEmail.getIfPresent(email);
+    if (cached != null) {
+      return cached;
+    }
+
+    Optional<User> ou = userRepository.findByEmail(email);
+    if (ou.isPresent()) {
+      usersByEmail.put(email, ou.get());
+      return ou.get();
+    }
+
+    // the session outlived the user's record, e.g. it was deleted; store it again
+    return upsertUser(oAuthUser);
+  }
+
+  /**
+   * This method stores the user in the database when they log in, if they are not already
+   * there, and makes them an admin if their email is one of the admin emails.
+   * @param oAuthUser the user as returned by the OAuth2 provider
+   * @return the stored user
+   */
+  @Override
+  public User userLoggedIn(OAuth2User oAuthUser) {
+    return upsertUser(oAuthUser);
+  }
+
+  private User upsertUser(OAuth2User oAuthUser) {
+    String email = oAuthUser.getAttribute("email");
 
     Optional<User> ou = userRepository.findByEmail(email);
     if (ou.isPresent()) {
       User u = ou.get();
-      if (adminEmails.contains(email) && !u.getAdmin()) {
+      if (adminDirectory.isConfiguredAdmin(email) && !u.getAdmin()) {
         u.setAdmin(true);
         userRepository.save(u);
+        adminDirectory.refresh();
+        authAuditLog.userStored(u, false);
       }
+      usersByEmail.put(email, u);
       return u;
     }
 
+    Boolean emailVerified = oAuthUser.getAttribute("email_verified");
     User u = User.builder()
-        .googleSub(googleSub)
+        .googleSub(oAuthUser.getAttribute("sub"))
         .email(email)
-        .pictureUrl(pictureUrl)
-        .fullName(fullName)
-        .givenName(givenName)
-        .familyName(familyName)
-        .emailVerified(emailVerified)
-        .locale(locale)
-        .hostedDomain(hostedDomain)
-        .admin(adminEmails.contains(email))
+        .pictureUrl(oAuthUser.getAttribute("picture"))
+        .fullName(oAuthUser.getAttribute("name"))
+        .givenName(oAuthUser.getAttribute("given_name"))
+        .familyName(oAuthUser.getAttribute("family_name"))
+        .emailVerified(Boolean.TRUE.equals(emailVerified))
+        .locale(oAuthUser.getAttribute("locale"))
+        .hostedDomain(oAuthUser.getAttribute("hd"))
+        .admin(adminDirectory.isConfiguredAdmin(email))
         .build();
-    userRepository.save(u);
+    try {
+      userRepository.save(u);
+      authAuditLog.userStored(u, true);
+    } catch (DataIntegrityViolationException e) {
+      // logged in twice at once; the other login stored the user first
+      u = userRepository.findByEmail(email).orElseThrow(() -> e);
+    }
+    usersByEmail.put(email, u);
     return u;
   }
 
@@ -113,10 +171,21 @@ public class CurrentUserServiceImpl extends CurrentUserService {
     SecurityContext securityContext = SecurityContextHolder.getContext();
     Authentication authentication = securityContext.getAuthentication();
 
-    if (authentication instanceof OAuth2AuthenticationToken) {
-      return getOAuth2AuthenticatedUser(securityContext, authentication);
+    if (!(authentication instanceof OAuth2AuthenticationToken)) {
+      return null;
+    }
+
+    // one request may ask for the user several times; look them up only once
+    RequestAttributes request = RequestContextHolder.getRequestAttributes();
+    if (request != null
+        && request.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user) {
+      return user;
+    }
+    User user = getOAuth2AuthenticatedUser(securityContext, authentication);
+    if (request != null) {
+      request.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
     }
-    return null;
+    return user;
   }
 
   /**
@@ -2,6 +2,7 @@ package edu.ucsb.cs156.example.services;
 
 import java.util.Collection;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
@@ -18,6 +19,9 @@ import lombok.extern.slf4j.Slf4j;
 @Service("grantedAuthorities")
 public class GrantedAuthoritiesService {
 
+    @Autowired
+    AuthAuditLog authAuditLog;
+
     /**
      * The function retrieves and logs the granted authorities from the current security context in a
      * Java application.
@@ -28,7 +32,7 @@ public class GrantedAuthoritiesService {
         SecurityContext securityContext = SecurityContextHolder.getContext();
         Authentication authentication = securityContext.getAuthentication();
         Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-        log.info("authorities={}", authorities);
+        authAuditLog.authoritiesRead(authentication.getName(), authorities);
         return authorities;
     }
 
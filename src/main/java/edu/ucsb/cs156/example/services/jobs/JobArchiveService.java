@@ -0,0 +1,167 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.CompressedJobLog;
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobArchive;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.models.ArchivedJob;
+import edu.ucsb.cs156.example.repositories.CompressedJobLogsRepository;
+import edu.ucsb.cs156.example.repositories.JobArchivesRepository;
+import edu.ucsb.cs156.example.repositories.JobDependenciesRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * This service applies the job retention policy: finished jobs older than {@code
+ * app.jobs.retention.days} are moved, with their logs, into gzip-compressed archives, and archives
+ * older than {@code app.jobs.retention.archiveDays} are deleted.
+ *
+ * Jobs are moved {@code app.jobs.retention.batchSize} at a time, each batch in its own
+ * transaction, and deleted with set-based statements rather than one entity at a time, so that a
+ * large backlog neither holds long locks nor loads the whole table.
+ */
+@Slf4j
+@Service
+public class JobArchiveService {
+  @Autowired private JobsRepository jobsRepository;
+
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
+  @Autowired private JobArchivesRepository jobArchivesRepository;
+
+  @Autowired private CompressedJobLogsRepository compressedJobLogsRepository;
+
+  @Autowired private JobDependenciesRepository jobDependenciesRepository;
+
+  @Autowired private JobLogCompressionService jobLogCompressionService;
+
+  @Autowired private ObjectMapper mapper;
+
+  @Lazy @Autowired private JobArchiveService self;
+
+  @Value("${app.jobs.retention.days:30}")
+  private int retentionDays = 30;
+
+  @Value("${app.jobs.retention.archiveDays:365}")
+  private int archiveDays = 365;
+
+  @Value("${app.jobs.retention.batchSize:100}")
+  private int batchSize = 100;
+
+  @Value("${app.jobs.retention.maxBatchesPerRun:100}")
+  private int maxBatchesPerRun = 100;
+
+  /**
+   * Archive old jobs and delete old archives. Runs every {@code app.jobs.retention.intervalMs}
+   * milliseconds; a run stops after {@code app.jobs.retention.maxBatchesPerRun} batches and the
+   * next run carries on from there.
+   */
+  @Scheduled(
+      fixedDelayString = "${app.jobs.retention.intervalMs:3600000}",
+      initialDelayString = "${app.jobs.retention.initialDelayMs:60000}")
+  public void applyRetention() {
+    ZonedDateTime now = ZonedDateTime.now();
+    if (retentionDays > 0) {
+      ZonedDateTime cutoff = now.minusDays(retentionDays);
+      int archived = 0;
+      for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+        int count = self.archiveBatch(cutoff);
+        archived += count;
+        if (count < batchSize) break;
+      }
+      if (archived > 0) log.info("Archived {} jobs finished before {}", archived, cutoff);
+    }
+    if (archiveDays > 0) {
+      int deleted = jobArchivesRepository.deleteAllArchivedBefore(now.minusDays(archiveDays));
+      if (deleted > 0) log.info("Deleted {} job archives older than {} days", deleted, archiveDays);
+    }
+  }
+
+  /**
+   * Archive one batch of jobs that finished before a given time, and delete them, their logs and
+   * the dependencies between them and other jobs. Jobs that a waiting job still waits for are
+   * kept until it has run.
+   *
+   * @param cutoff jobs last updated before this time are archived
+   * @return the number of jobs archived
+   */
+  @Transactional
+  public int archiveBatch(ZonedDateTime cutoff) {
+    List<Job> jobs = jobsRepository.findFinishedBefore(cutoff, Limit.of(batchSize));
+    if (jobs.isEmpty()) return 0;
+    List<Long> ids = jobs.stream().map(Job::getId).toList();
+
+    Map<Long, List<String>> logs = new HashMap<>();
+    for (JobLogLine line : jobLogLinesRepository.findAllByJobIdInOrderByJobIdAscLineNumberAsc(ids)) {
+      logs.computeIfAbsent(line.getJobId(), id -> new ArrayList<>()).add(line.getMessage());
+    }
+    for (CompressedJobLog compressed : compressedJobLogsRepository.findAllById(ids)) {
+      logs.put(compressed.getJobId(), jobLogCompressionService.lines(compressed).toList());
+    }
+
+    ZonedDateTime archivedAt = ZonedDateTime.now();
+    jobArchivesRepository.saveAll(
+        jobs.stream()
+            .map(job -> archive(job, logs.getOrDefault(job.getId(), List.of()), archivedAt))
+            .toList());
+    jobLogLinesRepository.deleteAllByJobIdIn(ids);
+    compressedJobLogsRepository.deleteAllByJobIdIn(ids);
+    jobDependenciesRepository.deleteAllByJobIdIn(ids);
+    jobDependenciesRepository.deleteAllByDependsOnJobIdIn(ids);
+    jobsRepository.deleteAllByIdIn(ids);
+    return jobs.size();
+  }
+
+  private JobArchive archive(Job job, List<String> log, ZonedDateTime archivedAt) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      mapper.writeValue(gzip, ArchivedJob.builder().job(job).log(log).build());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return JobArchive.builder()
+        .id(job.getId())
+        .status(job.getStatus())
+        .jobType(job.getJobType())
+        .createdAt(job.getCreatedAt())
+        .updatedAt(job.getUpdatedAt())
+        .archivedAt(archivedAt)
+        .logLines(log.size())
+        .data(bytes.toByteArray())
+        .build();
+  }
+
+  /**
+   * Write the contents of an archive, an ArchivedJob as JSON, decompressing it as it is written.
+   *
+   * @param archive the archive
+   * @param out where to write the JSON
+   * @throws IOException if the archive cannot be read or the JSON cannot be written
+   */
+  public void writeArchive(JobArchive archive, OutputStream out) throws IOException {
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(archive.getData()))) {
+      gzip.transferTo(out);
+    }
+  }
+}
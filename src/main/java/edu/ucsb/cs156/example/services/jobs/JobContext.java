@@ -1,20 +1,201 @@
 package edu.ucsb.cs156.example.services.jobs;
 
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.errors.JobCancelledException;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
-import lombok.AllArgsConstructor;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
 
-@AllArgsConstructor
 @Slf4j
 public class JobContext {
   private JobsRepository jobsRepository;
+  private JobLogLinesRepository jobLogLinesRepository;
+  private JobLogBroadcaster jobLogBroadcaster;
+  private JobService jobService;
   private Job job;
+  private long nextLineNumber;
 
-  public void log(String message) {
+  // lines are held here until flushSize of them accumulate, flush() is called by the
+  // RunningJobsRegistry timer, or the job finishes; a flushSize of 1 writes every line immediately
+  private final int flushSize;
+  private final List<JobLogLine> pendingLines = new ArrayList<>();
+
+  // progress is kept on the job as it is reported, but written to the database at most once every
+  // progressIntervalMs; the last report is always written when the job finishes
+  private final long progressIntervalMs;
+  private long progressWrittenAtMs;
+  private boolean progressPending;
+
+  // the thread running the job, while it runs, so that cancel() can interrupt blocking work
+  private Thread thread;
+
+  // set by cancel(): the status the job ends with, and the line logged to say why
+  private volatile String cancelStatus;
+  private volatile String cancelReason;
+
+  @Builder
+  public JobContext(
+      JobsRepository jobsRepository,
+      JobLogLinesRepository jobLogLinesRepository,
+      JobLogBroadcaster jobLogBroadcaster,
+      Job job,
+      int flushSize,
+      long firstLineNumber,
+      long progressIntervalMs,
+      JobService jobService) {
+    this.jobsRepository = jobsRepository;
+    this.jobLogLinesRepository = jobLogLinesRepository;
+    this.jobLogBroadcaster = jobLogBroadcaster;
+    this.job = job;
+    this.flushSize = Math.max(flushSize, 1);
+    this.nextLineNumber = firstLineNumber;
+    this.progressIntervalMs = progressIntervalMs;
+    this.jobService = jobService;
+  }
+
+  public Job getJob() {
+    return job;
+  }
+
+  public synchronized void log(String message) {
     log.info("Job %s: %s".formatted(job.getId(), message));
-    String previousLog = job.getLog() == null ? "" : (job.getLog() + "\n");
-    job.setLog(previousLog + message);
-    if (jobsRepository != null) jobsRepository.save(job);
+    JobLogLine line =
+        JobLogLine.builder().jobId(job.getId()).lineNumber(nextLineNumber++).message(message).build();
+    pendingLines.add(line);
+    if (jobLogBroadcaster != null) jobLogBroadcaster.publish(line);
+    if (pendingLines.size() >= flushSize) flush();
+  }
+
+  /**
+   * Records how far the job has got, e.g. the number of records processed so far out of the total.
+   * The job's percent complete and estimated completion time are worked out from this.
+   *
+   * @param done units of work done
+   * @param total total units of work
+   */
+  public synchronized void progress(long done, long total) {
+    job.setProgressDone(done);
+    job.setProgressTotal(total);
+    job.setProgressUpdatedAt(ZonedDateTime.now());
+    progressPending = true;
+    writeProgressIfDue();
+  }
+
+  /**
+   * Starts a job that runs alongside this one, with this job as its parent, e.g. one part of a
+   * large job split into parts that run in parallel.
+   *
+   * @param child the job to start
+   * @return the child job, queued
+   */
+  public Job spawn(PersistableJob child) {
+    return spawnAfter(child, List.of());
+  }
+
+  /**
+   * Starts a job, with this job as its parent, once other jobs have finished, e.g. a final step
+   * that combines the results of the jobs started with spawn. If any of them does not complete,
+   * the job is not run and is marked "error".
+   *
+   * @param child the job to start
+   * @param dependencies the jobs it waits for
+   * @return the child job, waiting
+   */
+  public Job spawnAfter(PersistableJob child, Collection<Job> dependencies) {
+    return jobService.runAsChildJob(job, child, dependencies);
+  }
+
+  /**
+   * @return true if the job has been cancelled or has timed out, and should stop
+   */
+  public boolean isCancelled() {
+    return cancelStatus != null;
+  }
+
+  /**
+   * Stops the job if it has been cancelled or has timed out. Jobs that loop over records should
+   * call this regularly; blocking calls such as Thread.sleep are interrupted anyway.
+   *
+   * @throws JobCancelledException if the job should stop
+   */
+  public void checkCancelled() {
+    if (isCancelled()) throw new JobCancelledException(cancelReason);
+  }
+
+  /**
+   * Asks the job to stop, and interrupts it if it is running. Only the first call has an effect.
+   *
+   * @param status the status the job ends with, e.g. "cancelled"
+   * @param reason the log line that says why the job stopped
+   */
+  synchronized void cancel(String status, String reason) {
+    if (isCancelled()) return;
+    cancelReason = reason;
+    cancelStatus = status;
+    job.setCancelRequested(true);
+    if (thread != null) thread.interrupt();
+  }
+
+  String getCancelStatus() {
+    return cancelStatus;
+  }
+
+  String getCancelReason() {
+    return cancelReason;
+  }
+
+  /** Called on the job's thread when the job starts. */
+  synchronized void attach() {
+    thread = Thread.currentThread();
+  }
+
+  /**
+   * Called on the job's thread when the job ends; clears any interrupt from cancel(), so that it
+   * does not affect the writes that follow or the next task on the thread.
+   */
+  synchronized void detach() {
+    thread = null;
+    Thread.interrupted();
+  }
+
+  /**
+   * Writes any buffered log lines to the database in one batch, and the latest progress if it is
+   * due. If the write fails the lines stay buffered, so that a later flush can retry them.
+   */
+  public synchronized void flush() {
+    writeProgressIfDue();
+    if (pendingLines.isEmpty()) return;
+    if (jobLogLinesRepository != null) {
+      try {
+        jobLogLinesRepository.saveAll(new ArrayList<>(pendingLines));
+      } catch (RuntimeException e) {
+        // the failed write gave the lines ids from the sequence; clear them, so that the retry
+        // inserts the lines rather than merging rows that were never stored
+        pendingLines.forEach(line -> line.setId(0));
+        throw e;
+      }
+    }
+    pendingLines.clear();
+  }
+
+  private void writeProgressIfDue() {
+    long now = System.currentTimeMillis();
+    if (!progressPending || now - progressWrittenAtMs < progressIntervalMs) return;
+    if (jobsRepository != null) {
+      jobsRepository.updateProgress(
+          job.getId(),
+          job.getStartedAt(),
+          job.getProgressDone(),
+          job.getProgressTotal(),
+          job.getProgressUpdatedAt());
+    }
+    progressWrittenAtMs = now;
+    progressPending = false;
   }
 }
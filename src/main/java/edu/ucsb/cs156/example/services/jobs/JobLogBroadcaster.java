@@ -0,0 +1,247 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * This component pushes job log lines to clients that are streaming a job's log over Server-Sent
+ * Events, as the lines are logged rather than when they are flushed to the database.
+ *
+ * Each event has the line number as its id, so a client that reconnects with {@code Last-Event-ID}
+ * can resume where it left off.
+ *
+ * Publishing a line only adds it to each subscriber's queue; the lines are sent on a separate
+ * thread, so that a slow client never holds up the job that logs them. A client that falls more
+ * than {@code app.jobs.logStreamBufferLines} lines behind is disconnected, and can reconnect to
+ * resume from the stored log.
+ *
+ * When the application shuts down, every stream is ended and the sending threads are stopped;
+ * clients reconnect with {@code Last-Event-ID} to an instance that is still running.
+ *
+ * Lines are published here by the jobs running in this instance. For jobs running in another
+ * instance, JobService.tailRemoteLogStreams reads new lines from the database and publishes them.
+ */
+@Slf4j
+@Component
+public class JobLogBroadcaster {
+  private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+  // sends queued lines to the clients; each subscriber has at most one send task at a time
+  private final Executor sender;
+
+  @Value("${app.jobs.logStreamBufferLines:1000}")
+  private int bufferLines = 1000;
+
+  public JobLogBroadcaster() {
+    this(Executors.newVirtualThreadPerTaskExecutor());
+  }
+
+  JobLogBroadcaster(Executor sender) {
+    this.sender = sender;
+  }
+
+  /**
+   * Start delivering the log lines of a job to an emitter. Lines published after this call are held
+   * back until {@link Subscriber#replay(Iterable)} has sent the lines already logged, so that the
+   * client sees every line exactly once and in order.
+   *
+   * @param jobId id of the job
+   * @param fromLine number of the first line the client wants
+   * @param emitter the emitter to send events to
+   * @return the subscription
+   */
+  public Subscriber subscribe(long jobId, long fromLine, SseEmitter emitter) {
+    Subscriber subscriber = new Subscriber(jobId, fromLine, emitter);
+    subscribers.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+    emitter.onCompletion(() -> remove(subscriber));
+    emitter.onTimeout(() -> remove(subscriber));
+    emitter.onError(e -> remove(subscriber));
+    return subscriber;
+  }
+
+  /**
+   * Queue a newly logged line for everyone streaming its job.
+   *
+   * @param line the line
+   */
+  public void publish(JobLogLine line) {
+    subscribers.getOrDefault(line.getJobId(), List.of()).forEach(s -> s.send(line));
+  }
+
+  /**
+   * End the streams of a job that has finished, once the lines queued for them have been sent.
+   *
+   * @param jobId id of the job
+   */
+  public void complete(long jobId) {
+    subscribers.getOrDefault(jobId, List.of()).forEach(Subscriber::complete);
+  }
+
+  /**
+   * The jobs being streamed, with the number of the first line that some client streaming each job
+   * has not yet been given. Clients still being sent the stored log are left out; they are given
+   * any stored lines they need from there.
+   *
+   * @return the first line still wanted, by job id
+   */
+  public Map<Long, Long> streamedJobs() {
+    Map<Long, Long> wanted = new HashMap<>();
+    subscribers.forEach(
+        (jobId, list) ->
+            list.forEach(
+                subscriber ->
+                    subscriber
+                        .nextWanted()
+                        .ifPresent(line -> wanted.merge(jobId, line, Math::min))));
+    return wanted;
+  }
+
+  /** End every stream and stop the sending threads, when the application shuts down. */
+  @PreDestroy
+  public void shutdown() {
+    subscribers.values().forEach(list -> list.forEach(Subscriber::end));
+    if (sender instanceof ExecutorService executorService) {
+      executorService.shutdownNow();
+    }
+  }
+
+  private void remove(Subscriber subscriber) {
+    subscribers.computeIfPresent(
+        subscriber.jobId,
+        (id, list) -> {
+          list.remove(subscriber);
+          return list.isEmpty() ? null : list;
+        });
+  }
+
+  /** One client streaming the log of one job. */
+  public class Subscriber {
+    private final long jobId;
+    private final SseEmitter emitter;
+    // number of the next line to send; only changed by the replay or by the one send task
+    private volatile long nextLine;
+    // number of the line after the last one queued; lines below it are already queued or sent
+    private long nextQueued;
+    private final Deque<JobLogLine> queued = new ArrayDeque<>();
+    private boolean replaying = true;
+    private boolean sending = false;
+    private boolean completed = false;
+    private volatile boolean closed = false;
+
+    private Subscriber(long jobId, long fromLine, SseEmitter emitter) {
+      this.jobId = jobId;
+      this.nextLine = fromLine;
+      this.nextQueued = fromLine;
+      this.emitter = emitter;
+    }
+
+    /**
+     * Send the lines that were logged before the subscription, then any lines that were published
+     * meanwhile.
+     *
+     * @param history lines already stored, in order
+     */
+    public void replay(Iterable<JobLogLine> history) {
+      // sent on the caller's thread, not the job's; until replaying is cleared, send() only
+      // queues lines
+      history.forEach(this::deliver);
+      synchronized (this) {
+        replaying = false;
+        startSending();
+      }
+    }
+
+    synchronized void send(JobLogLine line) {
+      if (closed || line.getLineNumber() < nextQueued) return;
+      if (queued.size() >= bufferLines) {
+        // the client is not keeping up; rather than buffer without bound, end its stream
+        log.debug("Job {}: log stream more than {} lines behind, disconnecting", jobId, bufferLines);
+        close();
+        sender.execute(emitter::complete);
+        return;
+      }
+      queued.add(line);
+      nextQueued = line.getLineNumber() + 1;
+      if (!replaying) startSending();
+    }
+
+    /** End the stream, once any replay in progress and the queued lines have been sent. */
+    public synchronized void complete() {
+      if (completed) return;
+      completed = true;
+      if (!replaying) startSending();
+    }
+
+    private synchronized Optional<Long> nextWanted() {
+      if (replaying) return Optional.empty();
+      return Optional.of(Math.max(nextQueued, nextLine));
+    }
+
+    private void startSending() {
+      if (sending || closed) return;
+      sending = true;
+      sender.execute(this::sendQueued);
+    }
+
+    private void sendQueued() {
+      while (true) {
+        JobLogLine line;
+        synchronized (this) {
+          line = queued.poll();
+          if (line == null) {
+            sending = false;
+            if (completed && !closed) {
+              close();
+              emitter.complete();
+            }
+            return;
+          }
+        }
+        deliver(line);
+      }
+    }
+
+    private void deliver(JobLogLine line) {
+      if (closed || line.getLineNumber() < nextLine) return;
+      try {
+        emitter.send(
+            SseEmitter.event().id(Long.toString(line.getLineNumber())).data(line.getMessage()));
+        nextLine = line.getLineNumber() + 1;
+      } catch (IOException | IllegalStateException e) {
+        log.debug("Job {}: log stream closed: {}", jobId, e.getMessage());
+        synchronized (this) {
+          close();
+        }
+      }
+    }
+
+    private void end() {
+      synchronized (this) {
+        close();
+      }
+      emitter.complete();
+    }
+
+    private void close() {
+      closed = true;
+      queued.clear();
+      remove(this);
+    }
+  }
+}
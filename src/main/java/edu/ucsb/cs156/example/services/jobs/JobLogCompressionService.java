@@ -0,0 +1,152 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.CompressedJobLog;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.CompressedJobLogsRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * This service compresses the logs of finished jobs and reads them back.
+ *
+ * A log is compressed when its job finishes, if it is at least {@code
+ * app.jobs.logs.compressMinLength} characters long; shorter logs stay in job_log_lines, where they
+ * are cheaper to read a window at a time.
+ *
+ * Each message is stored as one line of the compressed text, with the line breaks and backslashes
+ * in it escaped as \n, \r and \\, so that the lines read back are numbered as they were logged.
+ */
+@Service
+public class JobLogCompressionService {
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
+  @Autowired private CompressedJobLogsRepository compressedJobLogsRepository;
+
+  @Value("${app.jobs.logs.compressMinLength:65536}")
+  private long compressMinLength = 65536;
+
+  /**
+   * Compress the log of a finished job, if it is long enough, replacing its log lines.
+   *
+   * @param jobId id of the job
+   * @return true if the log was compressed
+   */
+  @Transactional
+  public boolean compress(long jobId) {
+    if (compressMinLength <= 0) return false;
+    long length = jobLogLinesRepository.sumMessageLengthByJobId(jobId);
+    if (length < compressMinLength) return false;
+
+    List<JobLogLine> lines =
+        StreamSupport.stream(
+                jobLogLinesRepository
+                    .findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(jobId, 0L)
+                    .spliterator(),
+                false)
+            .toList();
+    String text =
+        lines.stream()
+            .map(line -> escape(line.getMessage()))
+            .collect(Collectors.joining("\n"));
+
+    compressedJobLogsRepository.save(
+        CompressedJobLog.builder()
+            .jobId(jobId)
+            .lineCount(lines.size())
+            .length(length)
+            .data(deflate(text.getBytes(StandardCharsets.UTF_8)))
+            .build());
+    jobLogLinesRepository.deleteAllByJobId(jobId);
+    return true;
+  }
+
+  static String escape(String message) {
+    return message.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+  }
+
+  static String unescape(String line) {
+    if (line.indexOf('\\') < 0) return line;
+    StringBuilder message = new StringBuilder(line.length());
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      char next = i + 1 < line.length() ? line.charAt(i + 1) : 0;
+      if (c == '\\' && (next == 'n' || next == 'r' || next == '\\')) {
+        c = next == 'n' ? '\n' : next == 'r' ? '\r' : '\\';
+        i++;
+      }
+      message.append(c);
+    }
+    return message.toString();
+  }
+
+  private byte[] deflate(byte[] input) {
+    Deflater deflater = new Deflater();
+    deflater.setInput(input);
+    deflater.finish();
+    ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 8 + 64);
+    byte[] buffer = new byte[8192];
+    while (!deflater.finished()) {
+      out.write(buffer, 0, deflater.deflate(buffer));
+    }
+    deflater.end();
+    return out.toByteArray();
+  }
+
+  /**
+   * Find the compressed log of a job.
+   *
+   * @param jobId id of the job
+   * @return the compressed log, or empty if the job's log is not compressed
+   */
+  public Optional<CompressedJobLog> findCompressedLog(long jobId) {
+    return compressedJobLogsRepository.findById(jobId);
+  }
+
+  /**
+   * Open a compressed log for reading, decompressing it as it is read.
+   *
+   * @param log the compressed log
+   * @return the text of the log, as UTF-8, one message per line with its line breaks escaped
+   */
+  public InputStream open(CompressedJobLog log) {
+    return new InflaterInputStream(new ByteArrayInputStream(log.getData()));
+  }
+
+  /**
+   * Read the lines of a compressed log, decompressing them as they are read.
+   *
+   * @param log the compressed log
+   * @return the lines of the log, in order
+   */
+  public Stream<String> lines(CompressedJobLog log) {
+    return new BufferedReader(new InputStreamReader(open(log), StandardCharsets.UTF_8))
+        .lines()
+        .map(JobLogCompressionService::unescape);
+  }
+
+  /**
+   * Read the lines of a job's compressed log.
+   *
+   * @param jobId id of the job
+   * @return the lines of the log, or empty if the job's log is not compressed
+   */
+  public Optional<Stream<String>> findLines(long jobId) {
+    return findCompressedLog(jobId).map(this::lines);
+  }
+}
@@ -0,0 +1,71 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * This component records how long jobs wait and run, and how they finish, tagged by job type.
+ *
+ * <ul>
+ *   <li>{@code jobs.queue.wait}: time from a job being created to it starting
+ *   <li>{@code jobs.run}: time a job ran, also tagged with the status it finished with, so the
+ *       failure rate of a type is its count with outcome "error" over its total count
+ *   <li>{@code jobs.rejected}: jobs turned away because the executor was full
+ * </ul>
+ *
+ * Percentiles for the timers are set with management.metrics.distribution.* properties.
+ */
+@Component
+public class JobMetrics {
+  @Autowired private MeterRegistry meterRegistry;
+
+  /**
+   * The type of a job, for tagging its metrics: the class of the job, or for a lambda, the class
+   * it was written in.
+   *
+   * @param jobFunction the job
+   * @return the name of the class
+   */
+  public static String jobType(JobContextConsumer jobFunction) {
+    String name = jobFunction.getClass().getName();
+    int lambda = name.indexOf("$$Lambda");
+    return lambda < 0 ? name : name.substring(0, lambda);
+  }
+
+  /**
+   * Record how long a job waited before it started.
+   *
+   * @param type the job type
+   * @param createdAt when the job was created, or null if it is not known
+   * @param startedAt when the job started
+   */
+  public void recordQueueWait(String type, ZonedDateTime createdAt, ZonedDateTime startedAt) {
+    if (createdAt == null) return;
+    meterRegistry
+        .timer("jobs.queue.wait", "type", type)
+        .record(Duration.between(createdAt, startedAt));
+  }
+
+  /**
+   * Record a job that ran.
+   *
+   * @param type the job type
+   * @param outcome the status the job finished with
+   * @param duration how long it ran
+   */
+  public void recordRun(String type, String outcome, Duration duration) {
+    meterRegistry.timer("jobs.run", "type", type, "outcome", outcome).record(duration);
+  }
+
+  /**
+   * Record a job rejected because the executor was full.
+   *
+   * @param type the job type
+   */
+  public void recordRejected(String type) {
+    meterRegistry.counter("jobs.rejected", "type", type).increment();
+  }
+}
@@ -0,0 +1,232 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.config.JobExecutorConfig;
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobDependency;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.models.JobSummary;
+import edu.ucsb.cs156.example.repositories.JobDependenciesRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * This component manages the database-backed job queue and the leases that instances hold on the
+ * jobs they run.
+ *
+ * A job is leased by the instance running it until {@code leaseExpiresAt}, and the instance renews
+ * the lease every {@code app.jobs.queue.heartbeatMs} while the job runs. If an instance stops (a
+ * crash or a restart) its leases lapse, and any instance then re-queues the job, if it is a
+ * PersistableJob that has not used up {@code app.jobs.queue.maxAttempts}, or marks it as failed.
+ * So {@code app.jobs.queue.leaseMs} must be longer than the heartbeat interval plus the longest a
+ * renewal may take, e.g. while the database is slow; otherwise a job still running here may be
+ * taken over and run twice. The defaults allow two heartbeats to be missed.
+ *
+ * A queued job may wait for other jobs first: it is "waiting" until they have all finished, and
+ * is then queued, or marked "error" if any of them did not complete.
+ */
+@Slf4j
+@Component
+public class JobQueue {
+  @Autowired private JobsRepository jobsRepository;
+
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
+  @Autowired private JobDependenciesRepository jobDependenciesRepository;
+
+  @Value("${app.jobs.queue.leaseMs:60000}")
+  private long leaseMs = 60000;
+
+  @Value("${app.jobs.queue.maxAttempts:3}")
+  private int maxAttempts = 3;
+
+  // pid@host of this JVM, plus a random part in case the pid is reused, e.g. in a new container
+  private final String instanceId =
+      ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID();
+
+  // the jobs this instance holds a lease on, by id
+  private final Map<Long, Job> leased = new ConcurrentHashMap<>();
+
+  private ZonedDateTime leaseExpiry() {
+    return ZonedDateTime.now().plus(Duration.ofMillis(leaseMs));
+  }
+
+  public String getInstanceId() {
+    return instanceId;
+  }
+
+  /**
+   * Lease a job to this instance, counting it as a new attempt. The caller saves the job.
+   *
+   * @param job the job
+   */
+  public void lease(Job job) {
+    job.setLeaseOwner(instanceId);
+    job.setLeaseExpiresAt(leaseExpiry());
+    job.setAttempts(job.getAttempts() + 1);
+  }
+
+  /**
+   * Keep renewing the lease of a saved job until it is released.
+   *
+   * @param job the job
+   */
+  public void track(Job job) {
+    leased.put(job.getId(), job);
+  }
+
+  /**
+   * Stop renewing the lease of a job, typically because it has finished.
+   *
+   * @param job the job
+   */
+  public void release(Job job) {
+    leased.remove(job.getId());
+  }
+
+  /**
+   * @return the number of jobs this instance holds a lease on
+   */
+  public int leasedCount() {
+    return leased.size();
+  }
+
+  /**
+   * Claim the next queued job for this instance: mark it running and lease it. See {@link
+   * JobsRepository#findNextQueued} for the order in which jobs are claimed.
+   *
+   * @param minPriority lowest priority of job to claim
+   * @return the claimed job, or empty if no job is waiting
+   */
+  @Transactional
+  public Optional<Job> claimNext(int minPriority) {
+    Optional<Job> next =
+        jobsRepository
+            .findNextQueued(minPriority, ZonedDateTime.now(), Limit.of(1))
+            .stream()
+            .findFirst();
+    next.ifPresent(
+        job -> {
+          job.setStatus("running");
+          lease(job);
+          jobsRepository.save(job);
+          track(job);
+        });
+    return next;
+  }
+
+  /**
+   * Extend the leases on the jobs this instance is running. Runs every {@code
+   * app.jobs.queue.heartbeatMs} milliseconds on a scheduler thread of its own, so that other
+   * scheduled tasks cannot delay it.
+   */
+  @Scheduled(
+      fixedDelayString = "${app.jobs.queue.heartbeatMs:20000}",
+      scheduler = JobExecutorConfig.LEASE_SCHEDULER)
+  public void renewLeases() {
+    if (leased.isEmpty()) return;
+    ZonedDateTime expiresAt = leaseExpiry();
+    // keep the in-memory jobs in step, so that saving one later does not undo the renewal
+    leased.values().forEach(job -> job.setLeaseExpiresAt(expiresAt));
+    jobsRepository.renewLeases(new ArrayList<>(leased.keySet()), instanceId, expiresAt);
+  }
+
+  /**
+   * Re-queue or fail the running jobs whose lease has lapsed. Runs at startup and then every
+   * {@code app.jobs.queue.recoveryIntervalMs}.
+   */
+  @Scheduled(fixedDelayString = "${app.jobs.queue.recoveryIntervalMs:60000}")
+  public void recoverExpiredLeases() {
+    ZonedDateTime now = ZonedDateTime.now();
+    for (Job job : jobsRepository.findAllRunningWithExpiredLease(now)) {
+      String status;
+      String message;
+      if (job.getCancelRequested()) {
+        status = "cancelled";
+        message = "Job cancelled: the instance running it stopped before it finished";
+      } else if (job.getJobType() != null && job.getAttempts() < maxAttempts) {
+        status = "queued";
+        message = "Job re-queued: the instance running it stopped before it finished";
+      } else {
+        status = "error";
+        message = "Job failed: the instance running it stopped before it finished";
+      }
+      if (jobsRepository.releaseExpiredLease(job.getId(), status, now) == 0) {
+        continue; // renewed, finished, or recovered by another instance meanwhile
+      }
+      log.warn("Job {}: {}", job.getId(), message);
+      jobLogLinesRepository.save(
+          JobLogLine.builder()
+              .jobId(job.getId())
+              .lineNumber(jobLogLinesRepository.countByJobId(job.getId()))
+              .message(message)
+              .build());
+    }
+  }
+
+  /**
+   * Save a new PersistableJob in the queue, together with the jobs it waits for, in one
+   * transaction, so that it is never seen waiting without its dependencies.
+   *
+   * @param job the job, "queued", or "waiting" if it has dependencies
+   * @param dependencies jobs that must finish before it runs
+   */
+  @Transactional
+  public void enqueue(Job job, Collection<Job> dependencies) {
+    jobsRepository.save(job);
+    jobDependenciesRepository.saveAll(
+        dependencies.stream()
+            .map(
+                dependency ->
+                    JobDependency.builder()
+                        .jobId(job.getId())
+                        .dependsOnJobId(dependency.getId())
+                        .build())
+            .toList());
+  }
+
+  /**
+   * Queue the waiting jobs whose dependencies have all finished. A job that waited for a job that
+   * did not complete is marked "error" instead, which in turn may finish what other jobs wait for.
+   */
+  public void releaseWaitingJobs() {
+    List<Long> ready;
+    while (!(ready = jobsRepository.findWaitingIdsWithFinishedDependencies()).isEmpty()) {
+      for (long jobId : ready) {
+        List<JobSummary> unsuccessful = jobsRepository.findUnsuccessfulDependencies(jobId);
+        if (unsuccessful.isEmpty()) {
+          jobsRepository.releaseWaiting(jobId, "queued");
+          continue;
+        }
+        if (jobsRepository.releaseWaiting(jobId, "error") == 0) {
+          continue; // released by another instance meanwhile
+        }
+        JobSummary dependency = unsuccessful.get(0);
+        jobLogLinesRepository.save(
+            JobLogLine.builder()
+                .jobId(jobId)
+                .lineNumber(jobLogLinesRepository.countByJobId(jobId))
+                .message(
+                    "Job not run: job %d, which it waits for, finished with status %s"
+                        .formatted(dependency.getId(), dependency.getStatus()))
+                .build());
+      }
+    }
+  }
+}
@@ -1,53 +1,609 @@
 package edu.ucsb.cs156.example.services.jobs;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.config.JobExecutorConfig;
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.ScheduledJobDefinition;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.JobExecutorStats;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
 import edu.ucsb.cs156.example.services.CurrentUserService;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+@Slf4j
 @Service
 public class JobService {
   @Autowired private JobsRepository jobsRepository;
 
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
   @Autowired private CurrentUserService currentUserService;
 
+  @Autowired private RunningJobsRegistry runningJobsRegistry;
+
+  @Autowired private JobLogBroadcaster jobLogBroadcaster;
+
+  @Autowired private JobQueue jobQueue;
+
+  @Autowired private JobLogCompressionService jobLogCompressionService;
+
+  @Autowired private JobMetrics jobMetrics;
+
+  @Autowired private ObjectMapper mapper;
+
+  @Autowired
+  @Qualifier(JobExecutorConfig.JOB_EXECUTOR)
+  private ThreadPoolTaskExecutor jobExecutor;
+
+  @Value("${app.jobs.executor.threads:platform}")
+  private String executorThreads = "platform";
+
+  private final AtomicLong rejectedJobs = new AtomicLong();
+
+  @Value("${app.jobs.queue.interactiveThreads:1}")
+  private int interactiveThreads = 1;
+
+  @Value("${app.jobs.logFlushSize:100}")
+  private int logFlushSize = 100;
+
+  @Value("${app.jobs.idempotencyKeyTtlMs:86400000}")
+  private long idempotencyKeyTtlMs = 86400000;
+
+  @Value("${app.jobs.progressIntervalMs:2000}")
+  private long progressIntervalMs = 2000;
+
+  @Value("${app.jobs.logStreamTimeoutMs:1800000}")
+  private long logStreamTimeoutMs = 1800000;
+
+  @Value("${app.jobs.logStreamBufferLines:1000}")
+  private int logStreamBufferLines = 1000;
+
+  // statuses of jobs that have not finished yet
+  private static final List<String> UNFINISHED = List.of("waiting", "queued", "running");
+
   @Lazy @Autowired private JobService self;
 
   public Job runAsJob(JobContextConsumer jobFunction) {
-    Job job = Job.builder().createdBy(currentUserService.getUser()).status("running").build();
+    return runAsJob(jobFunction, 0);
+  }
 
+  public Job runAsJob(JobContextConsumer jobFunction, int priority) {
+    return runAsJob(jobFunction, priority, null);
+  }
+
+  public Job runAsJob(JobContextConsumer jobFunction, int priority, Long timeoutMs) {
+    return runAsJob(jobFunction, priority, timeoutMs, null);
+  }
+
+  /**
+   * Run a job for the current user. A PersistableJob waits in the database queue until a thread
+   * is free, and is taken ahead of queued jobs of lower priority; other jobs go straight to the
+   * executor.
+   *
+   * <p>If the user already submitted a job with the same idempotency key, and the key has not
+   * expired, that job is returned and no new job is started.
+   *
+   * @param jobFunction the job
+   * @param priority priority of the job: higher runs first, and above 0 may use the threads kept
+   *     free for interactive jobs
+   * @param timeoutMs how long the job may run before it is stopped, or null for no limit
+   * @param idempotencyKey a key chosen by the caller for this submission, or null
+   * @return the saved job, or the job already submitted with the same key
+   */
+  public Job runAsJob(
+      JobContextConsumer jobFunction, int priority, Long timeoutMs, String idempotencyKey) {
+    User user = currentUserService.getUser();
+    Job job =
+        Job.builder()
+            .createdBy(user)
+            .status("running")
+            .priority(priority)
+            .timeoutMs(timeoutMs)
+            .build();
+
+    if (idempotencyKey == null) {
+      return start(job, jobFunction);
+    }
+
+    ZonedDateTime now = ZonedDateTime.now();
+    Optional<Job> existing = jobsRepository.findByIdempotencyKey(user, idempotencyKey, now);
+    if (existing.isPresent()) {
+      return existing.get();
+    }
+    // an expired key would still hold the unique constraint
+    jobsRepository.clearExpiredIdempotencyKey(user, idempotencyKey, now);
+    job.setIdempotencyKey(idempotencyKey);
+    job.setIdempotencyKeyExpiresAt(now.plus(Duration.ofMillis(idempotencyKeyTtlMs)));
+    try {
+      return start(job, jobFunction);
+    } catch (DataIntegrityViolationException e) {
+      // a concurrent submission with the same key saved its job first
+      return jobsRepository
+          .findByIdempotencyKey(user, idempotencyKey, ZonedDateTime.now())
+          .orElseThrow(() -> e);
+    }
+  }
+
+  private Job start(Job job, JobContextConsumer jobFunction) {
+    if (jobFunction instanceof PersistableJob) {
+      return queue(job, jobFunction, List.of());
+    }
+
+    jobQueue.lease(job);
     jobsRepository.save(job);
-    self.runJobAsync(job, jobFunction);
+    jobQueue.track(job);
+    try {
+      self.runJobAsync(job, jobFunction);
+    } catch (TaskRejectedException e) {
+      // the executor's queue is full; record that rather than queueing without bound
+      rejectedJobs.incrementAndGet();
+      jobMetrics.recordRejected(JobMetrics.jobType(jobFunction));
+      job.setStatus("rejected");
+      JobContext context = newContext(job);
+      context.log("Job rejected: too many jobs are already running or waiting");
+      flushOrLog(context);
+      jobQueue.release(job);
+      jobsRepository.save(job);
+    }
+
+    return job;
+  }
+
+  /**
+   * Queue a PersistableJob started by a running job, as the same user and with the same priority
+   * and timeout. It runs once every job in {@code dependencies} has finished, or is marked "error"
+   * if any of them did not complete.
+   *
+   * @param parent the running job
+   * @param jobFunction the child job
+   * @param dependencies jobs the child waits for; if empty it runs alongside its parent
+   * @return the saved child job
+   */
+  public Job runAsChildJob(Job parent, PersistableJob jobFunction, Collection<Job> dependencies) {
+    Job job =
+        Job.builder()
+            .createdBy(parent.getCreatedBy())
+            .parentId(parent.getId())
+            .priority(parent.getPriority())
+            .timeoutMs(parent.getTimeoutMs())
+            .build();
+    return queue(job, jobFunction, dependencies);
+  }
 
+  /**
+   * Queue a run of a scheduled job, as the user who scheduled it. Unlike the other methods here
+   * this does not poll the queue, since the caller saves the job in a transaction of its own; the
+   * caller polls once that is committed.
+   *
+   * @param definition the schedule
+   * @return the saved job
+   */
+  public Job runScheduledJob(ScheduledJobDefinition definition) {
+    Job job =
+        Job.builder()
+            .createdBy(definition.getCreatedBy())
+            .status("queued")
+            .priority(definition.getPriority())
+            .timeoutMs(definition.getTimeoutMs())
+            .jobType(definition.getJobType())
+            .payload(definition.getPayload())
+            .build();
+    jobQueue.enqueue(job, List.of());
     return job;
   }
 
-  @Async
+  private Job queue(Job job, JobContextConsumer jobFunction, Collection<Job> dependencies) {
+    // queue the job in the database; this or any other instance runs it when it has a free thread
+    job.setStatus(dependencies.isEmpty() ? "queued" : "waiting");
+    job.setJobType(jobFunction.getClass().getName());
+    job.setPayload(toPayload(jobFunction));
+    jobQueue.enqueue(job, dependencies);
+    pollQueue();
+    return job;
+  }
+
+  /**
+   * Claim queued jobs and hand them to the executor while it has idle threads, after queueing
+   * waiting jobs whose dependencies have finished. The last {@code
+   * app.jobs.queue.interactiveThreads} idle threads are only given to interactive jobs (priority
+   * above 0), so that those start promptly even while bulk jobs are waiting. Runs every {@code
+   * app.jobs.queue.pollIntervalMs} milliseconds, and whenever a job is queued.
+   */
+  @Scheduled(fixedDelayString = "${app.jobs.queue.pollIntervalMs:1000}")
+  public synchronized void pollQueue() {
+    jobQueue.releaseWaitingJobs();
+    int threads = jobExecutor.getMaxPoolSize();
+    int leased;
+    while ((leased = jobQueue.leasedCount()) < threads) {
+      int minPriority = leased < threads - interactiveThreads ? Integer.MIN_VALUE : 1;
+      Optional<Job> claimed = jobQueue.claimNext(minPriority);
+      if (claimed.isEmpty()) return;
+      Job job = claimed.get();
+
+      JobContextConsumer jobFunction;
+      try {
+        jobFunction = loadJob(job.getJobType(), job.getPayload());
+      } catch (Exception e) {
+        job.setStatus("error");
+        JobContext context = newContext(job);
+        context.log("Job could not be loaded: " + e.getMessage());
+        flushOrLog(context);
+        jobQueue.release(job);
+        jobsRepository.save(job);
+        continue;
+      }
+
+      try {
+        self.runJobAsync(job, jobFunction);
+      } catch (TaskRejectedException e) {
+        // leave it for a later poll, or for another instance
+        job.setStatus("queued");
+        job.setLeaseOwner(null);
+        job.setLeaseExpiresAt(null);
+        job.setAttempts(job.getAttempts() - 1);
+        jobQueue.release(job);
+        jobsRepository.save(job);
+        return;
+      }
+    }
+  }
+
+  private String toPayload(JobContextConsumer jobFunction) {
+    try {
+      return mapper.writeValueAsString(jobFunction);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException(
+          "Job %s cannot be stored as JSON".formatted(jobFunction.getClass().getName()), e);
+    }
+  }
+
+  /**
+   * Load a PersistableJob from its class name and its fields as JSON.
+   *
+   * @param jobType name of the PersistableJob class
+   * @param payload the fields of the job as JSON
+   * @return the job
+   * @throws Exception if the class cannot be found, is not a PersistableJob, or cannot be read
+   *     from the payload
+   */
+  public JobContextConsumer loadJob(String jobType, String payload) throws Exception {
+    Class<?> type = Class.forName(jobType);
+    if (!PersistableJob.class.isAssignableFrom(type)) {
+      throw new IllegalArgumentException("%s is not a PersistableJob".formatted(type.getName()));
+    }
+    return (JobContextConsumer) mapper.readValue(payload, type);
+  }
+
+  @Async(JobExecutorConfig.JOB_EXECUTOR)
   public void runJobAsync(Job job, JobContextConsumer jobFunction) {
-    JobContext context = new JobContext(jobsRepository, job);
+    job.setStartedAt(ZonedDateTime.now());
+    long startNanos = System.nanoTime();
+    String type = JobMetrics.jobType(jobFunction);
+    // a retried job has been waiting since its backoff ended
+    ZonedDateTime readyAt = job.getRunAfter() != null ? job.getRunAfter() : job.getCreatedAt();
+    jobMetrics.recordQueueWait(type, readyAt, job.getStartedAt());
+    JobContext context = newContext(job);
+    context.attach();
+    runningJobsRegistry.register(context);
 
     try {
       jobFunction.accept(context);
+      job.setStatus("complete");
     } catch (Exception e) {
-      job.setStatus("error");
-      context.log(e.getMessage());
-      return;
+      if (context.isCancelled()) {
+        job.setStatus(context.getCancelStatus());
+        context.log(context.getCancelReason());
+      } else if (jobFunction instanceof PersistableJob persistable
+          && persistable.retryPolicy().shouldRetry(job.getAttempts(), e)) {
+        retryLater(job, persistable.retryPolicy(), context, e);
+      } else {
+        job.setStatus("error");
+        context.log(e.getMessage());
+      }
+    } finally {
+      context.detach();
+      // write out the remaining log lines before the job stops being registered as running
+      // and before the final status, so that anyone who sees the job as finished also sees
+      // its whole log
+      flushOrLog(context);
+      runningJobsRegistry.unregister(context);
+      jobQueue.release(job);
+      boolean retrying = "queued".equals(job.getStatus());
+      try {
+        // if this fails the row stays "running"; its lease is no longer renewed, so it expires
+        // and the job is recovered like one whose instance stopped
+        jobsRepository.save(job);
+        jobMetrics.recordRun(
+            type,
+            retrying ? "retry" : job.getStatus(),
+            Duration.ofNanos(System.nanoTime() - startNanos));
+      } finally {
+        // a job being retried has not finished: its log goes on with the next attempt
+        if (!retrying) jobLogBroadcaster.complete(job.getId());
+      }
+      if (!retrying) jobLogCompressionService.compress(job.getId());
     }
+  }
 
-    job.setStatus("complete");
-    jobsRepository.save(job);
+  // a failed write of a finishing job's log must not stop the job from being released
+  private void flushOrLog(JobContext context) {
+    try {
+      context.flush();
+    } catch (RuntimeException e) {
+      log.error("Job %s: could not write its last log lines".formatted(context.getJob().getId()), e);
+    }
+  }
+
+  private void retryLater(Job job, RetryPolicy policy, JobContext context, Exception failure) {
+    // queue the job again rather than sleeping, so the thread is free for other jobs meanwhile
+    long backoffMs = policy.backoffMs(job.getAttempts());
+    job.setStatus("queued");
+    job.setRunAfter(ZonedDateTime.now().plus(Duration.ofMillis(backoffMs)));
+    job.setLeaseOwner(null);
+    job.setLeaseExpiresAt(null);
+    context.log(failure.getMessage());
+    context.log(
+        "Attempt %d of %d failed; retrying in %d ms"
+            .formatted(job.getAttempts(), policy.getMaxAttempts(), backoffMs));
+  }
+
+  /**
+   * Cancel a job. A queued job is cancelled straight away; a running job is asked to stop, which it
+   * does at its next call to JobContext.checkCancelled or blocking call, and is then marked
+   * "cancelled".
+   *
+   * @param jobId id of the job
+   * @return true if the job was queued or running, false if it had already finished
+   */
+  public boolean cancelJob(long jobId) {
+    if (jobsRepository.cancelQueued(jobId) == 1) {
+      jobLogLinesRepository.save(
+          JobLogLine.builder()
+              .jobId(jobId)
+              .lineNumber(jobLogLinesRepository.countByJobId(jobId))
+              .message("Job cancelled before it started")
+              .build());
+      jobLogBroadcaster.complete(jobId);
+      return true;
+    }
+    if (jobsRepository.requestCancel(jobId) == 0) return false;
+    // a job running on another instance is stopped by that instance's RunningJobsRegistry
+    runningJobsRegistry.get(jobId).ifPresent(context -> context.cancel("cancelled", "Job cancelled"));
+    return true;
+  }
+
+  private JobContext newContext(Job job) {
+    // a job from the queue may have log lines from an earlier attempt, or from being re-queued
+    long firstLineNumber =
+        job.getJobType() != null ? jobLogLinesRepository.countByJobId(job.getId()) : 0;
+    return JobContext.builder()
+        .jobsRepository(jobsRepository)
+        .jobLogLinesRepository(jobLogLinesRepository)
+        .jobLogBroadcaster(jobLogBroadcaster)
+        .job(job)
+        .flushSize(logFlushSize)
+        .firstLineNumber(firstLineNumber)
+        .progressIntervalMs(progressIntervalMs)
+        .jobService(this)
+        .build();
+  }
+
+  /**
+   * Get a snapshot of the executor that runs jobs.
+   *
+   * @return the executor's size, load and counters
+   */
+  public JobExecutorStats getExecutorStats() {
+    ThreadPoolExecutor executor = jobExecutor.getThreadPoolExecutor();
+    return JobExecutorStats.builder()
+        .virtualThreads("virtual".equals(executorThreads))
+        .poolSize(jobExecutor.getMaxPoolSize())
+        .activeJobs(executor.getActiveCount())
+        .queuedJobs(executor.getQueue().size())
+        .queueCapacity(jobExecutor.getQueueCapacity())
+        .completedJobs(executor.getCompletedTaskCount())
+        .rejectedJobs(rejectedJobs.get())
+        .build();
   }
 
   public String getJobLogs(Long jobId) {
+    return getJobLogs(jobId, 0, null);
+  }
+
+  /**
+   * Get a window of a job's log, reading only the requested lines from storage.
+   *
+   * @param jobId id of the job
+   * @param offset number of the first line to return, starting at 0
+   * @param limit maximum number of lines to return, or null for all remaining lines
+   * @return the lines, separated by newlines
+   */
+  public String getJobLogs(Long jobId, long offset, Integer limit) {
+    Job job = findJobForLogs(jobId);
+    long first = Math.max(offset, 0);
+
+    if (job.getLog() != null) {
+      Stream<String> lines = legacyLogLines(job).skip(first);
+      if (limit != null) lines = lines.limit(Math.max(limit, 0));
+      return lines.collect(Collectors.joining("\n"));
+    }
+
+    Limit max = limit == null ? Limit.unlimited() : Limit.of(Math.max(limit, 0));
+    List<JobLogLine> lines =
+        jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, first, max);
+    if (lines.isEmpty()) {
+      Optional<Stream<String>> compressed = jobLogCompressionService.findLines(jobId);
+      if (compressed.isPresent()) {
+        Stream<String> window = compressed.get().skip(first);
+        if (limit != null) window = window.limit(Math.max(limit, 0));
+        return window.collect(Collectors.joining("\n"));
+      }
+    }
+    return joinLines(lines);
+  }
+
+  /**
+   * Get the last lines of a job's log, reading only those lines from storage.
+   *
+   * @param jobId id of the job
+   * @param lines number of lines to return
+   * @return the last lines of the log, oldest first, separated by newlines
+   */
+  public String getJobLogTail(Long jobId, int lines) {
+    Job job = findJobForLogs(jobId);
+    int count = Math.max(lines, 0);
+
+    if (job.getLog() != null) {
+      return lastLines(legacyLogLines(job), count);
+    }
+
+    List<JobLogLine> newestFirst =
+        jobLogLinesRepository.findAllByJobIdOrderByLineNumberDesc(jobId, Limit.of(count));
+    if (newestFirst.isEmpty()) {
+      Optional<Stream<String>> compressed = jobLogCompressionService.findLines(jobId);
+      if (compressed.isPresent()) return lastLines(compressed.get(), count);
+    }
+    return joinLines(newestFirst.reversed());
+  }
+
+  private String lastLines(Stream<String> lines, int count) {
+    Deque<String> last = new ArrayDeque<>();
+    lines.forEach(
+        line -> {
+          last.addLast(line);
+          if (last.size() > count) last.removeFirst();
+        });
+    return String.join("\n", last);
+  }
+
+  private Job findJobForLogs(Long jobId) {
     Job job =
         jobsRepository
             .findById(jobId)
             .orElseThrow(() -> new IllegalArgumentException("Job not found"));
 
-    String log = job.getLog();
-    return log != null ? log : "";
+    // make lines still buffered by a running job visible to the read
+    runningJobsRegistry.get(jobId).ifPresent(JobContext::flush);
+    return job;
+  }
+
+  // jobs written before log lines were stored separately keep their whole log on the job row.
+  // The log of a finished job may instead have been compressed; that replaces its lines in one
+  // transaction, so the compressed log is only looked for once no lines are found.
+  private Stream<String> legacyLogLines(Job job) {
+    return job.getLog().lines();
+  }
+
+  private String joinLines(List<JobLogLine> lines) {
+    return lines.stream().map(JobLogLine::getMessage).collect(Collectors.joining("\n"));
+  }
+
+  /**
+   * Stream the log of a job as Server-Sent Events, one event per line with the line number as the
+   * event id. Lines already logged from {@code fromLine} onwards are sent first, followed by new
+   * lines as the job logs them; the stream ends when the job finishes.
+   *
+   * @param jobId id of the job
+   * @param fromLine number of the first line to send, e.g. one more than the client's Last-Event-ID
+   * @return the emitter for the stream
+   */
+  public SseEmitter streamJobLogs(Long jobId, long fromLine) {
+    if (!jobsRepository.existsById(jobId)) {
+      throw new IllegalArgumentException("Job not found");
+    }
+
+    SseEmitter emitter = new SseEmitter(logStreamTimeoutMs);
+    JobLogBroadcaster.Subscriber subscriber = jobLogBroadcaster.subscribe(jobId, fromLine, emitter);
+
+    // subscribing before flushing and before reading the status means every line is either
+    // already stored or will be published to the subscriber, and that a job that finishes
+    // from here on will complete the subscription itself
+    runningJobsRegistry.get(jobId).ifPresent(JobContext::flush);
+    boolean finished =
+        jobsRepository
+            .findById(jobId)
+            .map(job -> !UNFINISHED.contains(job.getStatus()))
+            .orElse(true);
+    Iterable<JobLogLine> history =
+        jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, fromLine);
+    if (finished && !history.iterator().hasNext()) {
+      Optional<Stream<String>> compressed = jobLogCompressionService.findLines(jobId);
+      if (compressed.isPresent()) history = numberLines(jobId, compressed.get(), fromLine);
+    }
+    subscriber.replay(history);
+    if (finished) subscriber.complete();
+
+    return emitter;
+  }
+
+  /**
+   * Send the new log lines of jobs that are streamed from this instance but run in another one, or
+   * have not started, reading them from the database, and end those streams when their jobs
+   * finish. The lines of jobs running here are sent as they are logged instead. Runs every {@code
+   * app.jobs.logStreamPollMs} milliseconds; the lines of a job in another instance arrive once that
+   * instance flushes them, i.e. within about {@code app.jobs.logFlushIntervalMs} more.
+   */
+  @Scheduled(fixedDelayString = "${app.jobs.logStreamPollMs:1000}")
+  public void tailRemoteLogStreams() {
+    for (Map.Entry<Long, Long> stream : jobLogBroadcaster.streamedJobs().entrySet()) {
+      long jobId = stream.getKey();
+      if (runningJobsRegistry.get(jobId).isPresent()) continue;
+
+      // read the status before the lines: a job's last lines are stored before its final status
+      boolean finished =
+          jobsRepository
+              .findById(jobId)
+              .map(job -> !UNFINISHED.contains(job.getStatus()))
+              .orElse(true);
+      List<JobLogLine> lines =
+          jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+              jobId, stream.getValue(), Limit.of(logStreamBufferLines));
+      lines.forEach(jobLogBroadcaster::publish);
+      // a long log is sent over several runs; the stream ends after its last lines
+      if (finished && lines.size() < logStreamBufferLines) jobLogBroadcaster.complete(jobId);
+    }
+  }
+
+  private List<JobLogLine> numberLines(Long jobId, Stream<String> lines, long fromLine) {
+    AtomicLong lineNumber = new AtomicLong();
+    return lines
+        .map(
+            message ->
+                JobLogLine.builder()
+                    .jobId(jobId)
+                    .lineNumber(lineNumber.getAndIncrement())
+                    .message(message)
+                    .build())
+        .filter(line -> line.getLineNumber() >= fromLine)
+        .toList();
   }
 }
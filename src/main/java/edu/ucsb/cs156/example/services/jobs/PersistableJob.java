@@ -0,0 +1,19 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+/**
+ * A JobContextConsumer whose fields can be stored as JSON, so that JobService can queue it in the
+ * database and any instance of the application can run it, including after a restart.
+ *
+ * Implementations must be serializable and deserializable with Jackson; see TestJob for an example.
+ */
+public interface PersistableJob extends JobContextConsumer {
+  /**
+   * How to retry the job when it fails. Override this for jobs that can fail for reasons that
+   * pass, e.g. a network call that times out.
+   *
+   * @return the retry policy; by default the job is not retried
+   */
+  default RetryPolicy retryPolicy() {
+    return RetryPolicy.NONE;
+  }
+}
@@ -0,0 +1,51 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+/**
+ * How a PersistableJob is retried when it fails. A failed attempt is queued again to run after a
+ * backoff that starts at {@code initialBackoffMs} and grows by {@code multiplier} after each
+ * attempt, up to {@code maxBackoffMs}, until the job has been run {@code maxAttempts} times.
+ *
+ * Only failures that are, or are caused by, one of {@code retryOn} are retried; if {@code retryOn}
+ * is empty, any failure is.
+ */
+@Value
+@Builder
+public class RetryPolicy {
+  /** Run the job once, and do not retry it. */
+  public static final RetryPolicy NONE = RetryPolicy.builder().maxAttempts(1).build();
+
+  @Builder.Default int maxAttempts = 3;
+  @Builder.Default long initialBackoffMs = 1000;
+  @Builder.Default double multiplier = 2.0;
+  @Builder.Default long maxBackoffMs = 300000;
+  @Singular("retryOn") List<Class<? extends Exception>> retryOn;
+
+  /**
+   * @param attempts the number of times the job has been run, including the one that failed
+   * @param failure why the last attempt failed
+   * @return whether to run the job again
+   */
+  public boolean shouldRetry(int attempts, Exception failure) {
+    if (attempts >= maxAttempts) return false;
+    if (retryOn.isEmpty()) return true;
+    for (Throwable t = failure; t != null; t = t.getCause()) {
+      Throwable cause = t;
+      if (retryOn.stream().anyMatch(type -> type.isInstance(cause))) return true;
+    }
+    return false;
+  }
+
+  /**
+   * @param attempts the number of times the job has been run, including the one that failed
+   * @return how long to wait before running the job again
+   */
+  public long backoffMs(int attempts) {
+    double backoff = initialBackoffMs * Math.pow(multiplier, Math.max(attempts - 1, 0));
+    return (long) Math.min(backoff, maxBackoffMs);
+  }
+}
@@ -0,0 +1,99 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * This component keeps track of the JobContext of every job that is currently running in this
+ * instance. It periodically flushes their buffered log lines to the database, and stops those that
+ * have timed out or that have been cancelled through any instance.
+ */
+@Slf4j
+@Component
+public class RunningJobsRegistry {
+  @Autowired private JobsRepository jobsRepository;
+
+  private final Map<Long, JobContext> running = new ConcurrentHashMap<>();
+
+  /**
+   * Start tracking a running job.
+   *
+   * @param context the context of the job
+   */
+  public void register(JobContext context) {
+    running.put(context.getJob().getId(), context);
+  }
+
+  /**
+   * Stop tracking a job, typically because it has finished.
+   *
+   * @param context the context of the job
+   */
+  public void unregister(JobContext context) {
+    running.remove(context.getJob().getId(), context);
+  }
+
+  /**
+   * Look up the context of a job that is running in this instance.
+   *
+   * @param jobId id of the job
+   * @return the context, or empty if the job is not running here
+   */
+  public Optional<JobContext> get(long jobId) {
+    return Optional.ofNullable(running.get(jobId));
+  }
+
+  /**
+   * Flush the buffered log lines of every running job. Runs every {@code
+   * app.jobs.logFlushIntervalMs} milliseconds.
+   */
+  @Scheduled(fixedDelayString = "${app.jobs.logFlushIntervalMs:1000}")
+  public void flushLogs() {
+    running
+        .values()
+        .forEach(
+            context -> {
+              try {
+                context.flush();
+              } catch (Exception e) {
+                log.warn("Could not flush log of job {}: {}", context.getJob().getId(), e.getMessage());
+              }
+            });
+  }
+
+  /**
+   * Stop the running jobs that have been asked to cancel, and those that have run for longer than
+   * their timeout. Runs every {@code app.jobs.cancelCheckIntervalMs} milliseconds.
+   */
+  @Scheduled(fixedDelayString = "${app.jobs.cancelCheckIntervalMs:2000}")
+  public void stopCancelledJobs() {
+    if (running.isEmpty()) return;
+
+    jobsRepository
+        .findCancelRequested(new ArrayList<>(running.keySet()))
+        .forEach(id -> get(id).ifPresent(context -> context.cancel("cancelled", "Job cancelled")));
+
+    ZonedDateTime now = ZonedDateTime.now();
+    running
+        .values()
+        .forEach(
+            context -> {
+              Job job = context.getJob();
+              if (job.getTimeoutMs() == null || job.getStartedAt() == null) return;
+              if (job.getStartedAt().plus(Duration.ofMillis(job.getTimeoutMs())).isBefore(now)) {
+                context.cancel(
+                    "timeout", "Job timed out after %d ms".formatted(job.getTimeoutMs()));
+              }
+            });
+  }
+}
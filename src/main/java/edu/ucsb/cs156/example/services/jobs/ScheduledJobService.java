@@ -0,0 +1,96 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.ScheduledJobDefinition;
+import edu.ucsb.cs156.example.repositories.ScheduledJobDefinitionsRepository;
+import java.time.ZonedDateTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * This service runs jobs on the schedules stored in scheduled_job_definitions.
+ *
+ * Every instance checks for due schedules, but each firing is claimed with a conditional update
+ * of the schedule's row, so only one instance queues the job. The claim and the queued job are
+ * saved in one transaction, so a firing whose job cannot be queued is retried on the next check.
+ * A schedule that was due several
+ * times while no instance was running fires once, and then carries on from the current time.
+ */
+@Slf4j
+@Service
+public class ScheduledJobService {
+  @Autowired private ScheduledJobDefinitionsRepository scheduledJobDefinitionsRepository;
+
+  @Autowired private JobService jobService;
+
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  /**
+   * Check and save a schedule, working out when it next fires.
+   *
+   * @param definition the new or changed schedule
+   * @return the saved schedule
+   * @throws IllegalArgumentException if the cron expression is not valid, or the job cannot be
+   *     loaded from its type and payload
+   */
+  public ScheduledJobDefinition save(ScheduledJobDefinition definition) {
+    CronExpression cron = CronExpression.parse(definition.getCron());
+    try {
+      jobService.loadJob(definition.getJobType(), definition.getPayload());
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Job could not be loaded: " + e.getMessage(), e);
+    }
+    definition.setNextRunAt(definition.getEnabled() ? cron.next(ZonedDateTime.now()) : null);
+    return scheduledJobDefinitionsRepository.save(definition);
+  }
+
+  /**
+   * Queue a job for each schedule that is due. Runs every {@code
+   * app.jobs.schedules.pollIntervalMs} milliseconds, so a job may be queued up to that long after
+   * its schedule fires.
+   */
+  @Scheduled(fixedDelayString = "${app.jobs.schedules.pollIntervalMs:10000}")
+  public void fireDueSchedules() {
+    ZonedDateTime now = ZonedDateTime.now();
+    boolean queued = false;
+    for (ScheduledJobDefinition definition : scheduledJobDefinitionsRepository.findDue(now)) {
+      Job job;
+      try {
+        job = transactionTemplate.execute(status -> fire(definition, now));
+      } catch (RuntimeException e) {
+        log.error(
+            "Schedule {} ({}) could not queue its job",
+            definition.getId(),
+            definition.getName(),
+            e);
+        continue;
+      }
+      if (job == null) {
+        continue; // fired by another instance, or changed meanwhile
+      }
+      queued = true;
+      log.info(
+          "Schedule {} ({}) queued job {}", definition.getId(), definition.getName(), job.getId());
+    }
+    if (queued) {
+      // only now are the jobs committed, so they can be claimed
+      jobService.pollQueue();
+    }
+  }
+
+  private Job fire(ScheduledJobDefinition definition, ZonedDateTime now) {
+    ZonedDateTime next = CronExpression.parse(definition.getCron()).next(now);
+    if (scheduledJobDefinitionsRepository.claimRun(
+            definition.getId(), definition.getNextRunAt(), next, now)
+        == 0) {
+      return null;
+    }
+    Job job = jobService.runScheduledJob(definition);
+    scheduledJobDefinitionsRepository.recordLastJob(definition.getId(), job.getId());
+    return job;
+  }
+}
@@ -3,12 +3,20 @@ package edu.ucsb.cs156.example;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import edu.ucsb.cs156.example.repositories.FilteredPagesRepository;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
 import edu.ucsb.cs156.example.services.wiremock.WiremockService;
@@ -18,6 +26,13 @@ import org.springframework.test.web.servlet.MvcResult;
 import java.io.UnsupportedEncodingException;
 import java.util.Map;
 
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
 @ActiveProfiles("test")
 @Import(TestConfig.class)
 public abstract class ControllerTestCase {
@@ -40,4 +55,26 @@ public abstract class ControllerTestCase {
     String responseString = result.getResponse().getContentAsString();
     return mapper.readValue(responseString, Map.class);
   }
+
+  /**
+   * Checks that a list endpoint asked the repository for one page filtered by a single field.
+   * @param repository the mocked repository
+   * @param pageable the page it should have asked for
+   * @param field the field it should have filtered by
+   * @param value the value the field should equal
+   */
+  @SuppressWarnings("unchecked")
+  protected <T> void assertPageFilteredBy(FilteredPagesRepository<T> repository, Pageable pageable, String field, Object value) {
+    ArgumentCaptor<Specification<T>> specification = ArgumentCaptor.forClass(Specification.class);
+    verify(repository, times(1)).findAll(specification.capture(), eq(pageable));
+
+    Root<T> root = mock(Root.class);
+    CriteriaBuilder cb = mock(CriteriaBuilder.class);
+    Path<Object> path = mock(Path.class);
+    when(root.get(field)).thenReturn(path);
+    specification.getValue().toPredicate(root, mock(CriteriaQuery.class), cb);
+
+    verify(cb).equal(path, value);
+    verifyNoMoreInteractions(cb);
+  }
 }
@@ -0,0 +1,107 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+
+public class CookieOAuth2AuthorizationRequestRepositoryTests {
+
+  private final SignedCookieCodec codec = new SignedCookieCodec("0123456789abcdef0123456789abcdef");
+
+  private final Instant now = Instant.parse("2025-05-01T12:00:00Z");
+
+  private final OAuth2AuthorizationRequest authorizationRequest =
+      OAuth2AuthorizationRequest.authorizationCode()
+          .authorizationUri("https://accounts.example.org/o/oauth2/auth")
+          .clientId("client")
+          .redirectUri("http://localhost:8080/login/oauth2/code/google")
+          .scopes(Set.of("openid", "email"))
+          .state("state-1")
+          .additionalParameters(Map.of("nonce", "hashed"))
+          .attributes(Map.of("registration_id", "google", "nonce", "raw"))
+          .authorizationRequestUri("https://accounts.example.org/o/oauth2/auth?state=state-1")
+          .build();
+
+  private CookieOAuth2AuthorizationRequestRepository repository(Instant at) {
+    return new CookieOAuth2AuthorizationRequestRepository(codec, Clock.fixed(at, ZoneOffset.UTC));
+  }
+
+  private MockHttpServletRequest savedRequest() {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    repository(now)
+        .saveAuthorizationRequest(authorizationRequest, new MockHttpServletRequest(), response);
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setCookies(response.getCookie(CookieOAuth2AuthorizationRequestRepository.COOKIE_NAME));
+    return request;
+  }
+
+  @Test
+  public void loads_saved_request() {
+    // act
+    OAuth2AuthorizationRequest loaded =
+        repository(now.plusSeconds(30)).loadAuthorizationRequest(savedRequest());
+
+    // assert
+    assertEquals(authorizationRequest.getAuthorizationUri(), loaded.getAuthorizationUri());
+    assertEquals(authorizationRequest.getClientId(), loaded.getClientId());
+    assertEquals(authorizationRequest.getRedirectUri(), loaded.getRedirectUri());
+    assertEquals(authorizationRequest.getScopes(), loaded.getScopes());
+    assertEquals(authorizationRequest.getState(), loaded.getState());
+    assertEquals(authorizationRequest.getAdditionalParameters(), loaded.getAdditionalParameters());
+    assertEquals(authorizationRequest.getAttributes(), loaded.getAttributes());
+    assertEquals(
+        authorizationRequest.getAuthorizationRequestUri(), loaded.getAuthorizationRequestUri());
+  }
+
+  @Test
+  public void ignores_missing_or_expired_request() {
+    // act and assert
+    assertNull(repository(now).loadAuthorizationRequest(new MockHttpServletRequest()));
+    assertNull(
+        repository(now.plus(Duration.ofMinutes(5))).loadAuthorizationRequest(savedRequest()));
+  }
+
+  @Test
+  public void saving_null_drops_the_cookie() {
+    // arrange
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // act
+    repository(now).saveAuthorizationRequest(null, new MockHttpServletRequest(), response);
+
+    // assert
+    assertEquals(
+        0, response.getCookie(CookieOAuth2AuthorizationRequestRepository.COOKIE_NAME).getMaxAge());
+  }
+
+  @Test
+  public void remove_returns_request_and_drops_the_cookie() {
+    // arrange
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockHttpServletResponse nothingSaved = new MockHttpServletResponse();
+
+    // act
+    OAuth2AuthorizationRequest removed =
+        repository(now).removeAuthorizationRequest(savedRequest(), response);
+    OAuth2AuthorizationRequest none =
+        repository(now).removeAuthorizationRequest(new MockHttpServletRequest(), nothingSaved);
+
+    // assert
+    assertEquals("state-1", removed.getState());
+    assertEquals(
+        0, response.getCookie(CookieOAuth2AuthorizationRequestRepository.COOKIE_NAME).getMaxAge());
+    assertNull(none);
+    assertEquals(List.of(), nothingSaved.getHeaders("Set-Cookie"));
+  }
+}
@@ -0,0 +1,82 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.web.csrf.DeferredCsrfToken;
+
+public class CsrfCookieFilterTests {
+
+  private final CsrfCookieFilter filter = new CsrfCookieFilter();
+
+  private final DeferredCsrfToken deferredCsrfToken = mock(DeferredCsrfToken.class);
+
+  private MockHttpServletRequest request(String uri) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+    request.setAttribute(DeferredCsrfToken.class.getName(), deferredCsrfToken);
+    return request;
+  }
+
+  @Test
+  public void loads_token_for_page_without_cookie() throws Exception {
+    // arrange
+    MockHttpServletRequest request = request("/restaurants/create");
+    request.setCookies(new Cookie(CsrfCookieFilter.COOKIE_NAME, ""));
+    MockFilterChain chain = new MockFilterChain();
+
+    // act
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+    // assert
+    verify(deferredCsrfToken, times(1)).get();
+    assertSame(request, chain.getRequest());
+  }
+
+  @Test
+  public void skips_request_that_already_sends_the_cookie() throws Exception {
+    // arrange
+    MockHttpServletRequest request = request("/api/currentUser");
+    request.setCookies(new Cookie(CsrfCookieFilter.COOKIE_NAME, "token"));
+    MockFilterChain chain = new MockFilterChain();
+
+    // act
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+    // assert
+    verify(deferredCsrfToken, never()).get();
+    assertSame(request, chain.getRequest());
+  }
+
+  @Test
+  public void skips_static_files() throws Exception {
+    // arrange
+    MockHttpServletRequest request = request("/static/js/main.3f2a.js");
+
+    // act
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+    // assert
+    verify(deferredCsrfToken, never()).get();
+  }
+
+  @Test
+  public void continues_when_csrf_protection_did_not_run() throws Exception {
+    // arrange
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+    MockFilterChain chain = new MockFilterChain();
+
+    // act
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+    // assert
+    assertSame(request, chain.getRequest());
+  }
+}
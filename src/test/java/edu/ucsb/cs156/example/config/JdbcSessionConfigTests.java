@@ -0,0 +1,70 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.session.JdbcSessionDataSourceScriptDatabaseInitializer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+public class JdbcSessionConfigTests {
+
+  private final EmbeddedDatabase dataSource =
+      new EmbeddedDatabaseBuilder().generateUniqueName(true).setType(EmbeddedDatabaseType.H2).build();
+
+  private final JdbcSessionConfig config = new JdbcSessionConfig();
+
+  @AfterEach
+  public void teardown() {
+    dataSource.shutdown();
+  }
+
+  @Test
+  public void schema_initializer_creates_missing_tables() {
+    // arrange
+    JdbcSessionDataSourceScriptDatabaseInitializer initializer =
+        config.jdbcSessionSchemaInitializer(dataSource);
+
+    // act
+    boolean initialized = initializer.initializeDatabase();
+
+    // assert
+    assertTrue(initialized);
+    assertTrue(JdbcSessionConfig.sessionTablesExist(dataSource));
+  }
+
+  @Test
+  public void schema_initializer_leaves_existing_tables_alone() {
+    // arrange
+    config.jdbcSessionSchemaInitializer(dataSource).initializeDatabase();
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.update(
+        "insert into SPRING_SESSION (PRIMARY_ID, SESSION_ID, CREATION_TIME, LAST_ACCESS_TIME,"
+            + " MAX_INACTIVE_INTERVAL, EXPIRY_TIME) values ('p', 's', 0, 0, 1800, 0)");
+
+    // act
+    boolean initialized = config.jdbcSessionSchemaInitializer(dataSource).initializeDatabase();
+
+    // assert
+    assertFalse(initialized);
+    assertEquals(1L, jdbcTemplate.queryForObject("select count(*) from SPRING_SESSION", Long.class));
+  }
+
+  @Test
+  public void schema_initializer_fails_when_tables_cannot_be_created() {
+    // arrange: a table that clashes with the schema, which creates SPRING_SESSION_ATTRIBUTES second
+    new JdbcTemplate(dataSource).execute("create table SPRING_SESSION_ATTRIBUTES (ID int)");
+    JdbcSessionDataSourceScriptDatabaseInitializer initializer =
+        config.jdbcSessionSchemaInitializer(dataSource);
+
+    // act and assert
+    assertThrows(DataAccessException.class, initializer::initializeDatabase);
+  }
+}
@@ -0,0 +1,82 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.servlet.http.Cookie;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class SignedCookieCodecTests {
+
+  private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+  record Value(String name, List<String> roles) {}
+
+  private final SignedCookieCodec codec = new SignedCookieCodec(SECRET);
+
+  private final Value value = new Value("user@example.org", List.of("ROLE_USER"));
+
+  @Test
+  public void rejects_short_secret() {
+    // act
+    IllegalStateException thrown =
+        assertThrows(IllegalStateException.class, () -> new SignedCookieCodec("short"));
+    assertThrows(IllegalStateException.class, () -> new SignedCookieCodec(null));
+
+    // assert
+    assertTrue(thrown.getMessage().startsWith("app.auth.stateless.secret must be"));
+  }
+
+  @Test
+  public void decodes_what_it_encodes() {
+    // act
+    String signed = codec.encode(value);
+
+    // assert
+    assertEquals(Optional.of(value), codec.decode(signed, Value.class));
+  }
+
+  @Test
+  public void rejects_values_that_are_missing_malformed_or_tampered_with() {
+    // arrange
+    String signed = codec.encode(value);
+    String otherPayload = codec.encode(new Value("admin@example.org", List.of("ROLE_ADMIN")));
+    String forged = otherPayload.substring(0, otherPayload.indexOf('.')) + signed.substring(signed.indexOf('.'));
+    String otherSecret = new SignedCookieCodec(SECRET.toUpperCase()).encode(value);
+
+    // act and assert
+    assertEquals(Optional.empty(), codec.decode(null, Value.class));
+    assertEquals(Optional.empty(), codec.decode("nodot", Value.class));
+    assertEquals(Optional.empty(), codec.decode(signed + "!", Value.class));
+    assertEquals(Optional.empty(), codec.decode(forged, Value.class));
+    assertEquals(Optional.empty(), codec.decode(otherSecret, Value.class));
+    assertEquals(Optional.empty(), codec.decode(signed, Integer.class));
+  }
+
+  @Test
+  public void writes_reads_and_deletes_cookies() {
+    // arrange
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // act
+    codec.write(request, response, "TEST", value, Duration.ofMinutes(1));
+    codec.delete(request, response, "TEST");
+
+    // assert
+    List<String> headers = response.getHeaders("Set-Cookie");
+    assertTrue(headers.get(0).contains("; Path=/; Max-Age=60;"));
+    assertTrue(headers.get(0).endsWith("; HttpOnly; SameSite=Lax"));
+    assertTrue(headers.get(1).startsWith("TEST=; Path=/; Max-Age=0;"));
+    String cookieValue = headers.get(0).substring("TEST=".length(), headers.get(0).indexOf(';'));
+    request.setCookies(new Cookie("TEST", cookieValue));
+    assertEquals(Optional.of(value), codec.read(request, "TEST", Value.class));
+    assertEquals(Optional.empty(), codec.read(new MockHttpServletRequest(), "TEST", Value.class));
+  }
+}
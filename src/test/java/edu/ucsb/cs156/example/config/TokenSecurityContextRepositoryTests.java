@@ -0,0 +1,246 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.config.TokenSecurityContextRepository.AuthToken;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.services.AdminDirectory;
+import jakarta.servlet.http.Cookie;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+
+public class TokenSecurityContextRepositoryTests {
+
+  private final SignedCookieCodec codec = new SignedCookieCodec("0123456789abcdef0123456789abcdef");
+
+  private final Instant now = Instant.parse("2025-05-01T12:00:00Z");
+
+  private final User user =
+      User.builder().id(7L).email("user@example.org").googleSub("1234").fullName("Fake User").build();
+
+  private final AdminDirectory adminDirectory = mock(AdminDirectory.class);
+
+  private TokenSecurityContextRepository repository(Instant at) {
+    return new TokenSecurityContextRepository(
+        codec,
+        Duration.ofMinutes(10),
+        Duration.ofMinutes(30),
+        adminDirectory,
+        Clock.fixed(at, ZoneOffset.UTC));
+  }
+
+  private AuthToken renewed(MockHttpServletResponse response) {
+    Cookie cookie = response.getCookie(TokenSecurityContextRepository.COOKIE_NAME);
+    return codec.decode(cookie.getValue(), AuthToken.class).orElseThrow();
+  }
+
+  private OAuth2AuthenticationToken login() {
+    return loginAs("ROLE_USER", "ROLE_ADMIN");
+  }
+
+  private OAuth2AuthenticationToken loginAs(String... roles) {
+    var authorities = AuthorityUtils.createAuthorityList(roles);
+    DefaultOAuth2User principal =
+        new DefaultOAuth2User(authorities, Map.of("email", "user@example.org"), "email");
+    return new OAuth2AuthenticationToken(principal, authorities, "google");
+  }
+
+  private MockHttpServletRequest requestWith(MockHttpServletResponse issued) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setCookies(issued.getCookie(TokenSecurityContextRepository.COOKIE_NAME));
+    return request;
+  }
+
+  private MockHttpServletResponse issued() {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    repository(now).issue(new MockHttpServletRequest(), response, user, login());
+    return response;
+  }
+
+  @SuppressWarnings("deprecation")
+  private SecurityContext load(TokenSecurityContextRepository repository, MockHttpServletRequest request) {
+    return repository.loadContext(new HttpRequestResponseHolder(request, new MockHttpServletResponse()));
+  }
+
+  @Test
+  public void loads_authentication_from_issued_token() {
+    // arrange
+    MockHttpServletRequest request = requestWith(issued());
+
+    // act
+    SecurityContext context = load(repository(now.plusSeconds(60)), request);
+
+    // assert
+    OAuth2AuthenticationToken authentication = (OAuth2AuthenticationToken) context.getAuthentication();
+    assertEquals("google", authentication.getAuthorizedClientRegistrationId());
+    assertEquals(
+        List.of("ROLE_ADMIN", "ROLE_USER"),
+        authentication.getAuthorities().stream().map(Object::toString).toList());
+    assertEquals(
+        Map.of("user_id", 7L, "email", "user@example.org", "sub", "1234", "name", "Fake User"),
+        authentication.getPrincipal().getAttributes());
+    assertEquals("user@example.org", authentication.getName());
+    assertTrue(repository(now).containsContext(request));
+  }
+
+  @Test
+  public void leaves_out_missing_sub_and_name() {
+    // act
+    OAuth2AuthenticationToken authentication =
+        TokenSecurityContextRepository.toAuthentication(
+            new AuthToken(7L, "user@example.org", null, null, "google", List.of("ROLE_USER"), 0, 0, 1));
+
+    // assert
+    assertEquals(
+        Map.of("user_id", 7L, "email", "user@example.org"),
+        authentication.getPrincipal().getAttributes());
+  }
+
+  @Test
+  public void ignores_missing_or_expired_token() {
+    // arrange
+    MockHttpServletRequest request = requestWith(issued());
+
+    // act and assert
+    assertNull(load(repository(now), new MockHttpServletRequest()));
+    assertNull(load(repository(now.plus(Duration.ofMinutes(10))), request));
+    assertFalse(repository(now.plus(Duration.ofMinutes(10))).containsContext(request));
+  }
+
+  @Test
+  public void saveContext_only_drops_the_cookie_on_logout() {
+    // arrange
+    MockHttpServletRequest request = requestWith(issued());
+    SecurityContext loggedIn = SecurityContextHolder.createEmptyContext();
+    loggedIn.setAuthentication(login());
+    MockHttpServletResponse loginResponse = new MockHttpServletResponse();
+    MockHttpServletResponse logoutResponse = new MockHttpServletResponse();
+    MockHttpServletResponse anonymousResponse = new MockHttpServletResponse();
+
+    // act
+    repository(now).saveContext(loggedIn, request, loginResponse);
+    repository(now).saveContext(SecurityContextHolder.createEmptyContext(), request, logoutResponse);
+    repository(now)
+        .saveContext(
+            SecurityContextHolder.createEmptyContext(),
+            new MockHttpServletRequest(),
+            anonymousResponse);
+
+    // assert
+    assertEquals(List.of(), loginResponse.getHeaders("Set-Cookie"));
+    assertEquals(0, logoutResponse.getCookie(TokenSecurityContextRepository.COOKIE_NAME).getMaxAge());
+    assertEquals(List.of(), anonymousResponse.getHeaders("Set-Cookie"));
+  }
+
+  @Test
+  public void renewalFilter_reissues_token_past_half_its_lifetime() throws Exception {
+    // arrange
+    when(adminDirectory.isAdmin("user@example.org")).thenReturn(true);
+    MockHttpServletRequest request = requestWith(issued());
+    MockHttpServletResponse fresh = new MockHttpServletResponse();
+    MockHttpServletResponse old = new MockHttpServletResponse();
+    MockHttpServletResponse anonymous = new MockHttpServletResponse();
+
+    // act
+    repository(now.plus(Duration.ofMinutes(4))).renewalFilter().doFilter(request, fresh, new MockFilterChain());
+    repository(now.plus(Duration.ofMinutes(6))).renewalFilter().doFilter(request, old, new MockFilterChain());
+    repository(now)
+        .renewalFilter()
+        .doFilter(new MockHttpServletRequest(), anonymous, new MockFilterChain());
+
+    // assert
+    assertEquals(List.of(), fresh.getHeaders("Set-Cookie"));
+    assertEquals(List.of(), anonymous.getHeaders("Set-Cookie"));
+    AuthToken token = renewed(old);
+    assertEquals(now.toEpochMilli(), token.authenticatedAt());
+    assertEquals(now.plus(Duration.ofMinutes(6)).toEpochMilli(), token.issuedAt());
+    assertEquals(now.plus(Duration.ofMinutes(16)).toEpochMilli(), token.expiresAt());
+    assertEquals(600, old.getCookie(TokenSecurityContextRepository.COOKIE_NAME).getMaxAge());
+    assertEquals(7L, token.userId());
+    assertEquals(List.of("ROLE_ADMIN", "ROLE_USER"), token.roles());
+  }
+
+  @Test
+  public void renewalFilter_drops_admin_role_of_user_who_is_no_longer_an_admin() throws Exception {
+    // arrange
+    when(adminDirectory.isAdmin("user@example.org")).thenReturn(false);
+    MockHttpServletRequest request = requestWith(issued());
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // act
+    repository(now.plus(Duration.ofMinutes(6))).renewalFilter().doFilter(request, response, new MockFilterChain());
+
+    // assert
+    assertEquals(List.of("ROLE_USER"), renewed(response).roles());
+    SecurityContext context = load(repository(now.plus(Duration.ofMinutes(7))), requestWith(response));
+    assertEquals(
+        List.of("ROLE_USER"),
+        context.getAuthentication().getAuthorities().stream().map(Object::toString).toList());
+  }
+
+  @Test
+  public void renewalFilter_adds_admin_role_of_user_who_has_become_an_admin() throws Exception {
+    // arrange
+    when(adminDirectory.isAdmin("user@example.org")).thenReturn(true);
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    MockHttpServletResponse issued = new MockHttpServletResponse();
+    repository(now).issue(request, issued, user, loginAs("ROLE_USER", "ROLE_MEMBER"));
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    // act
+    repository(now.plus(Duration.ofMinutes(6)))
+        .renewalFilter()
+        .doFilter(requestWith(issued), response, new MockFilterChain());
+
+    // assert
+    assertEquals(List.of("ROLE_ADMIN", "ROLE_MEMBER", "ROLE_USER"), renewed(response).roles());
+  }
+
+  @Test
+  public void renewalFilter_stops_renewing_at_the_maximum_lifetime_of_the_login() throws Exception {
+    // arrange: renew the token every 6 minutes, as an active user's requests would
+    when(adminDirectory.isAdmin("user@example.org")).thenReturn(true);
+    MockHttpServletResponse current = issued();
+    List<Long> expiries = new ArrayList<>();
+
+    // act
+    for (int minutes = 6; minutes <= 36; minutes += 6) {
+      MockHttpServletResponse response = new MockHttpServletResponse();
+      repository(now.plus(Duration.ofMinutes(minutes)))
+          .renewalFilter()
+          .doFilter(requestWith(current), response, new MockFilterChain());
+      if (response.getCookie(TokenSecurityContextRepository.COOKIE_NAME) != null) {
+        current = response;
+        expiries.add(renewed(response).expiresAt());
+      }
+    }
+
+    // assert: the last token ends 30 minutes after the login, and is not renewed after that
+    assertEquals(
+        List.of(16L, 22L, 28L, 30L).stream()
+            .map(minutes -> now.plus(Duration.ofMinutes(minutes)).toEpochMilli())
+            .toList(),
+        expiries);
+    assertNull(load(repository(now.plus(Duration.ofMinutes(30))), requestWith(current)));
+  }
+}
@@ -2,20 +2,48 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.repositories.FilteredPagesRepository;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.server.ResponseStatusException;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = DummyController.class)
 @Import(TestConfig.class)
@@ -58,5 +86,171 @@ public class ApiControllerTests extends ControllerTestCase {
                 assertEquals("String with id 7 not found", json.get("message"));
         }
 
-}
+        // Tests of listPage, the shared implementation of the paged list endpoints
+
+        // an entity class with a static field, which is neither a filter nor a sort order
+        static class Widget {
+                static final int LIMIT = 1;
+                String name;
+        }
+
+        private final Pageable firstPage = PageRequest.of(0, 20, Sort.by("id"));
+
+        @SuppressWarnings("unchecked")
+        private Specification<Restaurant> listPageSpecification(
+                        RestaurantRepository repository, Map<String, String> params, Pageable pageable,
+                        Pageable expectedPageable) {
+                Page<Restaurant> page = new PageImpl<>(List.of());
+                when(repository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+
+                assertSame(page, new DummyController().listPage(repository, Restaurant.class, params, pageable));
+
+                ArgumentCaptor<Specification<Restaurant>> specification = ArgumentCaptor.forClass(Specification.class);
+                verify(repository).findAll(specification.capture(), eq(expectedPageable));
+                return specification.getValue();
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void listPage_filters_by_field_and_matches_null_for_empty_value() {
+                RestaurantRepository repository = mock(RestaurantRepository.class);
+                Root<Restaurant> root = mock(Root.class);
+                CriteriaQuery<?> query = mock(CriteriaQuery.class);
+                CriteriaBuilder cb = mock(CriteriaBuilder.class);
+                Path<Object> name = mock(Path.class);
+                Path<Object> description = mock(Path.class);
+                Predicate nameIsFreebirds = mock(Predicate.class);
+                Predicate descriptionIsNull = mock(Predicate.class);
+                when(root.get("name")).thenReturn(name);
+                when(root.get("description")).thenReturn(description);
+                when(cb.equal(name, "Freebirds")).thenReturn(nameIsFreebirds);
+                when(cb.isNull(description)).thenReturn(descriptionIsNull);
+
+                Specification<Restaurant> specification = listPageSpecification(repository,
+                                Map.of("name", "Freebirds", "description", "", "page", "0", "size", "20", "sort", "name"),
+                                PageRequest.of(0, 20, Sort.by("name")), PageRequest.of(0, 20, Sort.by("name")));
+                specification.toPredicate(root, query, cb);
+
+                verify(cb).equal(name, "Freebirds");
+                verify(cb).isNull(description);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void listPage_afterId_returns_first_page_after_that_id_in_order_of_id() {
+                RestaurantRepository repository = mock(RestaurantRepository.class);
+                Root<Restaurant> root = mock(Root.class);
+                CriteriaQuery<?> query = mock(CriteriaQuery.class);
+                CriteriaBuilder cb = mock(CriteriaBuilder.class);
+                Path<Long> id = mock(Path.class);
+                when(root.<Long>get("id")).thenReturn(id);
+
+                Specification<Restaurant> specification = listPageSpecification(repository,
+                                Map.of("afterId", "42"), PageRequest.of(0, 20), firstPage);
+                specification.toPredicate(root, query, cb);
+
+                verify(cb).greaterThan(id, 42L);
+                verify(cb, never()).equal(any(), any(Object.class));
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void listPage_afterId_ignores_page_number_and_sort() {
+                RestaurantRepository repository = mock(RestaurantRepository.class);
+
+                new DummyController().listPage(repository, Restaurant.class, Map.of("afterId", "42"),
+                                PageRequest.of(3, 10, Sort.by("name")));
+
+                verify(repository).findAll(any(Specification.class), eq(PageRequest.of(0, 10, Sort.by("id"))));
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void listPage_ignores_cache_buster_parameter() {
+                RestaurantRepository repository = mock(RestaurantRepository.class);
+                Root<Restaurant> root = mock(Root.class);
+                CriteriaQuery<?> query = mock(CriteriaQuery.class);
+                CriteriaBuilder cb = mock(CriteriaBuilder.class);
+
+                Specification<Restaurant> specification = listPageSpecification(repository,
+                                Map.of("_", "1746100800000"), firstPage, firstPage);
+                specification.toPredicate(root, query, cb);
+
+                verifyNoInteractions(root, cb);
+        }
+
+        @Test
+        public void listPage_rejects_filter_by_unknown_field() {
+                RestaurantRepository repository = mock(RestaurantRepository.class);
+
+                ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                                () -> new DummyController().listPage(repository, Restaurant.class,
+                                                Map.of("staus", "error"), firstPage));
+
+                assertEquals(400, e.getStatusCode().value());
+                assertEquals("Cannot filter Restaurant by staus", e.getReason());
+                verifyNoInteractions(repository);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void listPage_rejects_filter_by_static_field() {
+                FilteredPagesRepository<Widget> repository = mock(FilteredPagesRepository.class);
+
+                ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                                () -> new DummyController().listPage(repository, Widget.class,
+                                                Map.of("LIMIT", "1"), PageRequest.of(0, 20)));
+
+                assertEquals("Cannot filter Widget by LIMIT", e.getReason());
+        }
+
+        @Test
+        public void listPage_rejects_sort_by_unknown_field() {
+                RestaurantRepository repository = mock(RestaurantRepository.class);
+
+                ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                                () -> new DummyController().listPage(repository, Restaurant.class,
+                                                Map.of(), PageRequest.of(0, 20, Sort.by("color"))));
+
+                assertEquals(400, e.getStatusCode().value());
+                assertEquals("Cannot sort Restaurant by color", e.getReason());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void listPage_rejects_sort_by_static_field() {
+                FilteredPagesRepository<Widget> repository = mock(FilteredPagesRepository.class);
+
+                ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                                () -> new DummyController().listPage(repository, Widget.class,
+                                                Map.of(), PageRequest.of(0, 20, Sort.by("LIMIT"))));
+
+                assertEquals("Cannot sort Widget by LIMIT", e.getReason());
+        }
 
+        @Test
+        public void listPage_rejects_value_of_wrong_type() {
+                RestaurantRepository repository = mock(RestaurantRepository.class);
+
+                ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                                () -> new DummyController().listPage(repository, Restaurant.class,
+                                                Map.of("id", "seven"), firstPage));
+
+                assertEquals(400, e.getStatusCode().value());
+                assertEquals("Invalid value for id: seven", e.getReason());
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        public void listPage_rejects_afterId_for_entity_without_id() {
+                FilteredPagesRepository<UCSBDiningCommons> repository = mock(FilteredPagesRepository.class);
+
+                ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                                () -> new DummyController().listPage(repository, UCSBDiningCommons.class,
+                                                Map.of("afterId", "1"), PageRequest.of(0, 20, Sort.by("code"))));
+
+                assertEquals(400, e.getStatusCode().value());
+                assertEquals("Cannot page UCSBDiningCommons by id", e.getReason());
+        }
+
+}
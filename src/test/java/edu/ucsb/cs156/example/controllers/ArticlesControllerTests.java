@@ -11,6 +11,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.List;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -314,5 +319,41 @@ public class ArticlesControllerTests extends ControllerTestCase {
             Map<String, Object> json = responseToJson(response);
             assertEquals("Article with id 67 not found", json.get("message"));
         }
-        
+
+        // Tests for the paged list, GET /api/articles
+
+        @Test
+        public void logged_out_users_cannot_get_page() throws Exception {
+                mockMvc.perform(get("/api/articles"))
+                                .andExpect(status().is(403)); // logged out users can't get a page
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        @SuppressWarnings("unchecked")
+        public void logged_in_user_can_get_page_of_articles_filtered_by_title() throws Exception {
+
+                // arrange
+
+                Article article = Article.builder()
+                                .id(7L)
+                                .title("Using testing-playground")
+                                .build();
+
+                PageRequest firstPage = PageRequest.of(0, 20, Sort.by("id"));
+                when(articleRepository.findAll(any(Specification.class), eq(firstPage)))
+                                .thenReturn(new PageImpl<>(List.of(article), firstPage, 1));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/articles").param("title", "Using testing-playground"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertPageFilteredBy(articleRepository, firstPage, "title", "Using testing-playground");
+                Map<String, Object> json = responseToJson(response);
+                assertEquals(List.of(mapper.readValue(mapper.writeValueAsString(article), Map.class)),
+                                json.get("content"));
+                assertEquals(Map.of("size", 20, "number", 0, "totalElements", 1, "totalPages", 1), json.get("page"));
+        }
 }
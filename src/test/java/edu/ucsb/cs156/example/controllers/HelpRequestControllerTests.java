@@ -12,6 +12,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -339,4 +344,40 @@ public class HelpRequestControllerTests extends ControllerTestCase {
                 assertEquals("HelpRequest with id 15 not found", json.get("message"));
         }
 
+        // Tests for the paged list, GET /api/helprequests
+
+        @Test
+        public void logged_out_users_cannot_get_page() throws Exception {
+                mockMvc.perform(get("/api/helprequests"))
+                                .andExpect(status().is(403)); // logged out users can't get a page
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        @SuppressWarnings("unchecked")
+        public void logged_in_user_can_get_page_of_help_requests_filtered_by_teamId() throws Exception {
+
+                // arrange
+
+                HelpRequest helpRequest = HelpRequest.builder()
+                                .id(7L)
+                                .teamId("s25-06")
+                                .build();
+
+                PageRequest firstPage = PageRequest.of(0, 20, Sort.by("id"));
+                when(helpRequestRepository.findAll(any(Specification.class), eq(firstPage)))
+                                .thenReturn(new PageImpl<>(List.of(helpRequest), firstPage, 1));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/helprequests").param("teamId", "s25-06"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertPageFilteredBy(helpRequestRepository, firstPage, "teamId", "s25-06");
+                Map<String, Object> json = responseToJson(response);
+                assertEquals(List.of(mapper.readValue(mapper.writeValueAsString(helpRequest), Map.class)),
+                                json.get("content"));
+                assertEquals(Map.of("size", 20, "number", 0, "totalElements", 1, "totalPages", 1), json.get("page"));
+        }
 }
@@ -2,52 +2,125 @@ package edu.ucsb.cs156.example.controllers;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.config.JobExecutorConfig;
+import edu.ucsb.cs156.example.entities.CompressedJobLog;
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobArchive;
+import edu.ucsb.cs156.example.entities.JobLogLine;
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.jobs.TestFanOutJob;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.models.JobQueueDepth;
+import edu.ucsb.cs156.example.models.JobSummary;
+import edu.ucsb.cs156.example.repositories.CompressedJobLogsRepository;
+import edu.ucsb.cs156.example.repositories.JobArchivesRepository;
+import edu.ucsb.cs156.example.repositories.JobDependenciesRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.jobs.JobArchiveService;
+import edu.ucsb.cs156.example.services.jobs.JobLogBroadcaster;
+import edu.ucsb.cs156.example.services.jobs.JobLogCompressionService;
+import edu.ucsb.cs156.example.services.jobs.JobMetrics;
+import edu.ucsb.cs156.example.services.jobs.JobQueue;
 import edu.ucsb.cs156.example.services.jobs.JobService;
+import edu.ucsb.cs156.example.services.jobs.RunningJobsRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MvcResult;
 
 @Slf4j
 @WebMvcTest(controllers = JobsController.class)
-@Import(JobService.class)
+@Import({
+  JobService.class,
+  JobQueue.class,
+  JobArchiveService.class,
+  JobLogCompressionService.class,
+  JobMetrics.class,
+  SimpleMeterRegistry.class,
+  RunningJobsRegistry.class,
+  JobLogBroadcaster.class,
+  JobExecutorConfig.class,
+  TaskSchedulingAutoConfiguration.class
+})
 @AutoConfigureDataJpa
+// keep the scheduled queue and cancellation tasks from using the mocked repositories while the
+// tests stub them; the launch tests poll the queue themselves through runAsJob
+@TestPropertySource(
+    properties = {
+      "app.jobs.queue.pollIntervalMs=3600000",
+      "app.jobs.queue.heartbeatMs=3600000",
+      "app.jobs.queue.recoveryIntervalMs=3600000",
+      "app.jobs.cancelCheckIntervalMs=3600000",
+      "app.jobs.retention.initialDelayMs=3600000"
+    })
 public class JobsControllerTests extends ControllerTestCase {
 
   @MockitoBean JobsRepository jobsRepository;
 
+  @MockitoBean JobLogLinesRepository jobLogLinesRepository;
+
+  @MockitoBean JobArchivesRepository jobArchivesRepository;
+
+  @MockitoBean CompressedJobLogsRepository compressedJobLogsRepository;
+
+  @MockitoBean JobDependenciesRepository jobDependenciesRepository;
+
   @MockitoBean UserRepository userRepository;
 
   @Autowired JobService jobService;
 
+  @Autowired JobQueue jobQueue;
+
+  @Autowired RunningJobsRegistry runningJobsRegistry;
+
   @Autowired ObjectMapper objectMapper;
 
   @WithMockUser(roles = {"ADMIN"})
@@ -99,6 +172,39 @@ public class JobsControllerTests extends ControllerTestCase {
     assertEquals(expectedJson, responseString);
   }
 
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void api_getJobLogById__admin_logged_in__returns_progress_of_job() throws Exception {
+
+    // arrange
+
+    ZonedDateTime startedAt = ZonedDateTime.parse("2025-05-01T10:00:00Z");
+    Job job =
+        Job.builder()
+            .id(1L)
+            .status("running")
+            .startedAt(startedAt)
+            .progressDone(30L)
+            .progressTotal(120L)
+            .progressUpdatedAt(startedAt.plusSeconds(10))
+            .build();
+    when(jobsRepository.findById(eq(1L))).thenReturn(Optional.of(job));
+
+    // act
+
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs?id=1")).andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    assertEquals(mapper.writeValueAsString(job), response.getResponse().getContentAsString());
+    Map<String, Object> json = responseToJson(response);
+    assertEquals(25.0, json.get("percentComplete"));
+    assertEquals(
+        mapper.readTree(mapper.writeValueAsString(startedAt.plusSeconds(40))),
+        mapper.readTree(response.getResponse().getContentAsString()).get("estimatedCompletionAt"));
+  }
+
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void api_getJobLogById__admin_logged_in__returns_not_found_for_missing_job()
@@ -123,9 +229,118 @@ public class JobsControllerTests extends ControllerTestCase {
 
   @WithMockUser(roles = {"ADMIN"})
   @Test
-  public void admin_can_delete_all_jobs() throws Exception {
+  public void admin_can_get_executor_stats() throws Exception {
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/executor")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals(false, json.get("virtualThreads"));
+    assertEquals(4, json.get("poolSize"));
+    assertEquals(100, json.get("queueCapacity"));
+    assertEquals(0, json.get("rejectedJobs"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_list_job_summaries_newest_first_by_default() throws Exception {
+    // arrange
+    JobSummary summary = JobSummary.builder().id(7L).status("complete").build();
+    Pageable expectedPageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "id"));
+    when(jobsRepository.findSummaries(null, null, null, null, expectedPageable))
+        .thenReturn(new PageImpl<>(List.of(summary), expectedPageable, 41));
+
+    // act
+    MvcResult response = mockMvc.perform(get("/api/jobs")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals(
+        List.of(mapper.readValue(mapper.writeValueAsString(summary), Map.class)),
+        json.get("content"));
+    assertEquals(
+        Map.of("size", 20, "number", 0, "totalElements", 41, "totalPages", 3), json.get("page"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_filter_and_sort_job_summaries() throws Exception {
+    // arrange
+    ZonedDateTime after = ZonedDateTime.parse("2025-05-01T00:00Z");
+    ZonedDateTime before = ZonedDateTime.parse("2025-06-01T00:00Z");
+    Pageable expectedPageable = PageRequest.of(2, 5, Sort.by(Sort.Direction.ASC, "createdAt"));
+    when(jobsRepository.findSummaries(eq("error"), eq(5L), any(), any(), eq(expectedPageable)))
+        .thenReturn(new PageImpl<>(List.of(), expectedPageable, 10));
+
+    // act
+    mockMvc
+        .perform(
+            get("/api/jobs")
+                .param("status", "error")
+                .param("parentId", "5")
+                .param("createdAfter", "2025-05-01T00:00:00Z")
+                .param("createdBefore", "2025-06-01T00:00:00Z")
+                .param("page", "2")
+                .param("size", "5")
+                .param("sort", "createdAt,asc"))
+        .andExpect(status().isOk());
+
+    // assert
+    ArgumentCaptor<ZonedDateTime> afterCaptor = ArgumentCaptor.forClass(ZonedDateTime.class);
+    ArgumentCaptor<ZonedDateTime> beforeCaptor = ArgumentCaptor.forClass(ZonedDateTime.class);
+    verify(jobsRepository, times(1))
+        .findSummaries(
+            eq("error"),
+            eq(5L),
+            afterCaptor.capture(),
+            beforeCaptor.capture(),
+            eq(expectedPageable));
+    assertTrue(after.isEqual(afterCaptor.getValue()));
+    assertTrue(before.isEqual(beforeCaptor.getValue()));
+  }
 
-    doNothing().when(jobsRepository).deleteAll();
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void listing_jobs_rejects_sort_by_unknown_field() throws Exception {
+    mockMvc.perform(get("/api/jobs").param("sort", "log")).andExpect(status().isBadRequest());
+    verify(jobsRepository, never()).findSummaries(any(), any(), any(), any(), any());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void user_cannot_list_jobs() throws Exception {
+    mockMvc.perform(get("/api/jobs")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_queue_depth() throws Exception {
+    // arrange
+    List<JobQueueDepth> depth =
+        List.of(
+            JobQueueDepth.builder().priority(5).queuedJobs(1).users(1).build(),
+            JobQueueDepth.builder().priority(0).queuedJobs(300).users(2).build());
+    when(jobsRepository.countQueuedByPriority()).thenReturn(depth);
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/queue")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(depth), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void user_cannot_get_queue_depth() throws Exception {
+    mockMvc.perform(get("/api/jobs/queue")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_delete_all_jobs() throws Exception {
 
     // act
     MvcResult response =
@@ -136,12 +351,67 @@ public class JobsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(jobsRepository, times(1)).deleteAll();
+    verify(jobLogLinesRepository, times(1)).deleteAllLines();
+    verify(compressedJobLogsRepository, times(1)).deleteAllLogs();
+    verify(jobDependenciesRepository, times(1)).deleteAllDependencies();
+    verify(jobsRepository, times(1)).deleteAllJobs();
+    verify(jobsRepository, never()).deleteAll();
     String expectedJson = mapper.writeValueAsString(Map.of("message", "All jobs deleted"));
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
   }
 
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_archived_job() throws Exception {
+    // arrange
+    String json = "{\"job\":{\"id\":7,\"status\":\"complete\"},\"log\":[\"line 0\"]}";
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      gzip.write(json.getBytes(StandardCharsets.UTF_8));
+    }
+    JobArchive archive = JobArchive.builder().id(7L).data(bytes.toByteArray()).build();
+    when(jobArchivesRepository.findById(7L)).thenReturn(Optional.of(archive));
+
+    // act
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/jobs/archived").param("id", "7"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    // assert
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/json"))
+        .andExpect(content().string(json));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void get_archived_job_returns_404_when_not_archived() throws Exception {
+    // arrange
+    when(jobArchivesRepository.findById(7L)).thenReturn(Optional.empty());
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/archived").param("id", "7"))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("JobArchive with id 7 not found", json.get("message"));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void user_cannot_get_archived_job() throws Exception {
+    mockMvc.perform(get("/api/jobs/archived").param("id", "7")).andExpect(status().is(403));
+  }
+
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void test_getJobLogs_admin_can_get_job_log() throws Exception {
@@ -175,6 +445,224 @@ public class JobsControllerTests extends ControllerTestCase {
         .andExpect(content().string(""));
   }
 
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void test_getJobLogs_admin_can_get_window_of_log() throws Exception {
+    // Arrange
+    Job job = Job.builder().id(1L).build();
+    when(jobsRepository.findById(1L)).thenReturn(Optional.of(job));
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            1L, 5L, Limit.of(2)))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(1L).lineNumber(5L).message("five").build(),
+                JobLogLine.builder().jobId(1L).lineNumber(6L).message("six").build()));
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}?offset=5&limit=2", 1L))
+        .andExpect(status().isOk())
+        .andExpect(content().string("five\nsix"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void test_getJobLogs_admin_can_get_tail_of_log() throws Exception {
+    // Arrange
+    Job job = Job.builder().id(1L).build();
+    when(jobsRepository.findById(1L)).thenReturn(Optional.of(job));
+    when(jobLogLinesRepository.findAllByJobIdOrderByLineNumberDesc(1L, Limit.of(2)))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(1L).lineNumber(9L).message("nine").build(),
+                JobLogLine.builder().jobId(1L).lineNumber(8L).message("eight").build()));
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}?tail=2&offset=3", 1L))
+        .andExpect(status().isOk())
+        .andExpect(content().string("eight\nnine"));
+  }
+
+  private CompressedJobLog compressedLog(long jobId, String text) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DeflaterOutputStream deflater = new DeflaterOutputStream(bytes)) {
+      deflater.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+    return CompressedJobLog.builder().jobId(jobId).data(bytes.toByteArray()).build();
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void test_getJobLogs_sends_compressed_log_as_stored_to_client_that_accepts_deflate()
+      throws Exception {
+    // Arrange
+    CompressedJobLog log = compressedLog(1L, "one\ntwo\nthree");
+    when(compressedJobLogsRepository.findById(1L)).thenReturn(Optional.of(log));
+
+    // Act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}", 1L).header("Accept-Encoding", "gzip, Deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "deflate"))
+            .andExpect(header().string("Vary", "Accept-Encoding"))
+            .andExpect(content().contentType("text/plain;charset=UTF-8"))
+            .andReturn();
+
+    // Assert
+    assertArrayEquals(log.getData(), response.getResponse().getContentAsByteArray());
+    verify(jobsRepository, never()).findById(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void test_getJobLogs_inflates_compressed_log_for_client_that_does_not_accept_deflate()
+      throws Exception {
+    // Arrange
+    when(compressedJobLogsRepository.findById(1L))
+        .thenReturn(Optional.of(compressedLog(1L, "one\ntwo\nthree")));
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}", 1L).header("Accept-Encoding", "gzip"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("Content-Encoding"))
+        .andExpect(content().string("one\ntwo\nthree"));
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}", 1L))
+        .andExpect(status().isOk())
+        .andExpect(content().string("one\ntwo\nthree"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void test_getJobLogs_admin_can_get_window_of_compressed_log() throws Exception {
+    // Arrange
+    Job job = Job.builder().id(1L).status("complete").build();
+    when(jobsRepository.findById(1L)).thenReturn(Optional.of(job));
+    when(compressedJobLogsRepository.findById(1L))
+        .thenReturn(Optional.of(compressedLog(1L, "zero\none\ntwo\nthree")));
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}?offset=1&limit=2", 1L))
+        .andExpect(status().isOk())
+        .andExpect(content().string("one\ntwo"));
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}?limit=1", 1L))
+        .andExpect(status().isOk())
+        .andExpect(content().string("zero"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_stream_compressed_log_of_finished_job() throws Exception {
+    // Arrange
+    Job job = Job.builder().id(1L).status("complete").build();
+    when(jobsRepository.existsById(1L)).thenReturn(true);
+    when(jobsRepository.findById(1L)).thenReturn(Optional.of(job));
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            1L, 1L))
+        .thenReturn(List.of());
+    when(compressedJobLogsRepository.findById(1L))
+        .thenReturn(Optional.of(compressedLog(1L, "zero\none\ntwo")));
+
+    // Act
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}/stream", 1L).header("Last-Event-ID", "0"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    // Assert
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().string("id:1\ndata:one\n\nid:2\ndata:two\n\n"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_stream_log_of_finished_job_resuming_after_last_event_id()
+      throws Exception {
+    // Arrange
+    Job job = Job.builder().id(1L).status("complete").build();
+    when(jobsRepository.existsById(1L)).thenReturn(true);
+    when(jobsRepository.findById(1L)).thenReturn(Optional.of(job));
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            1L, 1L))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(1L).lineNumber(1L).message("second").build(),
+                JobLogLine.builder().jobId(1L).lineNumber(2L).message("third").build()));
+
+    // Act
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}/stream", 1L).header("Last-Event-ID", "0"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    // Assert
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().string("id:1\ndata:second\n\nid:2\ndata:third\n\n"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_stream_log_from_offset() throws Exception {
+    // Arrange
+    Job job = Job.builder().id(1L).status("error").build();
+    when(jobsRepository.existsById(1L)).thenReturn(true);
+    when(jobsRepository.findById(1L)).thenReturn(Optional.of(job));
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            1L, 2L))
+        .thenReturn(
+            List.of(JobLogLine.builder().jobId(1L).lineNumber(2L).message("third").build()));
+
+    // Act
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}/stream?offset=2", 1L))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    // Assert
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().string("id:2\ndata:third\n\n"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_stream_log_from_start() throws Exception {
+    // Arrange
+    Job job = Job.builder().id(1L).status("complete").build();
+    when(jobsRepository.existsById(1L)).thenReturn(true);
+    when(jobsRepository.findById(1L)).thenReturn(Optional.of(job));
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            1L, 0L))
+        .thenReturn(
+            List.of(JobLogLine.builder().jobId(1L).lineNumber(0L).message("first").build()));
+
+    // Act
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}/stream", 1L))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    // Assert
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().string("id:0\ndata:first\n\n"));
+  }
+
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void admin_can_delete_specific_job() throws Exception {
@@ -193,6 +681,10 @@ public class JobsControllerTests extends ControllerTestCase {
 
     // assert
 
+    verify(jobLogLinesRepository, times(1)).deleteAllByJobId(eq(1L));
+    verify(compressedJobLogsRepository, times(1)).deleteAllByJobIdIn(eq(List.of(1L)));
+    verify(jobDependenciesRepository, times(1)).deleteAllByJobIdIn(eq(List.of(1L)));
+    verify(jobDependenciesRepository, times(1)).deleteAllByDependsOnJobIdIn(eq(List.of(1L)));
     verify(jobsRepository, times(1)).deleteById(eq(1L));
     String expectedJson = mapper.writeValueAsString(Map.of("message", "Job with id 1 deleted"));
     String responseString = response.getResponse().getContentAsString();
@@ -229,28 +721,7 @@ public class JobsControllerTests extends ControllerTestCase {
     // arrange
 
     User user = currentUserService.getUser();
-
-    Job jobStarted =
-        Job.builder()
-            .id(0L)
-            .createdBy(user)
-            .createdAt(null)
-            .updatedAt(null)
-            .status("running")
-            .log("Hello World! from test job!")
-            .build();
-
-    Job jobCompleted =
-        Job.builder()
-            .id(0L)
-            .createdBy(user)
-            .createdAt(null)
-            .updatedAt(null)
-            .status("complete")
-            .log("Hello World! from test job!\nGoodbye from test job!")
-            .build();
-
-    when(jobsRepository.save(any(Job.class))).thenReturn(jobStarted).thenReturn(jobCompleted);
+    AtomicReference<Job> queuedJob = queueSavedJobs();
 
     // act
     MvcResult response =
@@ -265,12 +736,22 @@ public class JobsControllerTests extends ControllerTestCase {
 
     assertEquals("running", jobReturned.getStatus());
 
-    await()
-        .atMost(1, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(2)).save(eq(jobStarted)));
-    await()
-        .atMost(10, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(4)).save(eq(jobCompleted)));
+    Job job = queuedJob.get();
+    assertEquals(user, job.getCreatedBy());
+    await().atMost(10, SECONDS).untilAsserted(() -> assertEquals("complete", job.getStatus()));
+    // queued, claimed, and finished
+    verify(jobsRepository, timeout(1000).times(3)).save(job);
+    assertEquals(TestJob.class.getName(), job.getJobType());
+    assertEquals(0, job.getPriority());
+    assertNull(job.getTimeoutMs());
+    assertEquals(100.0, job.getPercentComplete());
+    assertNotNull(job.getStartedAt());
+    assertEquals(1, job.getAttempts());
+    assertEquals(jobQueue.getInstanceId(), job.getLeaseOwner());
+    assertEquals(0, jobQueue.leasedCount());
+    assertEquals(
+        List.of(logLine(0L, "Hello World! from test job!"), logLine(1L, "Goodbye from test job!")),
+        savedLogLines());
   }
 
   @WithMockUser(roles = {"ADMIN"})
@@ -280,48 +761,266 @@ public class JobsControllerTests extends ControllerTestCase {
     // arrange
 
     User user = currentUserService.getUser();
-
-    Job jobStarted =
-        Job.builder()
-            .id(0L)
-            .createdBy(user)
-            .createdAt(null)
-            .updatedAt(null)
-            .status("running")
-            .log("Hello World! from test job!")
-            .build();
-
-    Job jobFailed =
-        Job.builder()
-            .id(0L)
-            .createdBy(user)
-            .createdAt(null)
-            .updatedAt(null)
-            .status("error")
-            .log("Hello World! from test job!\nFail!")
-            .build();
-
-    when(jobsRepository.save(any(Job.class))).thenReturn(jobStarted).thenReturn(jobFailed);
+    AtomicReference<Job> queuedJob = queueSavedJobs();
 
     // act
     MvcResult response =
         mockMvc
-            .perform(post("/api/jobs/launch/testjob?fail=true&sleepMs=4000").with(csrf()))
+            .perform(post("/api/jobs/launch/testjob?fail=true&sleepMs=4000&priority=5").with(csrf()))
             .andExpect(status().isOk())
             .andReturn();
 
+    // assert
     String responseString = response.getResponse().getContentAsString();
     Job jobReturned = objectMapper.readValue(responseString, Job.class);
 
     assertEquals("running", jobReturned.getStatus());
 
-    await()
-        .atMost(1, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(2)).save(eq(jobStarted)));
+    Job job = queuedJob.get();
+    assertEquals(user, job.getCreatedBy());
+    await().atMost(10, SECONDS).untilAsserted(() -> assertEquals("error", job.getStatus()));
+    // queued, claimed, and finished
+    verify(jobsRepository, timeout(1000).times(3)).save(job);
+    assertEquals(TestJob.class.getName(), job.getJobType());
+    assertEquals(5, job.getPriority());
+    assertEquals(100.0, job.getPercentComplete());
+    assertNotNull(job.getStartedAt());
+    assertEquals(1, job.getAttempts());
+    assertEquals(jobQueue.getInstanceId(), job.getLeaseOwner());
+    assertEquals(0, jobQueue.leasedCount());
+    assertEquals(
+        List.of(logLine(0L, "Hello World! from test job!"), logLine(1L, "Fail!")),
+        savedLogLines());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_launch_test_fan_out_job() throws Exception {
+    // arrange
+    when(jobsRepository.save(any(Job.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/jobs/launch/testfanout?parts=3&sleepMs=100&fail=true").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    Job jobReturned =
+        objectMapper.readValue(response.getResponse().getContentAsString(), Job.class);
+    assertEquals("queued", jobReturned.getStatus());
+    assertEquals(TestFanOutJob.class.getName(), jobReturned.getJobType());
+    ArgumentCaptor<Job> captor = ArgumentCaptor.forClass(Job.class);
+    verify(jobsRepository, times(1)).save(captor.capture());
+    assertEquals("{\"parts\":3,\"sleepMs\":100,\"fail\":true}", captor.getValue().getPayload());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_dependencies_of_job() throws Exception {
+    // arrange
+    List<JobSummary> dependencies =
+        List.of(
+            JobSummary.builder().id(4L).status("complete").parentId(3L).build(),
+            JobSummary.builder().id(5L).status("running").parentId(3L).build());
+    when(jobsRepository.existsById(6L)).thenReturn(true);
+    when(jobsRepository.findDependencySummaries(6L)).thenReturn(dependencies);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/dependencies").param("id", "6"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertEquals(
+        mapper.writeValueAsString(dependencies), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void get_dependencies_returns_404_for_unknown_job() throws Exception {
+    // arrange
+    when(jobsRepository.existsById(6L)).thenReturn(false);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/dependencies").param("id", "6"))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    // assert
+    assertEquals("Job with id 6 not found", responseToJson(response).get("message"));
+    verify(jobsRepository, never()).findDependencySummaries(anyLong());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void user_cannot_get_dependencies_of_job() throws Exception {
+    mockMvc.perform(get("/api/jobs/dependencies").param("id", "6")).andExpect(status().is(403));
+  }
+
+  // the mocked repository hands the job saved as "queued" back once when the queue is polled
+  private AtomicReference<Job> queueSavedJobs() {
+    AtomicReference<Job> queued = new AtomicReference<>();
+    AtomicReference<Job> waiting = new AtomicReference<>();
+    when(jobsRepository.save(any(Job.class)))
+        .thenAnswer(
+            invocation -> {
+              Job job = invocation.getArgument(0);
+              if ("queued".equals(job.getStatus())) {
+                queued.set(job);
+                waiting.set(job);
+              }
+              return job;
+            });
+    when(jobsRepository.findNextQueued(anyInt(), any(), any()))
+        .thenAnswer(invocation -> Optional.ofNullable(waiting.getAndSet(null)).stream().toList());
+    return queued;
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_cancel_running_test_job() throws Exception {
+
+    // arrange
+
+    AtomicReference<Job> queuedJob = queueSavedJobs();
+    when(jobsRepository.existsById(0L)).thenReturn(true);
+    when(jobsRepository.requestCancel(0L)).thenReturn(1);
+    mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=30000").with(csrf()))
+        .andExpect(status().isOk());
+    Job job = queuedJob.get();
+    await().atMost(10, SECONDS).until(() -> runningJobsRegistry.get(0L).isPresent());
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/cancel?id=0").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertEquals(
+        mapper.writeValueAsString(Map.of("message", "Job with id 0 is being cancelled")),
+        response.getResponse().getContentAsString());
+    await().atMost(10, SECONDS).untilAsserted(() -> assertEquals("cancelled", job.getStatus()));
+    assertEquals(true, job.getCancelRequested());
     await()
         .atMost(10, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(3)).save(eq(jobFailed)));
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    List.of(logLine(0L, "Hello World! from test job!"), logLine(1L, "Job cancelled")),
+                    savedLogLines()));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void launch_test_job_passes_timeout() throws Exception {
+
+    // arrange
+
+    AtomicReference<Job> queuedJob = queueSavedJobs();
+
+    // act
+    mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=0&timeoutMs=5000").with(csrf()))
+        .andExpect(status().isOk());
+
+    // assert
+    Job job = queuedJob.get();
+    assertEquals(5000L, job.getTimeoutMs());
+    await().atMost(10, SECONDS).untilAsserted(() -> assertEquals("complete", job.getStatus()));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void launch_with_used_idempotency_key_returns_existing_job() throws Exception {
+
+    // arrange
+
+    Job existing = Job.builder().id(12L).status("running").build();
+    when(jobsRepository.findByIdempotencyKey(any(), eq("launch-1"), any()))
+        .thenReturn(Optional.of(existing));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/jobs/launch/testfanout?parts=2&sleepMs=0")
+                    .header("Idempotency-Key", "launch-1")
+                    .with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(existing), response.getResponse().getContentAsString());
+    verify(jobsRepository, never()).save(any(Job.class));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void cancel_reports_job_that_is_not_running() throws Exception {
+
+    // arrange
+
+    when(jobsRepository.existsById(3L)).thenReturn(true);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/cancel?id=3").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    verify(jobsRepository, times(1)).cancelQueued(3L);
+    verify(jobsRepository, times(1)).requestCancel(3L);
+    assertEquals(
+        mapper.writeValueAsString(Map.of("message", "Job with id 3 is not queued or running")),
+        response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void cancel_returns_not_found_for_missing_job() throws Exception {
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/cancel?id=4").with(csrf()))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("Job with id 4 not found", json.get("message"));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void user_cannot_cancel_job() throws Exception {
+    mockMvc.perform(post("/api/jobs/cancel?id=1").with(csrf())).andExpect(status().is(403));
+  }
+
+  private JobLogLine logLine(long lineNumber, String message) {
+    return JobLogLine.builder().jobId(0L).lineNumber(lineNumber).message(message).build();
+  }
+
+  // log lines may be written by the periodic flush or at the end of the job, so collect every batch
+  @SuppressWarnings("unchecked")
+  private List<JobLogLine> savedLogLines() {
+    ArgumentCaptor<Iterable<JobLogLine>> captor = ArgumentCaptor.forClass(Iterable.class);
+    verify(jobLogLinesRepository, atLeastOnce()).saveAll(captor.capture());
+    List<JobLogLine> lines = new ArrayList<>();
+    captor.getAllValues().forEach(batch -> batch.forEach(lines::add));
+    return lines;
   }
 
 }
@@ -10,6 +10,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.List;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -317,4 +322,41 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
                 assertEquals("RecommendationRequest with id 67 not found", json.get("message"));
 
         }
+
+        // Tests for the paged list, GET /api/recommendationrequest
+
+        @Test
+        public void logged_out_users_cannot_get_page() throws Exception {
+                mockMvc.perform(get("/api/recommendationrequest"))
+                                .andExpect(status().is(403)); // logged out users can't get a page
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        @SuppressWarnings("unchecked")
+        public void logged_in_user_can_get_page_of_recommendation_requests_filtered_by_professorEmail() throws Exception {
+
+                // arrange
+
+                RecommendationRequest recommendationRequest = RecommendationRequest.builder()
+                                .id(7L)
+                                .professorEmail("phtcon@ucsb.edu")
+                                .build();
+
+                PageRequest firstPage = PageRequest.of(0, 20, Sort.by("id"));
+                when(rrrepository.findAll(any(Specification.class), eq(firstPage)))
+                                .thenReturn(new PageImpl<>(List.of(recommendationRequest), firstPage, 1));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/recommendationrequest").param("professorEmail", "phtcon@ucsb.edu"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertPageFilteredBy(rrrepository, firstPage, "professorEmail", "phtcon@ucsb.edu");
+                Map<String, Object> json = responseToJson(response);
+                assertEquals(List.of(mapper.readValue(mapper.writeValueAsString(recommendationRequest), Map.class)),
+                                json.get("content"));
+                assertEquals(Map.of("size", 20, "number", 0, "totalElements", 1, "totalPages", 1), json.get("page"));
+        }
 }
@@ -10,6 +10,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.List;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -26,6 +32,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -294,4 +301,75 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                 assertEquals("Restaurant with id 67 not found", json.get("message"));
 
         }
+
+        // Tests for the paged list, GET /api/restaurants
+
+        @Test
+        public void logged_out_users_cannot_get_page() throws Exception {
+                mockMvc.perform(get("/api/restaurants"))
+                                .andExpect(status().is(403)); // logged out users can't get a page
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        @SuppressWarnings("unchecked")
+        public void logged_in_user_can_get_page_of_restaurants_filtered_by_name() throws Exception {
+
+                // arrange
+
+                Restaurant restaurant = Restaurant.builder()
+                                .id(7L)
+                                .name("Freebirds")
+                                .build();
+
+                PageRequest firstPage = PageRequest.of(0, 20, Sort.by("id"));
+                when(restaurantRepository.findAll(any(Specification.class), eq(firstPage)))
+                                .thenReturn(new PageImpl<>(List.of(restaurant), firstPage, 1));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurants").param("name", "Freebirds"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertPageFilteredBy(restaurantRepository, firstPage, "name", "Freebirds");
+                Map<String, Object> json = responseToJson(response);
+                assertEquals(List.of(mapper.readValue(mapper.writeValueAsString(restaurant), Map.class)),
+                                json.get("content"));
+                assertEquals(Map.of("size", 20, "number", 0, "totalElements", 1, "totalPages", 1), json.get("page"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_of_restaurants_ignores_cache_buster_parameter() throws Exception {
+
+                // arrange
+
+                PageRequest firstPage = PageRequest.of(0, 20, Sort.by("id"));
+                when(restaurantRepository.findAll(any(Specification.class), eq(firstPage)))
+                                .thenReturn(new PageImpl<>(List.of(), firstPage, 0));
+
+                // act
+                mockMvc.perform(get("/api/restaurants").param("name", "Freebirds").param("_", "1746100800000"))
+                                .andExpect(status().isOk());
+
+                // assert
+
+                assertPageFilteredBy(restaurantRepository, firstPage, "name", "Freebirds");
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_of_restaurants_cannot_be_sorted_by_unknown_field() throws Exception {
+                mockMvc.perform(get("/api/restaurants").param("sort", "color"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_of_restaurants_cannot_be_filtered_by_unknown_field() throws Exception {
+                mockMvc.perform(get("/api/restaurants").param("nmae", "Freebirds"))
+                                .andExpect(status().isBadRequest());
+                verify(restaurantRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        }
 }
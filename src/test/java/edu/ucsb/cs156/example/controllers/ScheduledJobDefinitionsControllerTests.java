@@ -0,0 +1,312 @@
+package edu.ucsb.cs156.example.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.entities.ScheduledJobDefinition;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.repositories.ScheduledJobDefinitionsRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.jobs.ScheduledJobService;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(controllers = ScheduledJobDefinitionsController.class)
+public class ScheduledJobDefinitionsControllerTests extends ControllerTestCase {
+
+  @MockitoBean ScheduledJobDefinitionsRepository scheduledJobDefinitionsRepository;
+
+  @MockitoBean ScheduledJobService scheduledJobService;
+
+  @MockitoBean UserRepository userRepository;
+
+  private ScheduledJobDefinition definition() {
+    return ScheduledJobDefinition.builder()
+        .id(1L)
+        .name("nightly")
+        .jobType(TestJob.class.getName())
+        .payload("{\"sleepMs\":10}")
+        .cron("0 0 3 * * *")
+        .enabled(true)
+        .priority(2)
+        .build();
+  }
+
+  // Authorization tests for /api/scheduledjobs
+
+  @Test
+  public void logged_out_users_cannot_get_all() throws Exception {
+    mockMvc.perform(get("/api/scheduledjobs/all")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void regular_users_cannot_get_all() throws Exception {
+    mockMvc.perform(get("/api/scheduledjobs/all")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void regular_users_cannot_get_page() throws Exception {
+    mockMvc.perform(get("/api/scheduledjobs")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void regular_users_cannot_post() throws Exception {
+    mockMvc
+        .perform(
+            post("/api/scheduledjobs/post")
+                .param("name", "nightly")
+                .param("jobType", TestJob.class.getName())
+                .param("cron", "0 0 3 * * *")
+                .with(csrf()))
+        .andExpect(status().is(403));
+
+    verify(scheduledJobService, never()).save(any());
+  }
+
+  // Tests with mocks for database actions
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_all_scheduled_jobs() throws Exception {
+    // arrange
+    List<ScheduledJobDefinition> definitions = List.of(definition());
+    when(scheduledJobDefinitionsRepository.findAll()).thenReturn(definitions);
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/scheduledjobs/all")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(
+        mapper.writeValueAsString(definitions), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  @SuppressWarnings("unchecked")
+  public void admin_can_get_page_of_scheduled_jobs_filtered_by_enabled() throws Exception {
+    // arrange
+    ScheduledJobDefinition definition = definition();
+    PageRequest firstPage = PageRequest.of(0, 20, Sort.by("id"));
+    when(scheduledJobDefinitionsRepository.findAll(any(Specification.class), eq(firstPage)))
+        .thenReturn(new PageImpl<>(List.of(definition), firstPage, 1));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/scheduledjobs").param("enabled", "true"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertPageFilteredBy(scheduledJobDefinitionsRepository, firstPage, "enabled", true);
+    Map<String, Object> json = responseToJson(response);
+    assertEquals(
+        List.of(mapper.readValue(mapper.writeValueAsString(definition), Map.class)),
+        json.get("content"));
+    assertEquals(
+        Map.of("size", 20, "number", 0, "totalElements", 1, "totalPages", 1), json.get("page"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_scheduled_job_by_id() throws Exception {
+    // arrange
+    ScheduledJobDefinition definition = definition();
+    when(scheduledJobDefinitionsRepository.findById(1L)).thenReturn(Optional.of(definition));
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/scheduledjobs?id=1")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(
+        mapper.writeValueAsString(definition), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void get_by_id_returns_404_for_missing_scheduled_job() throws Exception {
+    // arrange
+    when(scheduledJobDefinitionsRepository.findById(7L)).thenReturn(Optional.empty());
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/scheduledjobs?id=7")).andExpect(status().isNotFound()).andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("EntityNotFoundException", json.get("type"));
+    assertEquals("ScheduledJobDefinition with id 7 not found", json.get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_post_scheduled_job() throws Exception {
+    // arrange
+    when(scheduledJobService.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // act
+    mockMvc
+        .perform(
+            post("/api/scheduledjobs/post")
+                .param("name", "nightly")
+                .param("jobType", TestJob.class.getName())
+                .param("payload", "{\"sleepMs\":10}")
+                .param("cron", "0 0 3 * * *")
+                .param("priority", "2")
+                .param("timeoutMs", "5000")
+                .with(csrf()))
+        .andExpect(status().isOk());
+
+    // assert
+    ArgumentCaptor<ScheduledJobDefinition> captor =
+        ArgumentCaptor.forClass(ScheduledJobDefinition.class);
+    verify(scheduledJobService, times(1)).save(captor.capture());
+    ScheduledJobDefinition saved = captor.getValue();
+    assertEquals("nightly", saved.getName());
+    assertEquals("user@example.org", saved.getCreatedBy().getEmail());
+    assertEquals(TestJob.class.getName(), saved.getJobType());
+    assertEquals("{\"sleepMs\":10}", saved.getPayload());
+    assertEquals("0 0 3 * * *", saved.getCron());
+    assertEquals(2, saved.getPriority());
+    assertEquals(5000L, saved.getTimeoutMs());
+    assertEquals(true, saved.getEnabled());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void post_returns_400_for_bad_schedule() throws Exception {
+    // arrange
+    when(scheduledJobService.save(any()))
+        .thenThrow(new IllegalArgumentException("Job could not be loaded: NoSuchJob"));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/scheduledjobs/post")
+                    .param("name", "nightly")
+                    .param("jobType", "NoSuchJob")
+                    .param("cron", "0 0 3 * * *")
+                    .with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+    // assert
+    assertEquals("Job could not be loaded: NoSuchJob", response.getResponse().getErrorMessage());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_update_scheduled_job() throws Exception {
+    // arrange
+    ScheduledJobDefinition existing = definition();
+    ScheduledJobDefinition incoming =
+        ScheduledJobDefinition.builder()
+            .name("hourly")
+            .jobType(TestJob.class.getName())
+            .payload("{\"fail\":true}")
+            .cron("0 0 * * * *")
+            .enabled(false)
+            .priority(-1)
+            .timeoutMs(1000L)
+            .build();
+    when(scheduledJobDefinitionsRepository.findById(1L)).thenReturn(Optional.of(existing));
+    when(scheduledJobService.save(existing)).thenReturn(existing);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                put("/api/scheduledjobs?id=1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(mapper.writeValueAsString(incoming))
+                    .with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    incoming.setId(1L);
+    assertEquals(incoming, existing);
+    assertEquals(
+        mapper.writeValueAsString(incoming), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void update_returns_404_for_missing_scheduled_job() throws Exception {
+    // arrange
+    when(scheduledJobDefinitionsRepository.findById(7L)).thenReturn(Optional.empty());
+
+    // act
+    mockMvc
+        .perform(
+            put("/api/scheduledjobs?id=7")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(definition()))
+                .with(csrf()))
+        .andExpect(status().isNotFound());
+
+    // assert
+    verify(scheduledJobService, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_delete_scheduled_job() throws Exception {
+    // arrange
+    ScheduledJobDefinition definition = definition();
+    when(scheduledJobDefinitionsRepository.findById(1L)).thenReturn(Optional.of(definition));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(delete("/api/scheduledjobs?id=1").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    verify(scheduledJobDefinitionsRepository, times(1)).delete(definition);
+    assertEquals("Scheduled job with id 1 deleted", responseToJson(response).get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void delete_returns_404_for_missing_scheduled_job() throws Exception {
+    // arrange
+    when(scheduledJobDefinitionsRepository.findById(7L)).thenReturn(Optional.empty());
+
+    // act
+    mockMvc
+        .perform(delete("/api/scheduledjobs?id=7").with(csrf()))
+        .andExpect(status().isNotFound());
+
+    // assert
+    verify(scheduledJobDefinitionsRepository, never()).delete(any());
+  }
+}
@@ -10,6 +10,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.List;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -332,4 +337,48 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
 
         }
+
+        // Tests for the paged list, GET /api/ucsbdiningcommons
+
+        @Test
+        public void logged_out_users_cannot_get_page() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommons"))
+                                .andExpect(status().is(403)); // logged out users can't get a page
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        @SuppressWarnings("unchecked")
+        public void logged_in_user_can_get_page_of_commons_filtered_by_name() throws Exception {
+
+                // arrange
+
+                UCSBDiningCommons uCSBDiningCommons = UCSBDiningCommons.builder()
+                                .code("carrillo")
+                                .name("Carrillo")
+                                .build();
+
+                PageRequest firstPage = PageRequest.of(0, 20, Sort.by("code"));
+                when(ucsbDiningCommonsRepository.findAll(any(Specification.class), eq(firstPage)))
+                                .thenReturn(new PageImpl<>(List.of(uCSBDiningCommons), firstPage, 1));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons").param("name", "Carrillo"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertPageFilteredBy(ucsbDiningCommonsRepository, firstPage, "name", "Carrillo");
+                Map<String, Object> json = responseToJson(response);
+                assertEquals(List.of(mapper.readValue(mapper.writeValueAsString(uCSBDiningCommons), Map.class)),
+                                json.get("content"));
+                assertEquals(Map.of("size", 20, "number", 0, "totalElements", 1, "totalPages", 1), json.get("page"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_of_commons_cannot_use_afterId() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommons").param("afterId", "1"))
+                                .andExpect(status().isBadRequest()); // commons have codes, not ids
+        }
 }
@@ -10,6 +10,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.List;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -274,4 +279,41 @@ public void admin_can_post_a_new_menu_item() throws Exception {
         Map<String, Object> json = responseToJson(response);
         assertEquals("UCSBDiningCommonsMenuItem with id 67 not found", json.get("message"));
     }
+
+    // Tests for the paged list, GET /api/ucsbdiningcommonsmenuitem
+
+    @Test
+    public void logged_out_users_cannot_get_page() throws Exception {
+        mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem"))
+            .andExpect(status().is(403)); // logged out users can't get a page
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    @SuppressWarnings("unchecked")
+    public void logged_in_user_can_get_page_of_menu_items_filtered_by_diningCommonsCode() throws Exception {
+
+        // arrange
+
+        UCSBDiningCommonsMenuItem uCSBDiningCommonsMenuItem = UCSBDiningCommonsMenuItem.builder()
+            .id(7L)
+            .diningCommonsCode("ortega")
+            .build();
+
+        PageRequest firstPage = PageRequest.of(0, 20, Sort.by("id"));
+        when(ucsbDiningCommonsMenuItemRepository.findAll(any(Specification.class), eq(firstPage)))
+            .thenReturn(new PageImpl<>(List.of(uCSBDiningCommonsMenuItem), firstPage, 1));
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem").param("diningCommonsCode", "ortega"))
+            .andExpect(status().isOk()).andReturn();
+
+        // assert
+
+        assertPageFilteredBy(ucsbDiningCommonsMenuItemRepository, firstPage, "diningCommonsCode", "ortega");
+        Map<String, Object> json = responseToJson(response);
+        assertEquals(List.of(mapper.readValue(mapper.writeValueAsString(uCSBDiningCommonsMenuItem), Map.class)),
+            json.get("content"));
+        assertEquals(Map.of("size", 20, "number", 0, "totalElements", 1, "totalPages", 1), json.get("page"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package edu.ucsb.cs156.example.entities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+
+public class JobTests {
+
+  private final ZonedDateTime start = ZonedDateTime.parse("2025-05-01T10:00:00Z");
+
+  @Test
+  public void percent_complete_is_null_without_progress() {
+    assertNull(Job.builder().build().getPercentComplete());
+    assertNull(Job.builder().progressDone(1L).build().getPercentComplete());
+    assertNull(Job.builder().progressTotal(10L).build().getPercentComplete());
+    assertNull(Job.builder().progressDone(0L).progressTotal(0L).build().getPercentComplete());
+  }
+
+  @Test
+  public void percent_complete_is_capped_at_100() {
+    assertEquals(25.0, Job.builder().progressDone(1L).progressTotal(4L).build().getPercentComplete());
+    assertEquals(
+        100.0, Job.builder().progressDone(12L).progressTotal(10L).build().getPercentComplete());
+  }
+
+  @Test
+  public void estimated_completion_extrapolates_average_rate() {
+    // arrange
+    Job job =
+        Job.builder()
+            .startedAt(start)
+            .progressDone(25L)
+            .progressTotal(100L)
+            .progressUpdatedAt(start.plusMinutes(1))
+            .build();
+
+    // act and assert
+    assertEquals(start.plusMinutes(4), job.getEstimatedCompletionAt());
+  }
+
+  @Test
+  public void estimated_completion_of_finished_work_is_last_update() {
+    // arrange
+    Job job =
+        Job.builder()
+            .startedAt(start)
+            .progressDone(12L)
+            .progressTotal(10L)
+            .progressUpdatedAt(start.plusMinutes(1))
+            .build();
+
+    // act and assert
+    assertEquals(start.plusMinutes(1), job.getEstimatedCompletionAt());
+  }
+
+  @Test
+  public void estimated_completion_is_null_without_enough_progress() {
+    assertNull(Job.builder().startedAt(start).build().getEstimatedCompletionAt());
+    assertNull(
+        Job.builder()
+            .startedAt(start)
+            .progressDone(0L)
+            .progressTotal(10L)
+            .progressUpdatedAt(start)
+            .build()
+            .getEstimatedCompletionAt());
+    assertNull(
+        Job.builder()
+            .progressDone(1L)
+            .progressTotal(10L)
+            .progressUpdatedAt(start)
+            .build()
+            .getEstimatedCompletionAt());
+    assertNull(
+        Job.builder()
+            .startedAt(start)
+            .progressDone(1L)
+            .progressTotal(10L)
+            .build()
+            .getEstimatedCompletionAt());
+  }
+}
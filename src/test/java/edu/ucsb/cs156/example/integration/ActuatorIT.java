@@ -0,0 +1,57 @@
+package edu.ucsb.cs156.example.integration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+public class ActuatorIT {
+        @Autowired
+        public MockMvc mockMvc;
+
+        @Test
+        public void anonymous_user_cannot_read_prometheus_metrics() throws Exception {
+                mockMvc.perform(get("/actuator/prometheus"))
+                                .andExpect(status().isForbidden());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_cannot_read_metrics() throws Exception {
+                mockMvc.perform(get("/actuator/metrics"))
+                                .andExpect(status().isForbidden());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_read_prometheus_metrics() throws Exception {
+                mockMvc.perform(get("/actuator/prometheus"))
+                                .andExpect(status().isOk());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void mappings_are_not_exposed() throws Exception {
+                // the path then falls through to the frontend rather than the actuator
+                mockMvc.perform(get("/actuator/mappings"))
+                                .andExpect(content().string(not(containsString("dispatcherServlets"))));
+        }
+}
@@ -0,0 +1,59 @@
+package edu.ucsb.cs156.example.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import edu.ucsb.cs156.example.services.jobs.PersistableJob;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public class TestFanOutJobTests {
+
+  @Test
+  public void fans_out_to_parts_and_back_in_to_final_step() throws Exception {
+    // arrange
+    JobContext ctx = mock(JobContext.class);
+    Job part1 = Job.builder().id(2L).build();
+    Job part2 = Job.builder().id(3L).build();
+    when(ctx.spawn(any())).thenReturn(part1, part2);
+    when(ctx.spawnAfter(any(), any())).thenReturn(Job.builder().id(4L).build());
+    TestFanOutJob job = TestFanOutJob.builder().parts(2).sleepMs(50).fail(true).build();
+
+    // act
+    job.accept(ctx);
+
+    // assert
+    ArgumentCaptor<PersistableJob> parts = ArgumentCaptor.forClass(PersistableJob.class);
+    verify(ctx, times(2)).spawn(parts.capture());
+    TestJob first = (TestJob) parts.getAllValues().get(0);
+    TestJob last = (TestJob) parts.getAllValues().get(1);
+    assertEquals(50, first.getSleepMs());
+    assertFalse(first.getFail());
+    assertTrue(last.getFail());
+    verify(ctx, times(1)).spawnAfter(any(TestJob.class), eq(List.of(part1, part2)));
+    verify(ctx, times(1)).log("Started 2 parts: [2, 3]");
+    verify(ctx, times(1)).log("Final step: job 4");
+  }
+
+  @Test
+  public void does_not_fail_any_part_unless_asked() throws Exception {
+    // arrange
+    JobContext ctx = mock(JobContext.class);
+    when(ctx.spawn(any())).thenReturn(Job.builder().id(2L).build());
+    when(ctx.spawnAfter(any(), any())).thenReturn(Job.builder().id(3L).build());
+
+    // act
+    TestFanOutJob.builder().parts(1).sleepMs(0).build().accept(ctx);
+
+    // assert
+    ArgumentCaptor<PersistableJob> parts = ArgumentCaptor.forClass(PersistableJob.class);
+    verify(ctx, times(1)).spawn(parts.capture());
+    assertFalse(((TestJob) parts.getValue()).getFail());
+  }
+}
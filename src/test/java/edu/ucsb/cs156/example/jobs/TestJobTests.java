@@ -0,0 +1,42 @@
+package edu.ucsb.cs156.example.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import org.junit.jupiter.api.Test;
+
+public class TestJobTests {
+
+  @Test
+  public void sleeps_for_all_of_sleepMs_when_it_is_not_a_multiple_of_the_steps() throws Exception {
+    // arrange
+    JobContext ctx = mock(JobContext.class);
+    TestJob job = TestJob.builder().sleepMs(19).build();
+
+    // act
+    long startedAt = System.currentTimeMillis();
+    job.accept(ctx);
+    long elapsedMs = System.currentTimeMillis() - startedAt;
+
+    // assert
+    assertTrue(elapsedMs >= 19, "slept for %d ms".formatted(elapsedMs));
+    verify(ctx, times(10)).progress(anyLong(), eq(10L));
+    verify(ctx, times(1)).progress(10, 10);
+    verify(ctx, times(1)).log("Goodbye from test job!");
+  }
+
+  @Test
+  public void fails_when_asked_to() throws Exception {
+    // arrange
+    JobContext ctx = mock(JobContext.class);
+    TestJob job = TestJob.builder().fail(true).sleepMs(0).build();
+
+    // act
+    assertThrows(Exception.class, () -> job.accept(ctx));
+
+    // assert
+    verify(ctx, never()).log("Goodbye from test job!");
+  }
+}
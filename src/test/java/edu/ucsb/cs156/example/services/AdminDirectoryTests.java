@@ -0,0 +1,82 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class AdminDirectoryTests {
+
+  @Mock private UserRepository userRepository;
+
+  @InjectMocks private AdminDirectory adminDirectory;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    @SuppressWarnings("unchecked")
+    List<String> adminEmails =
+        (List<String>) ReflectionTestUtils.getField(adminDirectory, "adminEmails");
+    adminEmails.add("configured@example.org");
+    adminDirectory.hashAdminEmails();
+    when(userRepository.findAdminEmails()).thenReturn(List.of("stored@example.org"));
+  }
+
+  @Test
+  public void isConfiguredAdmin_checks_only_admin_emails() {
+    // act and assert
+    assertTrue(adminDirectory.isConfiguredAdmin("configured@example.org"));
+    assertFalse(adminDirectory.isConfiguredAdmin("stored@example.org"));
+    assertFalse(adminDirectory.isConfiguredAdmin(null));
+    verify(userRepository, never()).findAdminEmails();
+  }
+
+  @Test
+  public void isAdmin_reads_database_admins_once() {
+    // act and assert
+    assertTrue(adminDirectory.isAdmin("configured@example.org"));
+    assertTrue(adminDirectory.isAdmin("stored@example.org"));
+    assertFalse(adminDirectory.isAdmin("user@example.org"));
+    assertFalse(adminDirectory.isAdmin(null));
+    verify(userRepository, times(1)).findAdminEmails();
+  }
+
+  @Test
+  public void isAdmin_reads_database_admins_again_after_refresh() {
+    // arrange
+    adminDirectory.isAdmin("user@example.org");
+    when(userRepository.findAdminEmails()).thenReturn(List.of("user@example.org"));
+
+    // act
+    adminDirectory.refresh();
+    boolean admin = adminDirectory.isAdmin("user@example.org");
+
+    // assert
+    assertTrue(admin);
+    verify(userRepository, times(2)).findAdminEmails();
+  }
+
+  @Test
+  public void isAdmin_reads_database_admins_again_once_they_expire() {
+    // arrange
+    ReflectionTestUtils.setField(adminDirectory, "cacheTtlMs", -1L);
+
+    // act
+    adminDirectory.isAdmin("user@example.org");
+    adminDirectory.isAdmin("user@example.org");
+
+    // assert
+    verify(userRepository, times(2)).findAdminEmails();
+  }
+}
@@ -0,0 +1,97 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import edu.ucsb.cs156.example.entities.User;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class AuthAuditLogTests {
+
+  private final Logger logger = (Logger) LoggerFactory.getLogger("auth.audit");
+
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+  private final AuthAuditLog authAuditLog = new AuthAuditLog();
+
+  private final List<SimpleGrantedAuthority> roles =
+      List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+  private final User user = User.builder().id(7L).email("user@example.org").admin(true).build();
+
+  @BeforeEach
+  public void setup() {
+    appender.start();
+    logger.addAppender(appender);
+    logger.setLevel(Level.DEBUG);
+    ReflectionTestUtils.setField(authAuditLog, "sampleRate", 1.0);
+  }
+
+  @AfterEach
+  public void teardown() {
+    logger.detachAppender(appender);
+    logger.setLevel(null);
+  }
+
+  private List<String> messages() {
+    return appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+  }
+
+  @Test
+  public void logs_events_as_key_value_pairs() {
+    // act
+    authAuditLog.loggedIn("user@example.org", roles);
+    authAuditLog.userStored(user, true);
+    authAuditLog.authoritiesRead("user@example.org", roles);
+    authAuditLog.currentUserRead(user, roles);
+    authAuditLog.currentUserRead(null, List.of());
+
+    // assert
+    assertEquals(
+        List.of(
+            "event=login email=user@example.org roles=[ROLE_USER, ROLE_ADMIN]",
+            "event=user_stored user_id=7 email=user@example.org admin=true created=true",
+            "event=authorities_read principal=user@example.org roles=[ROLE_USER, ROLE_ADMIN]",
+            "event=current_user_read user_id=7 admin=true roles=[ROLE_USER, ROLE_ADMIN]",
+            "event=current_user_read user_id=null admin=null roles=[]"),
+        messages());
+  }
+
+  @Test
+  public void skips_request_events_that_are_not_sampled() {
+    // arrange
+    ReflectionTestUtils.setField(authAuditLog, "sampleRate", 0.0);
+
+    // act
+    authAuditLog.authoritiesRead("user@example.org", roles);
+    authAuditLog.currentUserRead(user, roles);
+    authAuditLog.loggedIn("user@example.org", roles);
+
+    // assert
+    assertEquals(List.of("event=login email=user@example.org roles=[ROLE_USER, ROLE_ADMIN]"), messages());
+  }
+
+  @Test
+  public void skips_events_below_the_logger_level() {
+    // arrange
+    logger.setLevel(Level.WARN);
+
+    // act
+    authAuditLog.loggedIn("user@example.org", roles);
+    authAuditLog.userStored(user, false);
+    authAuditLog.authoritiesRead("user@example.org", roles);
+    authAuditLog.currentUserRead(user, roles);
+
+    // assert
+    assertEquals(List.of(), messages());
+  }
+}
@@ -0,0 +1,281 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class CurrentUserServiceImplTests {
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private GrantedAuthoritiesService grantedAuthoritiesService;
+
+  @Mock private AdminDirectory adminDirectory;
+
+  @Mock private AuthAuditLog authAuditLog;
+
+  @InjectMocks private CurrentUserServiceImpl currentUserService;
+
+  private final User user = User.builder().id(1L).email("user@example.org").build();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    currentUserService.buildCache();
+
+    DefaultOAuth2User principal =
+        new DefaultOAuth2User(
+            List.of(new SimpleGrantedAuthority("ROLE_USER")),
+            Map.of("email", "user@example.org", "sub", "1234", "email_verified", true),
+            "email");
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new OAuth2AuthenticationToken(principal, principal.getAuthorities(), "google"));
+    when(userRepository.findByEmail("user@example.org")).thenReturn(Optional.of(user));
+  }
+
+  @AfterEach
+  public void teardown() {
+    SecurityContextHolder.clearContext();
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  private void startRequest() {
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+  }
+
+  @Test
+  public void getUser_returns_null_when_not_logged_in_with_oauth2() {
+    // arrange
+    SecurityContextHolder.clearContext();
+
+    // act
+    User result = currentUserService.getUser();
+
+    // assert
+    assertNull(result);
+  }
+
+  private void disableCache() {
+    ReflectionTestUtils.setField(currentUserService, "cacheTtlMs", 0L);
+    currentUserService.buildCache();
+  }
+
+  @Test
+  public void getUser_reads_the_database_once_per_request() {
+    // arrange
+    disableCache();
+    startRequest();
+
+    // act
+    User first = currentUserService.getUser();
+    User second = currentUserService.getUser();
+
+    // assert
+    assertSame(user, first);
+    assertSame(user, second);
+    verify(userRepository, times(1)).findByEmail("user@example.org");
+  }
+
+  @Test
+  public void getUser_reuses_cached_user_across_requests() {
+    // act
+    startRequest();
+    currentUserService.getUser();
+    startRequest();
+    User cached = currentUserService.getUser();
+
+    // assert
+    assertSame(user, cached);
+    verify(userRepository, times(1)).findByEmail("user@example.org");
+  }
+
+  @Test
+  public void getUser_reads_the_database_again_once_the_cached_user_expires() {
+    // arrange
+    disableCache();
+
+    // act
+    startRequest();
+    currentUserService.getUser();
+    startRequest();
+    currentUserService.getUser();
+
+    // assert
+    verify(userRepository, times(2)).findByEmail("user@example.org");
+  }
+
+  @Test
+  public void getCurrentUser_returns_user_and_roles() {
+    // arrange
+    List<SimpleGrantedAuthority> roles = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    doReturn(roles).when(grantedAuthoritiesService).getGrantedAuthorities();
+
+    // act
+    CurrentUser currentUser = currentUserService.getCurrentUser();
+
+    // assert
+    assertSame(user, currentUser.getUser());
+    assertEquals(roles, currentUser.getRoles());
+    verify(authAuditLog, times(1)).currentUserRead(user, roles);
+  }
+
+  @Test
+  public void getUser_only_reads_the_database() {
+    // act
+    currentUserService.getUser();
+
+    // assert
+    verify(userRepository, never()).save(any());
+  }
+
+  @Test
+  public void getUser_stores_user_whose_record_is_missing() {
+    // arrange
+    when(userRepository.findByEmail("user@example.org")).thenReturn(Optional.empty());
+
+    // act
+    User created = currentUserService.getUser();
+    User again = currentUserService.getUser();
+
+    // assert
+    assertEquals("user@example.org", created.getEmail());
+    assertEquals("1234", created.getGoogleSub());
+    assertTrue(created.getEmailVerified());
+    assertFalse(created.getAdmin());
+    assertSame(created, again);
+    verify(userRepository, times(1)).save(created);
+  }
+
+  @Test
+  public void userLoggedIn_stores_new_user() {
+    // arrange
+    when(userRepository.findByEmail("new@example.org")).thenReturn(Optional.empty());
+    when(adminDirectory.isConfiguredAdmin("new@example.org")).thenReturn(true);
+
+    // act
+    currentUserService.userLoggedIn(oAuthUser("new@example.org"));
+
+    // assert
+    ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+    verify(userRepository, times(1)).save(saved.capture());
+    assertEquals("new@example.org", saved.getValue().getEmail());
+    assertFalse(saved.getValue().getEmailVerified());
+    assertTrue(saved.getValue().getAdmin());
+    verify(authAuditLog, times(1)).userStored(saved.getValue(), true);
+  }
+
+  @Test
+  public void userLoggedIn_caches_the_user_it_stores() {
+    // arrange
+    when(userRepository.findByEmail("user@example.org")).thenReturn(Optional.empty());
+
+    // act
+    User stored = currentUserService.userLoggedIn(oAuthUser("user@example.org"));
+    startRequest();
+    User result = currentUserService.getUser();
+
+    // assert
+    assertSame(stored, result);
+    verify(userRepository, times(1)).findByEmail("user@example.org");
+  }
+
+  @Test
+  public void userLoggedIn_makes_existing_user_an_admin_and_caches_them() {
+    // arrange
+    when(adminDirectory.isConfiguredAdmin("user@example.org")).thenReturn(true);
+
+    // act
+    currentUserService.userLoggedIn(oAuthUser("user@example.org"));
+    startRequest();
+    User result = currentUserService.getUser();
+
+    // assert
+    assertSame(user, result);
+    assertTrue(user.getAdmin());
+    verify(userRepository, times(1)).save(user);
+    verify(adminDirectory, times(1)).refresh();
+    verify(authAuditLog, times(1)).userStored(user, false);
+    verify(userRepository, times(1)).findByEmail("user@example.org");
+  }
+
+  @Test
+  public void userLoggedIn_leaves_existing_user_that_needs_no_change() {
+    // act
+    currentUserService.userLoggedIn(oAuthUser("user@example.org"));
+
+    // assert
+    verify(userRepository, never()).save(any());
+  }
+
+  @Test
+  public void userLoggedIn_uses_user_stored_by_a_concurrent_login() {
+    // arrange
+    User other = User.builder().id(2L).email("new@example.org").build();
+    when(userRepository.findByEmail("new@example.org"))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(other));
+    when(userRepository.save(any())).thenThrow(new DataIntegrityViolationException("users_email_key"));
+
+    // act
+    currentUserService.userLoggedIn(oAuthUser("new@example.org"));
+
+    // assert
+    verify(userRepository, times(2)).findByEmail("new@example.org");
+  }
+
+  @Test
+  public void userLoggedIn_rethrows_when_no_concurrent_login_stored_the_user() {
+    // arrange
+    when(userRepository.findByEmail("new@example.org")).thenReturn(Optional.empty());
+    DataIntegrityViolationException e = new DataIntegrityViolationException("other");
+    when(userRepository.save(any())).thenThrow(e);
+
+    // act
+    DataIntegrityViolationException thrown =
+        assertThrows(
+            DataIntegrityViolationException.class,
+            () -> currentUserService.userLoggedIn(oAuthUser("new@example.org")));
+
+    // assert
+    assertSame(e, thrown);
+  }
+
+  private DefaultOAuth2User oAuthUser(String email) {
+    return new DefaultOAuth2User(
+        List.of(new SimpleGrantedAuthority("ROLE_USER")), Map.of("email", email), "email");
+  }
+}
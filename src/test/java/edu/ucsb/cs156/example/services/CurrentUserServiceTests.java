@@ -1,8 +1,11 @@
 package edu.ucsb.cs156.example.services;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.junit.jupiter.api.Test;
@@ -27,4 +30,11 @@ class CurrentUserServiceTests extends ControllerTestCase {
     assertTrue(currentUserService.isLoggedIn());
   }
 
+  @Test
+  void test_userLoggedIn_does_nothing_by_default() {
+    CurrentUserService currentUserService = mock(CurrentUserService.class, Answers.CALLS_REAL_METHODS);
+    assertNull(currentUserService.userLoggedIn(null));
+    verify(currentUserService, never()).getUser();
+  }
+
 }
@@ -4,18 +4,39 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
+import edu.ucsb.cs156.example.entities.CompressedJobLog;
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.CompressedJobLogsRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import edu.ucsb.cs156.example.services.jobs.JobLogBroadcaster;
+import edu.ucsb.cs156.example.services.jobs.JobLogCompressionService;
 import edu.ucsb.cs156.example.services.jobs.JobService;
+import edu.ucsb.cs156.example.services.jobs.RunningJobsRegistry;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.mockito.*;
 
 public class JobLogsServiceTests {
 
   @Mock private JobsRepository jobRepository;
 
+  @Mock private JobLogLinesRepository jobLogLinesRepository;
+
+  @Mock private RunningJobsRegistry runningJobsRegistry;
+
+  @Mock private JobLogCompressionService jobLogCompressionService;
+
+  @Spy private JobLogBroadcaster jobLogBroadcaster = new JobLogBroadcaster();
+
   @InjectMocks private JobService jobService;
 
   @BeforeEach
@@ -24,7 +45,28 @@ public class JobLogsServiceTests {
   }
 
   @Test
-  void test_getJobLogs_with_log() {
+  void test_getJobLogs_reassembles_log_lines() {
+    // Arrange
+    Long jobId = 4L;
+    Job job = Job.builder().id(jobId).build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, 0L, Limit.unlimited()))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(jobId).lineNumber(0L).message("").build(),
+                JobLogLine.builder().jobId(jobId).lineNumber(1L).message("line two").build(),
+                JobLogLine.builder().jobId(jobId).lineNumber(2L).message("line three").build()));
+
+    // Act
+    String result = jobService.getJobLogs(jobId);
+
+    // Assert
+    assertEquals("\nline two\nline three", result);
+  }
+
+  @Test
+  void test_getJobLogs_with_legacy_log() {
     // Arrange
     Long jobId = 1L;
     Job job = Job.builder().build();
@@ -62,4 +104,334 @@ public class JobLogsServiceTests {
     // Act & Assert
     assertThrows(IllegalArgumentException.class, () -> jobService.getJobLogs(jobId));
   }
+
+  @Test
+  void test_getJobLogs_window_reads_only_requested_lines() {
+    // Arrange
+    Long jobId = 4L;
+    Job job = Job.builder().id(jobId).build();
+    JobContext context = mock(JobContext.class);
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(runningJobsRegistry.get(jobId)).thenReturn(Optional.of(context));
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, 10L, Limit.of(2)))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(jobId).lineNumber(10L).message("ten").build(),
+                JobLogLine.builder().jobId(jobId).lineNumber(11L).message("eleven").build()));
+
+    // Act
+    String result = jobService.getJobLogs(jobId, 10L, 2);
+
+    // Assert
+    assertEquals("ten\neleven", result);
+    verify(context, times(1)).flush();
+  }
+
+  @Test
+  void test_getJobLogs_window_clamps_negative_values() {
+    // Arrange
+    Long jobId = 4L;
+    Job job = Job.builder().id(jobId).build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+
+    // Act
+    String result = jobService.getJobLogs(jobId, -5L, -1);
+
+    // Assert
+    assertEquals("", result);
+    verify(jobLogLinesRepository, times(1))
+        .findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(jobId, 0L, Limit.of(0));
+  }
+
+  @Test
+  void test_getJobLogs_window_of_legacy_log() {
+    // Arrange
+    Long jobId = 4L;
+    Job job = Job.builder().id(jobId).log("zero\none\ntwo\nthree").build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+
+    // Act & Assert
+    assertEquals("one\ntwo", jobService.getJobLogs(jobId, 1L, 2));
+    assertEquals("two\nthree", jobService.getJobLogs(jobId, 2L, null));
+    assertEquals("", jobService.getJobLogs(jobId, 0L, -3));
+    verifyNoInteractions(jobLogLinesRepository);
+  }
+
+  @Test
+  void test_getJobLogTail_reads_only_last_lines() {
+    // Arrange
+    Long jobId = 4L;
+    Job job = Job.builder().id(jobId).build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogLinesRepository.findAllByJobIdOrderByLineNumberDesc(jobId, Limit.of(2)))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(jobId).lineNumber(41L).message("last").build(),
+                JobLogLine.builder().jobId(jobId).lineNumber(40L).message("second last").build()));
+
+    // Act
+    String result = jobService.getJobLogTail(jobId, 2);
+
+    // Assert
+    assertEquals("second last\nlast", result);
+  }
+
+  @Test
+  void test_getJobLogTail_of_legacy_log() {
+    // Arrange
+    Long jobId = 4L;
+    Job job = Job.builder().id(jobId).log("zero\none\ntwo").build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+
+    // Act & Assert
+    assertEquals("one\ntwo", jobService.getJobLogTail(jobId, 2));
+    assertEquals("zero\none\ntwo", jobService.getJobLogTail(jobId, 10));
+    assertEquals("", jobService.getJobLogTail(jobId, -1));
+    verifyNoInteractions(jobLogLinesRepository);
+  }
+
+  @Test
+  void test_getJobLogs_window_of_compressed_log() {
+    // Arrange
+    Long jobId = 4L;
+    Job job = Job.builder().id(jobId).build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogCompressionService.findLines(jobId))
+        .thenAnswer(invocation -> Optional.of(Stream.of("zero", "one", "two", "three")));
+
+    // Act & Assert
+    assertEquals("one\ntwo", jobService.getJobLogs(jobId, 1L, 2));
+    assertEquals("two\nthree", jobService.getJobLogs(jobId, 2L, null));
+    assertEquals("", jobService.getJobLogs(jobId, 0L, -3));
+  }
+
+  @Test
+  void test_getJobLogs_window_past_end_of_uncompressed_log() {
+    // Arrange
+    Long jobId = 4L;
+    Job job = Job.builder().id(jobId).build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogCompressionService.findLines(jobId)).thenReturn(Optional.empty());
+
+    // Act
+    String result = jobService.getJobLogs(jobId, 100L, null);
+
+    // Assert
+    assertEquals("", result);
+    verify(jobLogCompressionService, times(1)).findLines(jobId);
+  }
+
+  @Test
+  void test_getJobLogTail_of_compressed_log() {
+    // Arrange
+    Long jobId = 4L;
+    Job job = Job.builder().id(jobId).build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogCompressionService.findLines(jobId))
+        .thenAnswer(invocation -> Optional.of(Stream.of("zero", "one", "two")));
+
+    // Act & Assert
+    assertEquals("one\ntwo", jobService.getJobLogTail(jobId, 2));
+    assertEquals("zero\none\ntwo", jobService.getJobLogTail(jobId, 10));
+    assertEquals("", jobService.getJobLogTail(jobId, 0));
+  }
+
+  @Test
+  void test_getJobLogTail_of_empty_uncompressed_log() {
+    // Arrange
+    Long jobId = 4L;
+    Job job = Job.builder().id(jobId).build();
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogCompressionService.findLines(jobId)).thenReturn(Optional.empty());
+
+    // Act
+    String result = jobService.getJobLogTail(jobId, 2);
+
+    // Assert
+    assertEquals("", result);
+  }
+
+  @Test
+  void test_getJobLogTail_job_not_found() {
+    // Arrange
+    when(jobRepository.findById(3L)).thenReturn(Optional.empty());
+
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> jobService.getJobLogTail(3L, 5));
+  }
+
+  @Test
+  void test_streamJobLogs_job_not_found() {
+    // Arrange
+    when(jobRepository.existsById(3L)).thenReturn(false);
+
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> jobService.streamJobLogs(3L, 0L));
+  }
+
+  @Test
+  void test_streamJobLogs_flushes_running_job_and_keeps_stream_open() {
+    // Arrange
+    Long jobId = 5L;
+    Job job = Job.builder().id(jobId).status("running").build();
+    JobContext context = mock(JobContext.class);
+    when(jobRepository.existsById(jobId)).thenReturn(true);
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(runningJobsRegistry.get(jobId)).thenReturn(Optional.of(context));
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, 0L))
+        .thenReturn(List.of());
+
+    // Act
+    jobService.streamJobLogs(jobId, 0L);
+
+    // Assert
+    verify(context, times(1)).flush();
+    verify(jobLogBroadcaster, never()).complete(anyLong());
+  }
+
+  @Test
+  void test_streamJobLogs_job_deleted_while_subscribing() {
+    // Arrange
+    Long jobId = 6L;
+    when(jobRepository.existsById(jobId)).thenReturn(true);
+    when(jobRepository.findById(jobId)).thenReturn(Optional.empty());
+    when(runningJobsRegistry.get(jobId)).thenReturn(Optional.empty());
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, 0L))
+        .thenReturn(List.of());
+
+    // Act
+    jobService.streamJobLogs(jobId, 0L);
+
+    // Assert
+    verify(jobLogLinesRepository, times(1))
+        .findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(jobId, 0L);
+  }
+
+  @Test
+  void test_tailRemoteLogStreams_sends_stored_lines_of_job_running_elsewhere() {
+    // Arrange
+    Long jobId = 7L;
+    JobLogLine line = JobLogLine.builder().jobId(jobId).lineNumber(3L).message("three").build();
+    doReturn(Map.of(jobId, 3L)).when(jobLogBroadcaster).streamedJobs();
+    when(runningJobsRegistry.get(jobId)).thenReturn(Optional.empty());
+    when(jobRepository.findById(jobId))
+        .thenReturn(Optional.of(Job.builder().id(jobId).status("running").build()));
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, 3L, Limit.of(1000)))
+        .thenReturn(List.of(line));
+
+    // Act
+    jobService.tailRemoteLogStreams();
+
+    // Assert
+    verify(jobLogBroadcaster, times(1)).publish(line);
+    verify(jobLogBroadcaster, never()).complete(anyLong());
+  }
+
+  @Test
+  void test_tailRemoteLogStreams_ends_stream_of_finished_job_after_its_last_lines() {
+    // Arrange
+    ReflectionTestUtils.setField(jobService, "logStreamBufferLines", 2);
+    Long jobId = 8L;
+    List<JobLogLine> firstTwo =
+        List.of(
+            JobLogLine.builder().jobId(jobId).lineNumber(0L).message("zero").build(),
+            JobLogLine.builder().jobId(jobId).lineNumber(1L).message("one").build());
+    List<JobLogLine> last =
+        List.of(JobLogLine.builder().jobId(jobId).lineNumber(2L).message("two").build());
+    doReturn(Map.of(jobId, 0L), Map.of(jobId, 2L)).when(jobLogBroadcaster).streamedJobs();
+    when(runningJobsRegistry.get(jobId)).thenReturn(Optional.empty());
+    when(jobRepository.findById(jobId))
+        .thenReturn(Optional.of(Job.builder().id(jobId).status("complete").build()));
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, 0L, Limit.of(2)))
+        .thenReturn(firstTwo);
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, 2L, Limit.of(2)))
+        .thenReturn(last);
+
+    // Act & Assert
+    jobService.tailRemoteLogStreams();
+    verify(jobLogBroadcaster, never()).complete(anyLong());
+
+    jobService.tailRemoteLogStreams();
+    verify(jobLogBroadcaster, times(1)).complete(jobId);
+    verify(jobLogBroadcaster, times(3)).publish(any(JobLogLine.class));
+  }
+
+  @Test
+  void test_tailRemoteLogStreams_ends_stream_of_deleted_job() {
+    // Arrange
+    Long jobId = 9L;
+    doReturn(Map.of(jobId, 0L)).when(jobLogBroadcaster).streamedJobs();
+    when(runningJobsRegistry.get(jobId)).thenReturn(Optional.empty());
+    when(jobRepository.findById(jobId)).thenReturn(Optional.empty());
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            jobId, 0L, Limit.of(1000)))
+        .thenReturn(List.of());
+
+    // Act
+    jobService.tailRemoteLogStreams();
+
+    // Assert
+    verify(jobLogBroadcaster, times(1)).complete(jobId);
+  }
+
+  @Test
+  void test_tailRemoteLogStreams_skips_jobs_running_here() {
+    // Arrange
+    Long jobId = 10L;
+    doReturn(Map.of(jobId, 0L)).when(jobLogBroadcaster).streamedJobs();
+    when(runningJobsRegistry.get(jobId)).thenReturn(Optional.of(mock(JobContext.class)));
+
+    // Act
+    jobService.tailRemoteLogStreams();
+
+    // Assert
+    verify(jobRepository, never()).findById(anyLong());
+    verify(jobLogBroadcaster, never()).publish(any());
+  }
+
+  @Test
+  void test_getJobLogs_pages_compressed_log_with_multi_line_message() {
+    // Arrange: compress a log with a real JobLogCompressionService
+    Long jobId = 9L;
+    JobLogLinesRepository linesToCompress = mock(JobLogLinesRepository.class);
+    CompressedJobLogsRepository compressedJobLogsRepository =
+        mock(CompressedJobLogsRepository.class);
+    JobLogCompressionService compressionService = new JobLogCompressionService();
+    ReflectionTestUtils.setField(compressionService, "jobLogLinesRepository", linesToCompress);
+    ReflectionTestUtils.setField(
+        compressionService, "compressedJobLogsRepository", compressedJobLogsRepository);
+    ReflectionTestUtils.setField(compressionService, "compressMinLength", 1L);
+    when(linesToCompress.sumMessageLengthByJobId(jobId)).thenReturn(100L);
+    when(linesToCompress.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(jobId, 0L))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(jobId).lineNumber(0L).message("first").build(),
+                JobLogLine.builder()
+                    .jobId(jobId)
+                    .lineNumber(1L)
+                    .message("stack trace:\n  at one\n  at two")
+                    .build(),
+                JobLogLine.builder().jobId(jobId).lineNumber(2L).message("third").build(),
+                JobLogLine.builder().jobId(jobId).lineNumber(3L).message("fourth").build()));
+    compressionService.compress(jobId);
+    ArgumentCaptor<CompressedJobLog> compressed = ArgumentCaptor.forClass(CompressedJobLog.class);
+    verify(compressedJobLogsRepository).save(compressed.capture());
+    when(compressedJobLogsRepository.findById(jobId))
+        .thenReturn(Optional.of(compressed.getValue()));
+
+    ReflectionTestUtils.setField(jobService, "jobLogCompressionService", compressionService);
+    when(jobRepository.findById(jobId))
+        .thenReturn(Optional.of(Job.builder().id(jobId).status("complete").build()));
+
+    // Act & Assert: the lines keep the numbers they were logged with
+    assertEquals("third\nfourth", jobService.getJobLogs(jobId, 2L, 5));
+    assertEquals("stack trace:\n  at one\n  at two", jobService.getJobLogs(jobId, 1L, 1));
+    assertEquals("fourth", jobService.getJobLogTail(jobId, 1));
+  }
 }
@@ -0,0 +1,126 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobDependency;
+import edu.ucsb.cs156.example.repositories.JobArchivesRepository;
+import edu.ucsb.cs156.example.repositories.JobDependenciesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.wiremock.WiremockService;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Tests of how JobArchiveService treats dependencies between jobs, against the real repositories. */
+@DataJpaTest
+@Import({JobArchiveService.class, JobLogCompressionService.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JobArchiveServiceDependenciesTests {
+
+  @Autowired private JobArchiveService jobArchiveService;
+
+  @Autowired private JobsRepository jobsRepository;
+
+  @Autowired private JobDependenciesRepository jobDependenciesRepository;
+
+  @Autowired private JobArchivesRepository jobArchivesRepository;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  // needed by ExampleApplication, which the slice still loads
+  @MockitoBean private WiremockService wiremockService;
+
+  @BeforeEach
+  public void setup() {
+    jobDependenciesRepository.deleteAllDependencies();
+    jobsRepository.deleteAllJobs();
+    jobArchivesRepository.deleteAll();
+  }
+
+  @Test
+  public void archiveBatch_deletes_dependencies_on_archived_jobs() {
+    // arrange
+    Job part = jobsRepository.save(Job.builder().status("complete").build());
+    Job finalStep = jobsRepository.save(Job.builder().status("complete").build());
+    jobDependenciesRepository.save(
+        JobDependency.builder().jobId(finalStep.getId()).dependsOnJobId(part.getId()).build());
+
+    // act
+    int archived = jobArchiveService.archiveBatch(ZonedDateTime.now().plusDays(1));
+
+    // assert
+    assertEquals(2, archived);
+    assertEquals(0, jobDependenciesRepository.count());
+    assertEquals(0, jobsRepository.count());
+  }
+
+  @Test
+  public void archiveBatch_keeps_jobs_that_a_waiting_job_waits_for() {
+    // arrange
+    Job part = jobsRepository.save(Job.builder().status("error").build());
+    Job finalStep = jobsRepository.save(Job.builder().status("waiting").build());
+    Job other = jobsRepository.save(Job.builder().status("complete").build());
+    jobDependenciesRepository.save(
+        JobDependency.builder().jobId(finalStep.getId()).dependsOnJobId(part.getId()).build());
+
+    // act
+    int archived = jobArchiveService.archiveBatch(ZonedDateTime.now().plusDays(1));
+
+    // assert
+    assertEquals(1, archived);
+    List<Long> remaining = new ArrayList<>();
+    jobsRepository.findAll().forEach(job -> remaining.add(job.getId()));
+    assertEquals(List.of(part.getId(), finalStep.getId()), remaining);
+    assertEquals(1, jobDependenciesRepository.count());
+    assertTrue(jobArchivesRepository.existsById(other.getId()));
+  }
+
+  @Test
+  public void findFinishedBefore_locks_batch_until_transaction_ends() {
+    // arrange
+    Job locked = jobsRepository.save(Job.builder().status("complete").build());
+    ZonedDateTime cutoff = ZonedDateTime.now().plusDays(1);
+
+    // act: another instance tries to archive the job while this transaction holds the batch
+    CompletionException thrown =
+        new TransactionTemplate(transactionManager)
+            .execute(
+                status -> {
+                  assertEquals(
+                      List.of(locked.getId()),
+                      jobsRepository.findFinishedBefore(cutoff, Limit.of(1)).stream()
+                          .map(Job::getId)
+                          .toList());
+                  return assertThrows(
+                      CompletionException.class,
+                      () ->
+                          CompletableFuture.runAsync(() -> jobsRepository.deleteById(locked.getId()))
+                              .orTimeout(10, TimeUnit.SECONDS)
+                              .join());
+                });
+
+    // assert
+    assertInstanceOf(PessimisticLockingFailureException.class, thrown.getCause());
+    assertTrue(jobsRepository.existsById(locked.getId()));
+  }
+}
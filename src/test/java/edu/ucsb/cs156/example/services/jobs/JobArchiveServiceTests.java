@@ -0,0 +1,214 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.CompressedJobLog;
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobArchive;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.CompressedJobLogsRepository;
+import edu.ucsb.cs156.example.repositories.JobArchivesRepository;
+import edu.ucsb.cs156.example.repositories.JobDependenciesRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobArchiveServiceTests {
+
+  @Mock private JobsRepository jobsRepository;
+
+  @Mock private JobLogLinesRepository jobLogLinesRepository;
+
+  @Mock private JobArchivesRepository jobArchivesRepository;
+
+  @Mock private CompressedJobLogsRepository compressedJobLogsRepository;
+
+  @Mock private JobDependenciesRepository jobDependenciesRepository;
+
+  @Mock private JobLogCompressionService jobLogCompressionService;
+
+  @Spy private ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+  @InjectMocks private JobArchiveService jobArchiveService;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobArchiveService, "self", jobArchiveService);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void archiveBatch_archives_jobs_with_their_logs_and_deletes_them() throws Exception {
+    // arrange
+    ZonedDateTime cutoff = ZonedDateTime.now().minusDays(30);
+    Job job1 = Job.builder().id(1L).status("complete").jobType("TestJob").build();
+    Job job2 = Job.builder().id(2L).status("error").build();
+    when(jobsRepository.findFinishedBefore(cutoff, Limit.of(100))).thenReturn(List.of(job1, job2));
+    when(jobLogLinesRepository.findAllByJobIdInOrderByJobIdAscLineNumberAsc(List.of(1L, 2L)))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(1L).lineNumber(0L).message("first").build(),
+                JobLogLine.builder().jobId(1L).lineNumber(1L).message("second").build()));
+
+    // act
+    int archived = jobArchiveService.archiveBatch(cutoff);
+
+    // assert
+    assertEquals(2, archived);
+    ArgumentCaptor<List<JobArchive>> captor = ArgumentCaptor.forClass(List.class);
+    verify(jobArchivesRepository, times(1)).saveAll(captor.capture());
+    List<JobArchive> archives = captor.getValue();
+    assertEquals(2, archives.size());
+    assertEquals(1L, archives.get(0).getId());
+    assertEquals("complete", archives.get(0).getStatus());
+    assertEquals("TestJob", archives.get(0).getJobType());
+    assertEquals(2, archives.get(0).getLogLines());
+    assertEquals(0, archives.get(1).getLogLines());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    jobArchiveService.writeArchive(archives.get(0), out);
+    JsonNode json = mapper.readTree(out.toByteArray());
+    assertEquals(1L, json.get("job").get("id").asLong());
+    assertEquals("first", json.get("log").get(0).asText());
+    assertEquals("second", json.get("log").get(1).asText());
+
+    verify(jobLogLinesRepository, times(1)).deleteAllByJobIdIn(List.of(1L, 2L));
+    verify(compressedJobLogsRepository, times(1)).deleteAllByJobIdIn(List.of(1L, 2L));
+    verify(jobDependenciesRepository, times(1)).deleteAllByJobIdIn(List.of(1L, 2L));
+    verify(jobDependenciesRepository, times(1)).deleteAllByDependsOnJobIdIn(List.of(1L, 2L));
+    verify(jobsRepository, times(1)).deleteAllByIdIn(List.of(1L, 2L));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void archiveBatch_archives_compressed_logs() throws Exception {
+    // arrange
+    ZonedDateTime cutoff = ZonedDateTime.now().minusDays(30);
+    Job job = Job.builder().id(3L).status("complete").build();
+    CompressedJobLog compressed = CompressedJobLog.builder().jobId(3L).build();
+    when(jobsRepository.findFinishedBefore(cutoff, Limit.of(100))).thenReturn(List.of(job));
+    when(compressedJobLogsRepository.findAllById(List.of(3L))).thenReturn(List.of(compressed));
+    when(jobLogCompressionService.lines(compressed)).thenReturn(Stream.of("a", "b", "c"));
+
+    // act
+    jobArchiveService.archiveBatch(cutoff);
+
+    // assert
+    ArgumentCaptor<List<JobArchive>> captor = ArgumentCaptor.forClass(List.class);
+    verify(jobArchivesRepository, times(1)).saveAll(captor.capture());
+    JobArchive archive = captor.getValue().get(0);
+    assertEquals(3, archive.getLogLines());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    jobArchiveService.writeArchive(archive, out);
+    assertEquals("c", mapper.readTree(out.toByteArray()).get("log").get(2).asText());
+  }
+
+  @Test
+  public void archiveBatch_does_nothing_when_no_jobs_are_old_enough() {
+    // arrange
+    when(jobsRepository.findFinishedBefore(any(), any())).thenReturn(List.of());
+
+    // act
+    int archived = jobArchiveService.archiveBatch(ZonedDateTime.now());
+
+    // assert
+    assertEquals(0, archived);
+    verify(jobArchivesRepository, never()).saveAll(any());
+    verify(jobsRepository, never()).deleteAllByIdIn(any());
+  }
+
+  @Test
+  public void archiveBatch_throws_when_archive_cannot_be_written() throws Exception {
+    // arrange
+    Job job = Job.builder().id(1L).build();
+    when(jobsRepository.findFinishedBefore(any(), any())).thenReturn(List.of(job));
+    doThrow(new IOException("disk full")).when(mapper).writeValue(any(OutputStream.class), any());
+
+    // act and assert
+    assertThrows(UncheckedIOException.class, () -> jobArchiveService.archiveBatch(ZonedDateTime.now()));
+    verify(jobsRepository, never()).deleteAllByIdIn(any());
+  }
+
+  @Test
+  public void applyRetention_archives_batches_until_one_is_not_full() {
+    // arrange
+    ReflectionTestUtils.setField(jobArchiveService, "batchSize", 1);
+    when(jobsRepository.findFinishedBefore(any(), any()))
+        .thenReturn(List.of(Job.builder().id(1L).build()))
+        .thenReturn(List.of(Job.builder().id(2L).build()))
+        .thenReturn(List.of());
+    when(jobArchivesRepository.deleteAllArchivedBefore(any())).thenReturn(3);
+
+    // act
+    jobArchiveService.applyRetention();
+
+    // assert
+    verify(jobsRepository, times(3)).findFinishedBefore(any(), eq(Limit.of(1)));
+    verify(jobsRepository, times(1)).deleteAllByIdIn(List.of(1L));
+    verify(jobsRepository, times(1)).deleteAllByIdIn(List.of(2L));
+    verify(jobArchivesRepository, times(1)).deleteAllArchivedBefore(any());
+  }
+
+  @Test
+  public void applyRetention_stops_after_max_batches_per_run() {
+    // arrange
+    ReflectionTestUtils.setField(jobArchiveService, "batchSize", 1);
+    ReflectionTestUtils.setField(jobArchiveService, "maxBatchesPerRun", 2);
+    when(jobsRepository.findFinishedBefore(any(), any()))
+        .thenReturn(List.of(Job.builder().id(1L).build()));
+
+    // act
+    jobArchiveService.applyRetention();
+
+    // assert
+    verify(jobsRepository, times(2)).findFinishedBefore(any(), any());
+  }
+
+  @Test
+  public void applyRetention_with_nothing_to_archive_or_delete() {
+    // arrange
+    when(jobsRepository.findFinishedBefore(any(), any())).thenReturn(List.of());
+
+    // act
+    jobArchiveService.applyRetention();
+
+    // assert
+    verify(jobsRepository, times(1)).findFinishedBefore(any(), any());
+    verify(jobArchivesRepository, times(1)).deleteAllArchivedBefore(any());
+  }
+
+  @Test
+  public void applyRetention_can_be_disabled() {
+    // arrange
+    ReflectionTestUtils.setField(jobArchiveService, "retentionDays", 0);
+    ReflectionTestUtils.setField(jobArchiveService, "archiveDays", 0);
+
+    // act
+    jobArchiveService.applyRetention();
+
+    // assert
+    verify(jobsRepository, never()).findFinishedBefore(any(), any());
+    verify(jobArchivesRepository, never()).deleteAllArchivedBefore(any());
+  }
+}
@@ -0,0 +1,78 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.services.wiremock.WiremockService;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Tests of JobContext.flush against the real repository, each write in its own transaction. */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JobContextFlushTests {
+
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  // needed by ExampleApplication, which the slice still loads
+  @MockitoBean private WiremockService wiremockService;
+
+  @Test
+  public void failed_flush_is_written_by_the_next_flush() {
+    // arrange: the first write gives the lines ids and is then rolled back, as when the commit
+    // fails; later writes go to the database
+    JobLogLinesRepository failsOnce =
+        mock(JobLogLinesRepository.class, AdditionalAnswers.delegatesTo(jobLogLinesRepository));
+    doAnswer(
+            invocation -> {
+              new TransactionTemplate(transactionManager)
+                  .executeWithoutResult(
+                      status -> {
+                        jobLogLinesRepository.saveAll(invocation.<List<JobLogLine>>getArgument(0));
+                        status.setRollbackOnly();
+                      });
+              throw new DataAccessResourceFailureException("connection lost");
+            })
+        .doAnswer(AdditionalAnswers.delegatesTo(jobLogLinesRepository))
+        .when(failsOnce)
+        .saveAll(any());
+    JobContext ctx =
+        JobContext.builder()
+            .job(Job.builder().id(21L).build())
+            .jobLogLinesRepository(failsOnce)
+            .flushSize(100)
+            .build();
+    ctx.log("first");
+    ctx.log("second");
+
+    // act
+    assertThrows(DataAccessResourceFailureException.class, ctx::flush);
+    ctx.flush();
+
+    // assert
+    List<String> stored =
+        jobLogLinesRepository
+            .findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(21L, 0L, Limit.unlimited())
+            .stream()
+            .map(JobLogLine::getMessage)
+            .toList();
+    assertEquals(List.of("first", "second"), stored);
+  }
+}
@@ -1,24 +1,345 @@
 package edu.ucsb.cs156.example.services.jobs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.errors.JobCancelledException;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.Test;
 
 
 public class JobContextTests {
   @Test
-  public void when_jobs_repository_is_null_does_not_save() throws Exception {
+  public void spawn_and_spawnAfter_start_child_jobs_of_this_job() {
+    // arrange
+    JobService jobService = mock(JobService.class);
+    Job job = Job.builder().id(7L).build();
+    Job part = Job.builder().id(8L).build();
+    Job finalStep = Job.builder().id(9L).build();
+    TestJob partFunction = TestJob.builder().build();
+    TestJob finalFunction = TestJob.builder().build();
+    when(jobService.runAsChildJob(job, partFunction, List.of())).thenReturn(part);
+    when(jobService.runAsChildJob(job, finalFunction, List.of(part))).thenReturn(finalStep);
+    JobContext ctx = JobContext.builder().job(job).jobService(jobService).build();
+
+    // act
+    Job spawned = ctx.spawn(partFunction);
+    Job spawnedAfter = ctx.spawnAfter(finalFunction, List.of(spawned));
+
+    // assert
+    assertEquals(part, spawned);
+    assertEquals(finalStep, spawnedAfter);
+  }
+
+  @Test
+  public void when_log_lines_repository_is_null_does_not_save() throws Exception {
 
     // arrange
 
     Job job1 = Job.builder().build();
-    JobContext ctx = new JobContext(null, job1);
+    JobContext ctx = JobContext.builder().job(job1).flushSize(1).build();
 
     // act
     ctx.log("This is a log message");
 
     // assert
-    assertEquals("This is a log message", job1.getLog());
+    assertNull(job1.getLog());
+  }
+
+  @Test
+  public void log_with_flush_size_one_writes_each_line_without_saving_job() throws Exception {
+
+    // arrange
+
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    JobLogLinesRepository jobLogLinesRepository = mock(JobLogLinesRepository.class);
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobsRepository(jobsRepository)
+            .jobLogLinesRepository(jobLogLinesRepository)
+            .job(job1)
+            .flushSize(1)
+            .build();
+
+    // act
+    ctx.log("first");
+    ctx.log("second");
+
+    // assert
+    verify(jobLogLinesRepository).saveAll(eq(List.of(line(7L, 0L, "first"))));
+    verify(jobLogLinesRepository).saveAll(eq(List.of(line(7L, 1L, "second"))));
+    verify(jobsRepository, never()).save(any(Job.class));
+    assertNull(job1.getLog());
+  }
+
+  @Test
+  public void log_buffers_lines_until_flush_size_is_reached() throws Exception {
+
+    // arrange
+
+    JobLogLinesRepository jobLogLinesRepository = mock(JobLogLinesRepository.class);
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobLogLinesRepository(jobLogLinesRepository)
+            .job(job1)
+            .flushSize(3)
+            .build();
+
+    // act
+    ctx.log("first");
+    ctx.log("second");
+
+    // assert
+    verify(jobLogLinesRepository, never()).saveAll(anyList());
+
+    // act
+    ctx.log("third");
+
+    // assert
+    verify(jobLogLinesRepository, times(1))
+        .saveAll(
+            eq(List.of(line(7L, 0L, "first"), line(7L, 1L, "second"), line(7L, 2L, "third"))));
+  }
+
+  @Test
+  public void flush_writes_partial_buffer_and_does_nothing_when_empty() throws Exception {
+
+    // arrange
+
+    JobLogLinesRepository jobLogLinesRepository = mock(JobLogLinesRepository.class);
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobLogLinesRepository(jobLogLinesRepository)
+            .job(job1)
+            .flushSize(100)
+            .build();
+
+    // act
+    ctx.flush();
+    ctx.log("first");
+    ctx.flush();
+    ctx.flush();
+
+    // assert
+    verify(jobLogLinesRepository, times(1)).saveAll(eq(List.of(line(7L, 0L, "first"))));
+  }
+
+  @Test
+  public void failed_flush_keeps_lines_for_the_next_flush() throws Exception {
+
+    // arrange
+
+    JobLogLinesRepository jobLogLinesRepository = mock(JobLogLinesRepository.class);
+    when(jobLogLinesRepository.saveAll(anyList()))
+        .thenThrow(new RuntimeException("database unavailable"))
+        .thenReturn(List.of());
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobLogLinesRepository(jobLogLinesRepository)
+            .job(job1)
+            .flushSize(100)
+            .build();
+    ctx.log("first");
+
+    // act
+    assertThrows(RuntimeException.class, ctx::flush);
+    ctx.log("second");
+    ctx.flush();
+
+    // assert
+    verify(jobLogLinesRepository, times(1))
+        .saveAll(eq(List.of(line(7L, 0L, "first"), line(7L, 1L, "second"))));
+  }
+
+  @Test
+  public void log_publishes_each_line_before_it_is_flushed() throws Exception {
+
+    // arrange
+
+    JobLogBroadcaster broadcaster = mock(JobLogBroadcaster.class);
+    JobLogLinesRepository jobLogLinesRepository = mock(JobLogLinesRepository.class);
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobLogLinesRepository(jobLogLinesRepository)
+            .jobLogBroadcaster(broadcaster)
+            .job(job1)
+            .flushSize(100)
+            .build();
+
+    // act
+    ctx.log("first");
+
+    // assert
+    verify(broadcaster, times(1)).publish(eq(line(7L, 0L, "first")));
+    verify(jobLogLinesRepository, never()).saveAll(anyList());
+  }
+
+  @Test
+  public void progress_is_written_at_most_once_per_interval() throws Exception {
+
+    // arrange
+
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    ZonedDateTime startedAt = ZonedDateTime.now();
+    Job job1 = Job.builder().id(7L).startedAt(startedAt).build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobsRepository(jobsRepository)
+            .job(job1)
+            .flushSize(100)
+            .progressIntervalMs(3600000)
+            .build();
+
+    // act
+    ctx.progress(1, 10);
+    ctx.progress(2, 10);
+    ctx.flush();
+
+    // assert
+    verify(jobsRepository, times(1))
+        .updateProgress(eq(7L), eq(startedAt), eq(1L), eq(10L), any(ZonedDateTime.class));
+    verify(jobsRepository, times(1)).updateProgress(anyLong(), any(), anyLong(), anyLong(), any());
+    assertEquals(2L, job1.getProgressDone());
+    assertEquals(10L, job1.getProgressTotal());
+    assertNotNull(job1.getProgressUpdatedAt());
+  }
+
+  @Test
+  public void flush_writes_progress_reported_since_the_last_write() throws Exception {
+
+    // arrange
+
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobsRepository(jobsRepository)
+            .job(job1)
+            .flushSize(100)
+            .progressIntervalMs(0)
+            .build();
+
+    // act
+    ctx.flush();
+    ctx.progress(1, 10);
+    ctx.flush();
+    ctx.progress(2, 10);
+    ctx.flush();
+
+    // assert
+    verify(jobsRepository, times(1)).updateProgress(eq(7L), any(), eq(1L), eq(10L), any());
+    verify(jobsRepository, times(1)).updateProgress(eq(7L), any(), eq(2L), eq(10L), any());
+  }
+
+  @Test
+  public void progress_without_jobs_repository_only_updates_job() throws Exception {
+
+    // arrange
+
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx = JobContext.builder().job(job1).flushSize(1).build();
+
+    // act
+    ctx.progress(5, 10);
+
+    // assert
+    assertEquals(50.0, job1.getPercentComplete());
+  }
+
+  @Test
+  public void cancel_interrupts_attached_thread_once() throws Exception {
+
+    // arrange
+
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx = JobContext.builder().job(job1).flushSize(1).build();
+    CountDownLatch attached = new CountDownLatch(1);
+    AtomicReference<Exception> stoppedBy = new AtomicReference<>();
+    Thread thread =
+        new Thread(
+            () -> {
+              ctx.attach();
+              attached.countDown();
+              try {
+                Thread.sleep(60000);
+              } catch (InterruptedException e) {
+                stoppedBy.set(e);
+              }
+            });
+    thread.start();
+    attached.await();
+
+    // act
+    ctx.cancel("timeout", "Job timed out after 5 ms");
+    ctx.cancel("cancelled", "Job cancelled");
+    thread.join(10000);
+
+    // assert
+    assertInstanceOf(InterruptedException.class, stoppedBy.get());
+    assertTrue(ctx.isCancelled());
+    assertTrue(job1.getCancelRequested());
+    assertEquals("timeout", ctx.getCancelStatus());
+    assertEquals("Job timed out after 5 ms", ctx.getCancelReason());
+    JobCancelledException e = assertThrows(JobCancelledException.class, ctx::checkCancelled);
+    assertEquals("Job timed out after 5 ms", e.getMessage());
+  }
+
+  @Test
+  public void detach_clears_interrupt_and_stops_later_interrupts() throws Exception {
+
+    // arrange
+
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx = JobContext.builder().job(job1).flushSize(1).build();
+    ctx.attach();
+    Thread.currentThread().interrupt();
+
+    // act
+    ctx.detach();
+    ctx.cancel("cancelled", "Job cancelled");
+
+    // assert
+    assertFalse(Thread.currentThread().isInterrupted());
+    assertTrue(ctx.isCancelled());
+  }
+
+  @Test
+  public void checkCancelled_does_nothing_while_job_may_continue() throws Exception {
+
+    // arrange
+
+    JobContext ctx = JobContext.builder().job(Job.builder().build()).flushSize(1).build();
+
+    // act
+    ctx.checkCancelled();
+
+    // assert
+    assertFalse(ctx.isCancelled());
+  }
+
+  private JobLogLine line(long jobId, long lineNumber, String message) {
+    return JobLogLine.builder().jobId(jobId).lineNumber(lineNumber).message(message).build();
   }
 
 }
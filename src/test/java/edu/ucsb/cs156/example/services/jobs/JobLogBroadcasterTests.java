@@ -0,0 +1,286 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+public class JobLogBroadcasterTests {
+
+  private JobLogBroadcaster broadcaster;
+  private SseEmitter emitter;
+
+  @BeforeEach
+  public void setup() {
+    // send on the publishing thread, so that each test sees what was sent when its calls return
+    broadcaster = new JobLogBroadcaster(Runnable::run);
+    emitter = mock(SseEmitter.class);
+  }
+
+  private JobLogLine line(long jobId, long lineNumber, String message) {
+    return JobLogLine.builder().jobId(jobId).lineNumber(lineNumber).message(message).build();
+  }
+
+  private String sent(SseEmitter emitter) throws IOException {
+    ArgumentCaptor<SseEventBuilder> captor = ArgumentCaptor.forClass(SseEventBuilder.class);
+    verify(emitter, atLeast(0)).send(captor.capture());
+    return captor.getAllValues().stream()
+        .flatMap(event -> event.build().stream())
+        .map(data -> data.getData().toString())
+        .collect(Collectors.joining());
+  }
+
+  @Test
+  public void lines_published_during_replay_are_sent_after_history_without_duplicates()
+      throws Exception {
+    // arrange
+    JobLogBroadcaster.Subscriber subscriber = broadcaster.subscribe(1L, 1L, emitter);
+
+    // act
+    broadcaster.publish(line(1L, 2L, "two"));
+    broadcaster.publish(line(1L, 3L, "three"));
+    subscriber.replay(List.of(line(1L, 1L, "one"), line(1L, 2L, "two")));
+    broadcaster.publish(line(1L, 4L, "four"));
+
+    // assert
+    assertEquals(
+        "id:1\ndata:one\n\nid:2\ndata:two\n\nid:3\ndata:three\n\nid:4\ndata:four\n\n",
+        sent(emitter));
+  }
+
+  @Test
+  public void lines_before_the_requested_line_and_of_other_jobs_are_not_sent() throws Exception {
+    // arrange
+    JobLogBroadcaster.Subscriber subscriber = broadcaster.subscribe(1L, 2L, emitter);
+
+    // act
+    subscriber.replay(List.of(line(1L, 0L, "zero"), line(1L, 1L, "one"), line(1L, 2L, "two")));
+    broadcaster.publish(line(2L, 3L, "other job"));
+
+    // assert
+    assertEquals("id:2\ndata:two\n\n", sent(emitter));
+  }
+
+  @Test
+  public void complete_during_replay_ends_stream_after_replay() throws Exception {
+    // arrange
+    JobLogBroadcaster.Subscriber subscriber = broadcaster.subscribe(1L, 0L, emitter);
+
+    // act
+    broadcaster.complete(1L);
+
+    // assert
+    verify(emitter, never()).complete();
+
+    // act
+    subscriber.replay(List.of(line(1L, 0L, "zero")));
+    subscriber.complete();
+
+    // assert
+    verify(emitter, times(1)).complete();
+    assertEquals("id:0\ndata:zero\n\n", sent(emitter));
+  }
+
+  @Test
+  public void complete_after_replay_ends_stream_immediately() throws Exception {
+    // arrange
+    JobLogBroadcaster.Subscriber subscriber = broadcaster.subscribe(1L, 0L, emitter);
+    subscriber.replay(List.of());
+
+    // act
+    broadcaster.complete(1L);
+
+    // assert
+    verify(emitter, times(1)).complete();
+  }
+
+  @Test
+  public void failed_send_stops_delivery_to_that_subscriber() throws Exception {
+    // arrange
+    doThrow(new IOException("broken pipe")).when(emitter).send(any(SseEventBuilder.class));
+    JobLogBroadcaster.Subscriber subscriber = broadcaster.subscribe(1L, 0L, emitter);
+
+    // act
+    subscriber.replay(List.of(line(1L, 0L, "zero"), line(1L, 1L, "one")));
+    broadcaster.publish(line(1L, 2L, "two"));
+
+    // assert
+    verify(emitter, times(1)).send(any(SseEventBuilder.class));
+  }
+
+  @Test
+  public void emitter_callbacks_unsubscribe() throws Exception {
+    // arrange
+    ArgumentCaptor<Runnable> onCompletion = ArgumentCaptor.forClass(Runnable.class);
+    JobLogBroadcaster.Subscriber subscriber = broadcaster.subscribe(1L, 0L, emitter);
+    SseEmitter other = mock(SseEmitter.class);
+    JobLogBroadcaster.Subscriber otherSubscriber = broadcaster.subscribe(1L, 0L, other);
+    subscriber.replay(List.of());
+    otherSubscriber.replay(List.of());
+    verify(emitter).onCompletion(onCompletion.capture());
+
+    ArgumentCaptor<Runnable> onTimeout = ArgumentCaptor.forClass(Runnable.class);
+    verify(emitter).onTimeout(onTimeout.capture());
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Consumer<Throwable>> onError =
+        ArgumentCaptor.forClass(Consumer.class);
+    verify(emitter).onError(onError.capture());
+
+    // act
+    onCompletion.getValue().run();
+    onTimeout.getValue().run();
+    onError.getValue().accept(new IOException("reset"));
+    broadcaster.publish(line(1L, 0L, "zero"));
+
+    // assert
+    verify(emitter, never()).send(any(SseEventBuilder.class));
+    assertEquals("id:0\ndata:zero\n\n", sent(other));
+  }
+
+  @Test
+  public void publish_only_queues_lines_and_a_separate_task_sends_them() throws Exception {
+    // arrange
+    List<Runnable> tasks = new ArrayList<>();
+    broadcaster = new JobLogBroadcaster(tasks::add);
+    JobLogBroadcaster.Subscriber subscriber = broadcaster.subscribe(1L, 0L, emitter);
+    subscriber.replay(List.of());
+
+    // act
+    broadcaster.publish(line(1L, 0L, "zero"));
+    broadcaster.publish(line(1L, 1L, "one"));
+    broadcaster.complete(1L);
+
+    // assert
+    assertEquals(1, tasks.size());
+    verify(emitter, never()).send(any(SseEventBuilder.class));
+    verify(emitter, never()).complete();
+
+    // act
+    tasks.get(0).run();
+
+    // assert
+    assertEquals("id:0\ndata:zero\n\nid:1\ndata:one\n\n", sent(emitter));
+    verify(emitter, times(1)).complete();
+  }
+
+  @Test
+  public void subscriber_that_falls_too_far_behind_is_disconnected() throws Exception {
+    // arrange
+    List<Runnable> tasks = new ArrayList<>();
+    broadcaster = new JobLogBroadcaster(tasks::add);
+    ReflectionTestUtils.setField(broadcaster, "bufferLines", 2);
+    JobLogBroadcaster.Subscriber slow = broadcaster.subscribe(1L, 0L, emitter);
+    slow.replay(List.of());
+
+    // act
+    broadcaster.publish(line(1L, 0L, "zero"));
+    broadcaster.publish(line(1L, 1L, "one"));
+    broadcaster.publish(line(1L, 2L, "two"));
+    broadcaster.publish(line(1L, 3L, "three"));
+    tasks.forEach(Runnable::run);
+
+    // assert
+    verify(emitter, never()).send(any(SseEventBuilder.class));
+    verify(emitter, times(1)).complete();
+    assertEquals(Map.of(), broadcaster.streamedJobs());
+  }
+
+  @Test
+  public void streamedJobs_gives_first_line_wanted_by_subscribers_that_have_replayed()
+      throws Exception {
+    // arrange
+    JobLogBroadcaster.Subscriber behind = broadcaster.subscribe(1L, 0L, emitter);
+    JobLogBroadcaster.Subscriber ahead = broadcaster.subscribe(1L, 5L, mock(SseEmitter.class));
+    broadcaster.subscribe(2L, 0L, mock(SseEmitter.class));
+    JobLogBroadcaster.Subscriber other = broadcaster.subscribe(3L, 7L, mock(SseEmitter.class));
+
+    // act
+    behind.replay(List.of(line(1L, 0L, "zero"), line(1L, 1L, "one")));
+    ahead.replay(List.of());
+    other.replay(List.of());
+    broadcaster.publish(line(3L, 7L, "seven"));
+
+    // assert
+    assertEquals(Map.of(1L, 2L, 3L, 8L), broadcaster.streamedJobs());
+  }
+
+  @Test
+  public void lines_already_queued_are_not_queued_again() throws Exception {
+    // arrange
+    JobLogBroadcaster.Subscriber subscriber = broadcaster.subscribe(1L, 0L, emitter);
+    broadcaster.publish(line(1L, 0L, "zero"));
+
+    // act
+    broadcaster.publish(line(1L, 0L, "zero"));
+    subscriber.replay(List.of());
+
+    // assert
+    assertEquals("id:0\ndata:zero\n\n", sent(emitter));
+  }
+
+  @Test
+  public void stream_that_fails_while_sending_queued_lines_is_not_completed_again()
+      throws Exception {
+    // arrange
+    List<Runnable> tasks = new ArrayList<>();
+    broadcaster = new JobLogBroadcaster(tasks::add);
+    doThrow(new IOException("broken pipe")).when(emitter).send(any(SseEventBuilder.class));
+    JobLogBroadcaster.Subscriber subscriber = broadcaster.subscribe(1L, 0L, emitter);
+    subscriber.replay(List.of());
+    broadcaster.publish(line(1L, 0L, "zero"));
+    broadcaster.complete(1L);
+
+    // act
+    tasks.forEach(Runnable::run);
+    subscriber.send(line(1L, 1L, "one"));
+
+    // assert
+    verify(emitter, times(1)).send(any(SseEventBuilder.class));
+    verify(emitter, never()).complete();
+  }
+
+  @Test
+  public void shutdown_ends_streams() throws Exception {
+    // arrange
+    JobLogBroadcaster.Subscriber subscriber = broadcaster.subscribe(1L, 0L, emitter);
+    subscriber.replay(List.of());
+
+    // act
+    broadcaster.shutdown();
+    broadcaster.publish(line(1L, 0L, "zero"));
+
+    // assert
+    verify(emitter, times(1)).complete();
+    assertEquals("", sent(emitter));
+    assertEquals(Map.of(), broadcaster.streamedJobs());
+  }
+
+  @Test
+  public void shutdown_stops_executor_that_sends_lines() {
+    // arrange
+    ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    JobLogBroadcaster withExecutor = new JobLogBroadcaster(sender);
+
+    // act
+    withExecutor.shutdown();
+
+    // assert
+    assertTrue(sender.isShutdown());
+  }
+}
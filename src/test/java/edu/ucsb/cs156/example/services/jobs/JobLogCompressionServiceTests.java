@@ -0,0 +1,159 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import edu.ucsb.cs156.example.entities.CompressedJobLog;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.CompressedJobLogsRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobLogCompressionServiceTests {
+
+  @Mock private JobLogLinesRepository jobLogLinesRepository;
+
+  @Mock private CompressedJobLogsRepository compressedJobLogsRepository;
+
+  @InjectMocks private JobLogCompressionService jobLogCompressionService;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  public void compress_replaces_long_log_with_compressed_copy() throws Exception {
+    // arrange
+    List<JobLogLine> lines =
+        IntStream.range(0, 5000)
+            .mapToObj(
+                i ->
+                    JobLogLine.builder()
+                        .jobId(1L)
+                        .lineNumber(i)
+                        .message("Processed record " + i + " of 5000")
+                        .build())
+            .toList();
+    long length = lines.stream().mapToLong(line -> line.getMessage().length()).sum();
+    when(jobLogLinesRepository.sumMessageLengthByJobId(1L)).thenReturn(length);
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            1L, 0L))
+        .thenReturn(lines);
+
+    // act
+    boolean compressed = jobLogCompressionService.compress(1L);
+
+    // assert
+    assertTrue(compressed);
+    ArgumentCaptor<CompressedJobLog> captor = ArgumentCaptor.forClass(CompressedJobLog.class);
+    verify(compressedJobLogsRepository, times(1)).save(captor.capture());
+    CompressedJobLog log = captor.getValue();
+    assertEquals(1L, log.getJobId());
+    assertEquals(5000, log.getLineCount());
+    assertEquals(length, log.getLength());
+    assertTrue(log.getData().length * 5 < length);
+    verify(jobLogLinesRepository, times(1)).deleteAllByJobId(1L);
+
+    assertEquals(lines.stream().map(JobLogLine::getMessage).toList(), jobLogCompressionService.lines(log).toList());
+    String text = new String(jobLogCompressionService.open(log).readAllBytes(), StandardCharsets.UTF_8);
+    assertTrue(text.startsWith("Processed record 0 of 5000\nProcessed record 1 of 5000\n"));
+  }
+
+  @Test
+  public void compress_keeps_short_log() {
+    // arrange
+    when(jobLogLinesRepository.sumMessageLengthByJobId(1L)).thenReturn(65535L);
+
+    // act
+    boolean compressed = jobLogCompressionService.compress(1L);
+
+    // assert
+    assertFalse(compressed);
+    verify(compressedJobLogsRepository, never()).save(any());
+    verify(jobLogLinesRepository, never()).deleteAllByJobId(anyLong());
+  }
+
+  @Test
+  public void compress_can_be_disabled() {
+    // arrange
+    ReflectionTestUtils.setField(jobLogCompressionService, "compressMinLength", 0L);
+
+    // act
+    boolean compressed = jobLogCompressionService.compress(1L);
+
+    // assert
+    assertFalse(compressed);
+    verifyNoInteractions(jobLogLinesRepository, compressedJobLogsRepository);
+  }
+
+  @Test
+  public void findLines_reads_compressed_log_of_job() {
+    // arrange
+    when(jobLogLinesRepository.sumMessageLengthByJobId(2L)).thenReturn(70000L);
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            2L, 0L))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(2L).lineNumber(0L).message("first").build(),
+                JobLogLine.builder().jobId(2L).lineNumber(1L).message("second").build()));
+    jobLogCompressionService.compress(2L);
+    ArgumentCaptor<CompressedJobLog> captor = ArgumentCaptor.forClass(CompressedJobLog.class);
+    verify(compressedJobLogsRepository).save(captor.capture());
+    when(compressedJobLogsRepository.findById(2L)).thenReturn(Optional.of(captor.getValue()));
+
+    // act and assert
+    assertEquals(List.of("first", "second"), jobLogCompressionService.findLines(2L).get().toList());
+    assertEquals(Optional.empty(), jobLogCompressionService.findLines(3L));
+  }
+
+  @Test
+  public void compress_keeps_one_line_per_message() throws Exception {
+    // arrange
+    List<String> messages =
+        List.of("first", "second\nstill second\r\n", "C:\\jobs\\n", "", "trailing \\");
+    when(jobLogLinesRepository.sumMessageLengthByJobId(2L)).thenReturn(70000L);
+    when(jobLogLinesRepository.findAllByJobIdAndLineNumberGreaterThanEqualOrderByLineNumberAsc(
+            2L, 0L))
+        .thenReturn(
+            IntStream.range(0, messages.size())
+                .mapToObj(
+                    i ->
+                        JobLogLine.builder()
+                            .jobId(2L)
+                            .lineNumber(i)
+                            .message(messages.get(i))
+                            .build())
+                .toList());
+
+    // act
+    jobLogCompressionService.compress(2L);
+
+    // assert
+    ArgumentCaptor<CompressedJobLog> captor = ArgumentCaptor.forClass(CompressedJobLog.class);
+    verify(compressedJobLogsRepository).save(captor.capture());
+    byte[] stored = jobLogCompressionService.open(captor.getValue()).readAllBytes();
+    String text = new String(stored, StandardCharsets.UTF_8);
+    assertEquals(
+        "first\nsecond\\nstill second\\r\\n\nC:\\\\jobs\\\\n\n\ntrailing \\\\", text);
+    assertEquals(messages, jobLogCompressionService.lines(captor.getValue()).toList());
+  }
+
+  @Test
+  public void unescape_keeps_backslash_that_escapes_nothing() {
+    assertEquals("a\\b\\", JobLogCompressionService.unescape("a\\b\\"));
+  }
+}
@@ -0,0 +1,87 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import edu.ucsb.cs156.example.jobs.TestJob;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+public class JobMetricsTests {
+
+  @Spy private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @InjectMocks private JobMetrics jobMetrics;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  public void jobType_names_class_of_job_or_of_lambda() {
+    // arrange
+    JobContextConsumer lambda = ctx -> {};
+
+    // act
+    String classType = JobMetrics.jobType(TestJob.builder().build());
+    String lambdaType = JobMetrics.jobType(lambda);
+
+    // assert
+    assertEquals(TestJob.class.getName(), classType);
+    assertEquals(JobMetricsTests.class.getName(), lambdaType);
+  }
+
+  @Test
+  public void recordQueueWait_records_time_from_created_to_started() {
+    // arrange
+    ZonedDateTime createdAt = ZonedDateTime.parse("2025-01-01T00:00:00Z");
+
+    // act
+    jobMetrics.recordQueueWait("TestJob", createdAt, createdAt.plusSeconds(3));
+    jobMetrics.recordQueueWait("TestJob", null, createdAt);
+
+    // assert
+    Timer timer = meterRegistry.get("jobs.queue.wait").tag("type", "TestJob").timer();
+    assertEquals(1, timer.count());
+    assertEquals(3000.0, timer.totalTime(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void recordRun_records_duration_by_type_and_outcome() {
+    // act
+    jobMetrics.recordRun("TestJob", "complete", Duration.ofMillis(20));
+    jobMetrics.recordRun("TestJob", "error", Duration.ofMillis(10));
+    jobMetrics.recordRun("TestJob", "error", Duration.ofMillis(30));
+
+    // assert
+    Timer errors =
+        meterRegistry.get("jobs.run").tag("type", "TestJob").tag("outcome", "error").timer();
+    assertEquals(2, errors.count());
+    assertEquals(40.0, errors.totalTime(TimeUnit.MILLISECONDS));
+    long runs =
+        meterRegistry.get("jobs.run").tag("type", "TestJob").timers().stream()
+            .mapToLong(Timer::count)
+            .sum();
+    assertEquals(3, runs);
+  }
+
+  @Test
+  public void recordRejected_counts_rejected_jobs() {
+    // act
+    jobMetrics.recordRejected("TestJob");
+
+    // assert
+    assertEquals(1.0, meterRegistry.get("jobs.rejected").tag("type", "TestJob").counter().count());
+    assertNull(meterRegistry.find("jobs.run").timer());
+  }
+}
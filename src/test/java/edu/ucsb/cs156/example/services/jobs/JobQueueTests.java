@@ -0,0 +1,296 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobDependency;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.models.JobSummary;
+import edu.ucsb.cs156.example.repositories.JobDependenciesRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+public class JobQueueTests {
+
+  @Mock private JobsRepository jobsRepository;
+
+  @Mock private JobLogLinesRepository jobLogLinesRepository;
+
+  @Mock private JobDependenciesRepository jobDependenciesRepository;
+
+  @InjectMocks private JobQueue jobQueue;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  public void lease_sets_owner_expiry_and_attempts() {
+    // arrange
+    Job job = Job.builder().id(1L).attempts(1).build();
+    ZonedDateTime before = ZonedDateTime.now();
+
+    // act
+    jobQueue.lease(job);
+
+    // assert
+    assertEquals(jobQueue.getInstanceId(), job.getLeaseOwner());
+    assertTrue(job.getLeaseExpiresAt().isAfter(before.plusSeconds(59)));
+    assertEquals(2, job.getAttempts());
+  }
+
+  @Test
+  public void track_and_release_count_leased_jobs() {
+    // arrange
+    Job job1 = Job.builder().id(1L).build();
+    Job job2 = Job.builder().id(2L).build();
+
+    // act
+    jobQueue.track(job1);
+    jobQueue.track(job2);
+    jobQueue.release(job1);
+
+    // assert
+    assertEquals(1, jobQueue.leasedCount());
+  }
+
+  @Test
+  public void claimNext_leases_oldest_queued_job() {
+    // arrange
+    Job job = Job.builder().id(7L).status("queued").build();
+    when(jobsRepository.findNextQueued(eq(Integer.MIN_VALUE), any(), eq(Limit.of(1))))
+        .thenReturn(List.of(job));
+
+    // act
+    Optional<Job> claimed = jobQueue.claimNext(Integer.MIN_VALUE);
+
+    // assert
+    assertEquals(Optional.of(job), claimed);
+    assertEquals("running", job.getStatus());
+    assertEquals(jobQueue.getInstanceId(), job.getLeaseOwner());
+    assertEquals(1, job.getAttempts());
+    assertEquals(1, jobQueue.leasedCount());
+    verify(jobsRepository, times(1)).save(job);
+  }
+
+  @Test
+  public void claimNext_returns_empty_when_nothing_is_queued() {
+    // arrange
+    when(jobsRepository.findNextQueued(eq(1), any(), eq(Limit.of(1)))).thenReturn(List.of());
+
+    // act
+    Optional<Job> claimed = jobQueue.claimNext(1);
+
+    // assert
+    assertEquals(Optional.empty(), claimed);
+    assertEquals(0, jobQueue.leasedCount());
+    verify(jobsRepository, never()).save(any());
+  }
+
+  @Test
+  public void renewLeases_does_nothing_without_leased_jobs() {
+    // act
+    jobQueue.renewLeases();
+
+    // assert
+    verify(jobsRepository, never()).renewLeases(any(), any(), any());
+  }
+
+  @Test
+  public void renewLeases_extends_leases_of_tracked_jobs() {
+    // arrange
+    ZonedDateTime old = ZonedDateTime.now().minusMinutes(5);
+    Job job = Job.builder().id(3L).leaseExpiresAt(old).build();
+    jobQueue.track(job);
+
+    // act
+    jobQueue.renewLeases();
+
+    // assert
+    assertTrue(job.getLeaseExpiresAt().isAfter(old));
+    verify(jobsRepository, times(1))
+        .renewLeases(List.of(3L), jobQueue.getInstanceId(), job.getLeaseExpiresAt());
+  }
+
+  @Test
+  public void recoverExpiredLeases_requeues_persistable_job_with_attempts_left() {
+    // arrange
+    Job job = Job.builder().id(4L).status("running").jobType("TestJob").attempts(1).build();
+    when(jobsRepository.findAllRunningWithExpiredLease(any())).thenReturn(List.of(job));
+    when(jobsRepository.releaseExpiredLease(eq(4L), eq("queued"), any())).thenReturn(1);
+    when(jobLogLinesRepository.countByJobId(4L)).thenReturn(2L);
+
+    // act
+    jobQueue.recoverExpiredLeases();
+
+    // assert
+    verify(jobLogLinesRepository, times(1))
+        .save(
+            JobLogLine.builder()
+                .jobId(4L)
+                .lineNumber(2L)
+                .message("Job re-queued: the instance running it stopped before it finished")
+                .build());
+  }
+
+  @Test
+  public void recoverExpiredLeases_fails_job_that_cannot_be_requeued() {
+    // arrange
+    Job inMemory = Job.builder().id(5L).status("running").attempts(1).build();
+    Job exhausted = Job.builder().id(6L).status("running").jobType("TestJob").attempts(3).build();
+    when(jobsRepository.findAllRunningWithExpiredLease(any()))
+        .thenReturn(List.of(inMemory, exhausted));
+    when(jobsRepository.releaseExpiredLease(anyLong(), eq("error"), any())).thenReturn(1);
+
+    // act
+    jobQueue.recoverExpiredLeases();
+
+    // assert
+    verify(jobsRepository, times(1)).releaseExpiredLease(eq(5L), eq("error"), any());
+    verify(jobsRepository, times(1)).releaseExpiredLease(eq(6L), eq("error"), any());
+    verify(jobLogLinesRepository, times(2)).save(any(JobLogLine.class));
+  }
+
+  @Test
+  public void recoverExpiredLeases_cancels_job_that_was_being_cancelled() {
+    // arrange
+    Job job =
+        Job.builder()
+            .id(9L)
+            .status("running")
+            .jobType("TestJob")
+            .attempts(1)
+            .cancelRequested(true)
+            .build();
+    when(jobsRepository.findAllRunningWithExpiredLease(any())).thenReturn(List.of(job));
+    when(jobsRepository.releaseExpiredLease(eq(9L), eq("cancelled"), any())).thenReturn(1);
+
+    // act
+    jobQueue.recoverExpiredLeases();
+
+    // assert
+    verify(jobLogLinesRepository, times(1))
+        .save(
+            JobLogLine.builder()
+                .jobId(9L)
+                .lineNumber(0L)
+                .message("Job cancelled: the instance running it stopped before it finished")
+                .build());
+  }
+
+  @Test
+  public void recoverExpiredLeases_skips_job_recovered_elsewhere() {
+    // arrange
+    Job job = Job.builder().id(8L).status("running").jobType("TestJob").attempts(1).build();
+    when(jobsRepository.findAllRunningWithExpiredLease(any())).thenReturn(List.of(job));
+    when(jobsRepository.releaseExpiredLease(eq(8L), eq("queued"), any())).thenReturn(0);
+
+    // act
+    jobQueue.recoverExpiredLeases();
+
+    // assert
+    verify(jobLogLinesRepository, never()).save(any(JobLogLine.class));
+  }
+
+  @Test
+  public void enqueue_saves_job_with_its_dependencies() {
+    // arrange
+    Job job = Job.builder().id(10L).status("waiting").build();
+    List<Job> dependencies = List.of(Job.builder().id(11L).build(), Job.builder().id(12L).build());
+
+    // act
+    jobQueue.enqueue(job, dependencies);
+
+    // assert
+    verify(jobsRepository, times(1)).save(job);
+    verify(jobDependenciesRepository, times(1))
+        .saveAll(
+            List.of(
+                JobDependency.builder().jobId(10L).dependsOnJobId(11L).build(),
+                JobDependency.builder().jobId(10L).dependsOnJobId(12L).build()));
+  }
+
+  @Test
+  public void releaseWaitingJobs_queues_jobs_whose_dependencies_completed() {
+    // arrange
+    when(jobsRepository.findWaitingIdsWithFinishedDependencies())
+        .thenReturn(List.of(10L, 11L))
+        .thenReturn(List.of());
+    when(jobsRepository.findUnsuccessfulDependencies(anyLong())).thenReturn(List.of());
+
+    // act
+    jobQueue.releaseWaitingJobs();
+
+    // assert
+    verify(jobsRepository, times(1)).releaseWaiting(10L, "queued");
+    verify(jobsRepository, times(1)).releaseWaiting(11L, "queued");
+    verify(jobLogLinesRepository, never()).save(any(JobLogLine.class));
+  }
+
+  @Test
+  public void releaseWaitingJobs_fails_job_whose_dependency_did_not_complete_and_its_dependents() {
+    // arrange
+    when(jobsRepository.findWaitingIdsWithFinishedDependencies())
+        .thenReturn(List.of(10L))
+        .thenReturn(List.of(20L))
+        .thenReturn(List.of());
+    when(jobsRepository.findUnsuccessfulDependencies(10L))
+        .thenReturn(
+            List.of(
+                JobSummary.builder().id(5L).status("cancelled").build(),
+                JobSummary.builder().id(6L).status("error").build()));
+    when(jobsRepository.findUnsuccessfulDependencies(20L))
+        .thenReturn(List.of(JobSummary.builder().id(10L).status("error").build()));
+    when(jobsRepository.releaseWaiting(anyLong(), eq("error"))).thenReturn(1);
+    when(jobLogLinesRepository.countByJobId(10L)).thenReturn(0L);
+
+    // act
+    jobQueue.releaseWaitingJobs();
+
+    // assert
+    verify(jobLogLinesRepository, times(1))
+        .save(
+            JobLogLine.builder()
+                .jobId(10L)
+                .lineNumber(0L)
+                .message("Job not run: job 5, which it waits for, finished with status cancelled")
+                .build());
+    verify(jobLogLinesRepository, times(1))
+        .save(
+            JobLogLine.builder()
+                .jobId(20L)
+                .lineNumber(0L)
+                .message("Job not run: job 10, which it waits for, finished with status error")
+                .build());
+  }
+
+  @Test
+  public void releaseWaitingJobs_skips_job_released_elsewhere() {
+    // arrange
+    when(jobsRepository.findWaitingIdsWithFinishedDependencies())
+        .thenReturn(List.of(10L))
+        .thenReturn(List.of());
+    when(jobsRepository.findUnsuccessfulDependencies(10L))
+        .thenReturn(List.of(JobSummary.builder().id(5L).status("error").build()));
+    when(jobsRepository.releaseWaiting(10L, "error")).thenReturn(0);
+
+    // act
+    jobQueue.releaseWaitingJobs();
+
+    // assert
+    verify(jobLogLinesRepository, never()).save(any(JobLogLine.class));
+  }
+}
@@ -0,0 +1,774 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.ScheduledJobDefinition;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.models.JobExecutorStats;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.CurrentUserService;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobServiceTests {
+
+  @Mock private JobsRepository jobsRepository;
+
+  @Mock private JobLogLinesRepository jobLogLinesRepository;
+
+  @Mock private CurrentUserService currentUserService;
+
+  @Mock private RunningJobsRegistry runningJobsRegistry;
+
+  @Mock private JobLogBroadcaster jobLogBroadcaster;
+
+  @Mock private ThreadPoolTaskExecutor jobExecutor;
+
+  @Mock private JobQueue jobQueue;
+
+  @Mock private JobLogCompressionService jobLogCompressionService;
+
+  @Mock private JobMetrics jobMetrics;
+
+  @Spy private ObjectMapper mapper = new ObjectMapper();
+
+  @InjectMocks private JobService jobService;
+
+  private JobService self;
+
+  private ThreadPoolExecutor threadPoolExecutor;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    self = mock(JobService.class);
+    ReflectionTestUtils.setField(jobService, "self", self);
+    threadPoolExecutor = mock(ThreadPoolExecutor.class);
+    when(jobExecutor.getThreadPoolExecutor()).thenReturn(threadPoolExecutor);
+    when(threadPoolExecutor.getQueue()).thenReturn(new LinkedBlockingQueue<>());
+  }
+
+  @Test
+  public void runAsJob_marks_job_rejected_when_executor_is_full() {
+    // arrange
+    User user = User.builder().id(1L).build();
+    when(currentUserService.getUser()).thenReturn(user);
+    JobContextConsumer jobFunction = ctx -> {};
+    doThrow(new TaskRejectedException("queue full"))
+        .when(self)
+        .runJobAsync(any(Job.class), eq(jobFunction));
+
+    // act
+    Job job = jobService.runAsJob(jobFunction);
+
+    // assert
+    assertEquals("rejected", job.getStatus());
+    verify(jobsRepository, times(2)).save(job);
+    verify(jobLogLinesRepository, times(1))
+        .saveAll(
+            eq(
+                List.of(
+                    JobLogLine.builder()
+                        .jobId(0L)
+                        .lineNumber(0L)
+                        .message("Job rejected: too many jobs are already running or waiting")
+                        .build())));
+    assertEquals(1L, jobService.getExecutorStats().getRejectedJobs());
+    verify(jobMetrics, times(1)).recordRejected(JobServiceTests.class.getName());
+  }
+
+  @Test
+  public void runAsJob_hands_job_to_executor() {
+    // arrange
+    JobContextConsumer jobFunction = ctx -> {};
+
+    // act
+    Job job = jobService.runAsJob(jobFunction);
+
+    // assert
+    assertEquals("running", job.getStatus());
+    verify(self, times(1)).runJobAsync(job, jobFunction);
+    verify(jobsRepository, times(1)).save(job);
+    verify(jobQueue, times(1)).lease(job);
+    verify(jobQueue, times(1)).track(job);
+  }
+
+  @Test
+  public void runAsJob_queues_persistable_job() {
+    // arrange
+    User user = User.builder().id(1L).build();
+    when(currentUserService.getUser()).thenReturn(user);
+    when(jobExecutor.getMaxPoolSize()).thenReturn(4);
+    when(jobQueue.claimNext(anyInt())).thenReturn(Optional.empty());
+    TestJob jobFunction = TestJob.builder().fail(true).sleepMs(10).build();
+
+    // act
+    Job job = jobService.runAsJob(jobFunction);
+
+    // assert
+    assertEquals("queued", job.getStatus());
+    assertEquals(user, job.getCreatedBy());
+    assertEquals(TestJob.class.getName(), job.getJobType());
+    assertEquals("{\"fail\":true,\"sleepMs\":10}", job.getPayload());
+    verify(jobQueue, times(1)).enqueue(job, List.of());
+    verify(jobQueue, times(1)).claimNext(anyInt());
+    verify(self, never()).runJobAsync(any(), any());
+  }
+
+  @Test
+  public void runAsJob_returns_job_already_submitted_with_same_key() {
+    // arrange
+    User user = User.builder().id(1L).build();
+    when(currentUserService.getUser()).thenReturn(user);
+    Job existing = Job.builder().id(5L).status("running").build();
+    when(jobsRepository.findByIdempotencyKey(eq(user), eq("key-1"), any()))
+        .thenReturn(Optional.of(existing));
+
+    // act
+    Job job = jobService.runAsJob(TestJob.builder().build(), 0, null, "key-1");
+
+    // assert
+    assertEquals(existing, job);
+    verify(jobQueue, never()).enqueue(any(), any());
+    verify(jobsRepository, never()).clearExpiredIdempotencyKey(any(), any(), any());
+  }
+
+  @Test
+  public void runAsJob_saves_idempotency_key_with_expiry() {
+    // arrange
+    User user = User.builder().id(1L).build();
+    when(currentUserService.getUser()).thenReturn(user);
+    when(jobExecutor.getMaxPoolSize()).thenReturn(4);
+    when(jobQueue.claimNext(anyInt())).thenReturn(Optional.empty());
+    ZonedDateTime before = ZonedDateTime.now();
+
+    // act
+    Job job = jobService.runAsJob(TestJob.builder().build(), 0, null, "key-1");
+
+    // assert
+    assertEquals("queued", job.getStatus());
+    assertEquals("key-1", job.getIdempotencyKey());
+    assertTrue(job.getIdempotencyKeyExpiresAt().isAfter(before.plusHours(23)));
+    verify(jobsRepository, times(1)).clearExpiredIdempotencyKey(eq(user), eq("key-1"), any());
+    verify(jobQueue, times(1)).enqueue(job, List.of());
+  }
+
+  @Test
+  public void runAsJob_returns_job_saved_concurrently_with_same_key() {
+    // arrange
+    Job existing = Job.builder().id(5L).status("queued").build();
+    when(jobsRepository.findByIdempotencyKey(any(), eq("key-1"), any()))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(existing));
+    doThrow(new DataIntegrityViolationException("duplicate key"))
+        .when(jobQueue)
+        .enqueue(any(), any());
+
+    // act
+    Job job = jobService.runAsJob(TestJob.builder().build(), 0, null, "key-1");
+
+    // assert
+    assertEquals(existing, job);
+    verify(jobQueue, never()).claimNext(anyInt());
+  }
+
+  @Test
+  public void runAsJob_rethrows_key_conflict_when_other_job_is_gone() {
+    // arrange
+    DataIntegrityViolationException conflict = new DataIntegrityViolationException("duplicate");
+    doThrow(conflict).when(jobsRepository).save(any(Job.class));
+
+    // act
+    DataIntegrityViolationException e =
+        assertThrows(
+            DataIntegrityViolationException.class,
+            () -> jobService.runAsJob(ctx -> {}, 0, null, "key-1"));
+
+    // assert
+    assertEquals(conflict, e);
+    verify(self, never()).runJobAsync(any(), any());
+  }
+
+  @Test
+  public void runScheduledJob_queues_job_as_schedule_owner() {
+    // arrange
+    User user = User.builder().id(1L).build();
+    ScheduledJobDefinition withTimeout =
+        ScheduledJobDefinition.builder()
+            .createdBy(user)
+            .jobType(TestJob.class.getName())
+            .payload("{\"fail\":false,\"sleepMs\":10}")
+            .priority(5)
+            .timeoutMs(5000L)
+            .build();
+    ScheduledJobDefinition withoutTimeout =
+        ScheduledJobDefinition.builder().jobType(TestJob.class.getName()).payload("{}").build();
+
+    // act
+    Job job = jobService.runScheduledJob(withTimeout);
+    Job noTimeout = jobService.runScheduledJob(withoutTimeout);
+
+    // assert
+    assertEquals("queued", job.getStatus());
+    assertEquals(user, job.getCreatedBy());
+    assertEquals(5, job.getPriority());
+    assertEquals(5000L, job.getTimeoutMs());
+    assertEquals(TestJob.class.getName(), job.getJobType());
+    assertEquals("{\"fail\":false,\"sleepMs\":10}", job.getPayload());
+    assertEquals(null, noTimeout.getTimeoutMs());
+    verify(jobQueue, times(1)).enqueue(job, List.of());
+    verify(jobQueue, never()).claimNext(anyInt());
+  }
+
+  @Test
+  public void loadJob_reads_persistable_job_from_payload() throws Exception {
+    // act
+    JobContextConsumer job = jobService.loadJob(TestJob.class.getName(), "{\"sleepMs\":10}");
+
+    // assert
+    assertEquals(10, ((TestJob) job).getSleepMs());
+  }
+
+  @Test
+  public void runAsJob_rejects_job_that_cannot_be_stored() {
+    // arrange
+    PersistableJob jobFunction = new UnstorableJob();
+
+    // act
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> jobService.runAsJob(jobFunction));
+
+    // assert
+    assertEquals(
+        "Job %s cannot be stored as JSON".formatted(UnstorableJob.class.getName()),
+        e.getMessage());
+    verify(jobQueue, never()).enqueue(any(), any());
+  }
+
+  @Test
+  public void runAsChildJob_queues_job_as_parents_user_with_its_priority_and_timeout() {
+    // arrange
+    User user = User.builder().id(1L).build();
+    Job parent = Job.builder().id(3L).createdBy(user).priority(2).timeoutMs(9000L).build();
+    when(jobExecutor.getMaxPoolSize()).thenReturn(4);
+    when(jobQueue.claimNext(anyInt())).thenReturn(Optional.empty());
+
+    // act
+    Job child = jobService.runAsChildJob(parent, TestJob.builder().build(), List.of());
+
+    // assert
+    assertEquals("queued", child.getStatus());
+    assertEquals(user, child.getCreatedBy());
+    assertEquals(3L, child.getParentId());
+    assertEquals(2, child.getPriority());
+    assertEquals(9000L, child.getTimeoutMs());
+    assertEquals(TestJob.class.getName(), child.getJobType());
+    verify(jobQueue, times(1)).enqueue(child, List.of());
+    verify(jobQueue, times(1)).claimNext(anyInt());
+  }
+
+  @Test
+  public void runAsChildJob_with_dependencies_waits_for_them() {
+    // arrange
+    Job parent = Job.builder().id(3L).build();
+    List<Job> dependencies = List.of(Job.builder().id(4L).build(), Job.builder().id(5L).build());
+    when(jobExecutor.getMaxPoolSize()).thenReturn(4);
+    when(jobQueue.claimNext(anyInt())).thenReturn(Optional.empty());
+
+    // act
+    Job child = jobService.runAsChildJob(parent, TestJob.builder().build(), dependencies);
+
+    // assert
+    assertEquals("waiting", child.getStatus());
+    verify(jobQueue, times(1)).enqueue(child, dependencies);
+  }
+
+  @Test
+  public void pollQueue_dispatches_claimed_jobs_while_threads_are_free() {
+    // arrange
+    Job first = queuedJob(1L, TestJob.class.getName(), "{\"fail\":false,\"sleepMs\":5}");
+    Job second = queuedJob(2L, TestJob.class.getName(), "{}");
+    when(jobExecutor.getMaxPoolSize()).thenReturn(2);
+    when(jobQueue.leasedCount()).thenReturn(0, 1, 2);
+    when(jobQueue.claimNext(anyInt())).thenReturn(Optional.of(first), Optional.of(second));
+    ArgumentCaptor<JobContextConsumer> consumers =
+        ArgumentCaptor.forClass(JobContextConsumer.class);
+
+    // act
+    jobService.pollQueue();
+
+    // assert
+    verify(jobQueue, times(1)).releaseWaitingJobs();
+    verify(jobQueue, times(2)).claimNext(anyInt());
+    verify(self, times(1)).runJobAsync(eq(first), consumers.capture());
+    verify(self, times(1)).runJobAsync(eq(second), consumers.capture());
+    TestJob firstFunction = assertInstanceOf(TestJob.class, consumers.getAllValues().get(0));
+    assertEquals(5, firstFunction.getSleepMs());
+  }
+
+  @Test
+  public void pollQueue_keeps_last_threads_for_interactive_jobs() {
+    // arrange
+    Job bulk = queuedJob(1L, TestJob.class.getName(), "{}");
+    Job interactive = queuedJob(2L, TestJob.class.getName(), "{}");
+    interactive.setPriority(5);
+    ReflectionTestUtils.setField(jobService, "interactiveThreads", 2);
+    when(jobExecutor.getMaxPoolSize()).thenReturn(4);
+    when(jobQueue.leasedCount()).thenReturn(1, 2, 3);
+    when(jobQueue.claimNext(Integer.MIN_VALUE)).thenReturn(Optional.of(bulk));
+    when(jobQueue.claimNext(1)).thenReturn(Optional.of(interactive), Optional.empty());
+
+    // act
+    jobService.pollQueue();
+
+    // assert
+    verify(jobQueue, times(1)).claimNext(Integer.MIN_VALUE);
+    verify(jobQueue, times(2)).claimNext(1);
+    verify(self, times(1)).runJobAsync(eq(bulk), any());
+    verify(self, times(1)).runJobAsync(eq(interactive), any());
+  }
+
+  @Test
+  public void runAsJob_stores_priority() {
+    // arrange
+    when(jobQueue.claimNext(anyInt())).thenReturn(Optional.empty());
+    when(jobExecutor.getMaxPoolSize()).thenReturn(4);
+
+    // act
+    Job queued = jobService.runAsJob(TestJob.builder().build(), 5);
+    Job running = jobService.runAsJob(ctx -> {}, -1);
+
+    // assert
+    assertEquals(5, queued.getPriority());
+    assertEquals(-1, running.getPriority());
+  }
+
+  @Test
+  public void pollQueue_stops_when_queue_is_empty() {
+    // arrange
+    when(jobExecutor.getMaxPoolSize()).thenReturn(2);
+    when(jobQueue.claimNext(anyInt())).thenReturn(Optional.empty());
+
+    // act
+    jobService.pollQueue();
+
+    // assert
+    verify(jobQueue, times(1)).claimNext(anyInt());
+    verify(self, never()).runJobAsync(any(), any());
+  }
+
+  @Test
+  public void pollQueue_fails_job_of_unknown_type() {
+    // arrange
+    Job job = queuedJob(3L, "edu.ucsb.cs156.example.jobs.NoSuchJob", "{}");
+    when(jobExecutor.getMaxPoolSize()).thenReturn(1);
+    when(jobQueue.claimNext(anyInt())).thenReturn(Optional.of(job), Optional.empty());
+    when(jobLogLinesRepository.countByJobId(3L)).thenReturn(2L);
+
+    // act
+    jobService.pollQueue();
+
+    // assert
+    assertEquals("error", job.getStatus());
+    verify(jobQueue, times(1)).release(job);
+    verify(jobsRepository, times(1)).save(job);
+    verify(jobLogLinesRepository, times(1))
+        .saveAll(
+            eq(
+                List.of(
+                    JobLogLine.builder()
+                        .jobId(3L)
+                        .lineNumber(2L)
+                        .message(
+                            "Job could not be loaded: edu.ucsb.cs156.example.jobs.NoSuchJob")
+                        .build())));
+    verify(self, never()).runJobAsync(any(), any());
+  }
+
+  @Test
+  public void pollQueue_fails_job_that_is_not_persistable() {
+    // arrange
+    Job job = queuedJob(4L, String.class.getName(), "\"hello\"");
+    when(jobExecutor.getMaxPoolSize()).thenReturn(1);
+    when(jobQueue.claimNext(anyInt())).thenReturn(Optional.of(job), Optional.empty());
+
+    // act
+    jobService.pollQueue();
+
+    // assert
+    assertEquals("error", job.getStatus());
+    verify(jobLogLinesRepository, times(1))
+        .saveAll(
+            eq(
+                List.of(
+                    JobLogLine.builder()
+                        .jobId(4L)
+                        .lineNumber(0L)
+                        .message("Job could not be loaded: java.lang.String is not a PersistableJob")
+                        .build())));
+    verify(self, never()).runJobAsync(any(), any());
+  }
+
+  @Test
+  public void pollQueue_puts_job_back_when_executor_is_full() {
+    // arrange
+    Job job = queuedJob(5L, TestJob.class.getName(), "{}");
+    job.setStatus("running");
+    job.setLeaseOwner("me");
+    job.setLeaseExpiresAt(ZonedDateTime.now());
+    job.setAttempts(1);
+    when(jobExecutor.getMaxPoolSize()).thenReturn(4);
+    when(jobQueue.claimNext(anyInt())).thenReturn(Optional.of(job));
+    doThrow(new TaskRejectedException("queue full")).when(self).runJobAsync(eq(job), any());
+
+    // act
+    jobService.pollQueue();
+
+    // assert
+    assertEquals("queued", job.getStatus());
+    assertEquals(null, job.getLeaseOwner());
+    assertEquals(null, job.getLeaseExpiresAt());
+    assertEquals(0, job.getAttempts());
+    verify(jobQueue, times(1)).claimNext(anyInt());
+    verify(jobQueue, times(1)).release(job);
+    verify(jobsRepository, times(1)).save(job);
+  }
+
+  @Test
+  public void runJobAsync_continues_log_of_queued_job_and_releases_lease() {
+    // arrange
+    Job job = queuedJob(6L, TestJob.class.getName(), "{}");
+    job.setStatus("running");
+    job.setCreatedAt(ZonedDateTime.now().minusSeconds(5));
+    when(jobLogLinesRepository.countByJobId(6L)).thenReturn(3L);
+
+    // act
+    jobService.runJobAsync(job, ctx -> ctx.log("again"));
+
+    // assert
+    assertEquals("complete", job.getStatus());
+    assertNotNull(job.getStartedAt());
+    verify(jobLogLinesRepository, times(1))
+        .saveAll(
+            eq(
+                List.of(
+                    JobLogLine.builder().jobId(6L).lineNumber(3L).message("again").build())));
+    verify(jobQueue, times(1)).release(job);
+    verify(jobsRepository, times(1)).save(job);
+    verify(jobLogCompressionService, times(1)).compress(6L);
+    verify(jobMetrics, times(1))
+        .recordQueueWait(JobServiceTests.class.getName(), job.getCreatedAt(), job.getStartedAt());
+    verify(jobMetrics, times(1))
+        .recordRun(eq(JobServiceTests.class.getName()), eq("complete"), any(Duration.class));
+  }
+
+  @Test
+  public void runJobAsync_queues_failed_job_again_after_backoff() {
+    // arrange
+    Job job = queuedJob(7L, RetriedJob.class.getName(), "{}");
+    job.setStatus("running");
+    job.setAttempts(2);
+    job.setCreatedAt(ZonedDateTime.now().minusMinutes(5));
+    ZonedDateTime runAfter = ZonedDateTime.now().minusSeconds(1);
+    job.setRunAfter(runAfter);
+    job.setLeaseOwner("instance");
+    ZonedDateTime before = ZonedDateTime.now();
+
+    // act
+    jobService.runJobAsync(job, new RetriedJob(new IOException("connection reset")));
+
+    // assert
+    assertEquals("queued", job.getStatus());
+    assertTrue(job.getRunAfter().isAfter(before.plus(Duration.ofMillis(1900))));
+    assertEquals(null, job.getLeaseOwner());
+    verify(jobLogLinesRepository, times(1))
+        .saveAll(
+            eq(
+                List.of(
+                    JobLogLine.builder()
+                        .jobId(7L)
+                        .lineNumber(0L)
+                        .message("connection reset")
+                        .build(),
+                    JobLogLine.builder()
+                        .jobId(7L)
+                        .lineNumber(1L)
+                        .message("Attempt 2 of 3 failed; retrying in 2000 ms")
+                        .build())));
+    verify(jobsRepository, times(1)).save(job);
+    verify(jobMetrics, times(1))
+        .recordQueueWait(RetriedJob.class.getName(), runAfter, job.getStartedAt());
+    verify(jobMetrics, times(1)).recordRun(eq(RetriedJob.class.getName()), eq("retry"), any());
+    verify(jobLogBroadcaster, never()).complete(anyLong());
+    verify(jobLogCompressionService, never()).compress(anyLong());
+  }
+
+  @Test
+  public void runJobAsync_fails_job_that_cannot_be_retried() {
+    // arrange
+    Job notRetryable = queuedJob(7L, RetriedJob.class.getName(), "{}");
+    notRetryable.setAttempts(1);
+    Job outOfAttempts = queuedJob(8L, RetriedJob.class.getName(), "{}");
+    outOfAttempts.setAttempts(3);
+    Job inMemory = Job.builder().id(9L).status("running").attempts(1).build();
+
+    // act
+    jobService.runJobAsync(notRetryable, new RetriedJob(new IllegalStateException("bad state")));
+    jobService.runJobAsync(outOfAttempts, new RetriedJob(new IOException("reset")));
+    jobService.runJobAsync(
+        inMemory,
+        ctx -> {
+          throw new IOException("reset");
+        });
+
+    // assert
+    assertEquals("error", notRetryable.getStatus());
+    assertEquals("error", outOfAttempts.getStatus());
+    assertEquals(null, outOfAttempts.getRunAfter());
+    assertEquals("error", inMemory.getStatus());
+    verify(jobLogBroadcaster, times(1)).complete(7L);
+    verify(jobLogBroadcaster, times(1)).complete(8L);
+    verify(jobLogBroadcaster, times(1)).complete(9L);
+  }
+
+  @Test
+  public void runAsJob_has_no_timeout_unless_given_one() {
+    // arrange
+    when(jobQueue.claimNext(anyInt())).thenReturn(Optional.empty());
+    when(jobExecutor.getMaxPoolSize()).thenReturn(4);
+
+    // act
+    Job withTimeout = jobService.runAsJob(ctx -> {}, 0, 5000L);
+    Job withoutTimeout = jobService.runAsJob(ctx -> {});
+
+    // assert
+    assertEquals(5000L, withTimeout.getTimeoutMs());
+    assertEquals(null, withoutTimeout.getTimeoutMs());
+  }
+
+  @Test
+  public void runJobAsync_marks_cancelled_job_with_reason() {
+    // arrange
+    Job job = Job.builder().id(10L).status("running").build();
+    JobContextConsumer jobFunction =
+        ctx -> {
+          ctx.cancel("timeout", "Job timed out after 5 ms");
+          Thread.sleep(60000);
+        };
+
+    // act
+    jobService.runJobAsync(job, jobFunction);
+
+    // assert
+    assertEquals("timeout", job.getStatus());
+    assertFalse(Thread.currentThread().isInterrupted());
+    verify(jobLogLinesRepository, times(1))
+        .saveAll(
+            eq(
+                List.of(
+                    JobLogLine.builder()
+                        .jobId(10L)
+                        .lineNumber(0L)
+                        .message("Job timed out after 5 ms")
+                        .build())));
+  }
+
+  @Test
+  public void runJobAsync_releases_job_when_its_log_cannot_be_written() {
+    // arrange
+    Job job = Job.builder().id(13L).status("running").build();
+    when(jobLogLinesRepository.saveAll(any())).thenThrow(new RuntimeException("connection lost"));
+
+    // act
+    jobService.runJobAsync(job, ctx -> ctx.log("working"));
+
+    // assert
+    assertEquals("complete", job.getStatus());
+    verify(runningJobsRegistry, times(1)).unregister(any(JobContext.class));
+    verify(jobQueue, times(1)).release(job);
+    verify(jobsRepository, times(1)).save(job);
+    verify(jobLogBroadcaster, times(1)).complete(13L);
+    verify(jobLogCompressionService, times(1)).compress(13L);
+  }
+
+  @Test
+  public void runJobAsync_completes_log_stream_when_final_status_cannot_be_saved() {
+    // arrange
+    Job job = Job.builder().id(14L).status("running").build();
+    RuntimeException failure = new RuntimeException("connection lost");
+    when(jobsRepository.save(job)).thenThrow(failure);
+
+    // act
+    RuntimeException thrown =
+        assertThrows(RuntimeException.class, () -> jobService.runJobAsync(job, ctx -> {}));
+
+    // assert
+    assertEquals(failure, thrown);
+    verify(jobQueue, times(1)).release(job);
+    verify(jobLogBroadcaster, times(1)).complete(14L);
+    // the job did not finish as far as the database knows; its lease expires and it is recovered
+    verify(jobLogCompressionService, never()).compress(anyLong());
+  }
+
+  @Test
+  public void pollQueue_releases_job_that_cannot_be_loaded_when_its_log_cannot_be_written() {
+    // arrange
+    Job job = queuedJob(15L, "edu.ucsb.cs156.example.jobs.NoSuchJob", "{}");
+    when(jobExecutor.getMaxPoolSize()).thenReturn(1);
+    when(jobQueue.claimNext(anyInt())).thenReturn(Optional.of(job), Optional.empty());
+    when(jobLogLinesRepository.saveAll(any())).thenThrow(new RuntimeException("connection lost"));
+
+    // act
+    jobService.pollQueue();
+
+    // assert
+    assertEquals("error", job.getStatus());
+    verify(jobQueue, times(1)).release(job);
+    verify(jobsRepository, times(1)).save(job);
+  }
+
+  @Test
+  public void cancelJob_cancels_queued_job_at_once() {
+    // arrange
+    when(jobsRepository.cancelQueued(11L)).thenReturn(1);
+    when(jobLogLinesRepository.countByJobId(11L)).thenReturn(0L);
+
+    // act
+    boolean cancelled = jobService.cancelJob(11L);
+
+    // assert
+    assertTrue(cancelled);
+    verify(jobsRepository, never()).requestCancel(anyLong());
+    verify(jobLogLinesRepository, times(1))
+        .save(
+            JobLogLine.builder()
+                .jobId(11L)
+                .lineNumber(0L)
+                .message("Job cancelled before it started")
+                .build());
+    verify(jobLogBroadcaster, times(1)).complete(11L);
+  }
+
+  @Test
+  public void cancelJob_stops_job_running_here() {
+    // arrange
+    JobContext context = mock(JobContext.class);
+    when(jobsRepository.requestCancel(12L)).thenReturn(1);
+    when(runningJobsRegistry.get(12L)).thenReturn(Optional.of(context));
+
+    // act
+    boolean cancelled = jobService.cancelJob(12L);
+
+    // assert
+    assertTrue(cancelled);
+    verify(context, times(1)).cancel("cancelled", "Job cancelled");
+  }
+
+  @Test
+  public void cancelJob_leaves_job_running_elsewhere_to_its_instance() {
+    // arrange
+    when(jobsRepository.requestCancel(13L)).thenReturn(1);
+    when(runningJobsRegistry.get(13L)).thenReturn(Optional.empty());
+
+    // act and assert
+    assertTrue(jobService.cancelJob(13L));
+  }
+
+  @Test
+  public void cancelJob_returns_false_for_finished_job() {
+    // act
+    boolean cancelled = jobService.cancelJob(14L);
+
+    // assert
+    assertFalse(cancelled);
+    verify(jobLogLinesRepository, never()).save(any());
+  }
+
+  private Job queuedJob(long id, String jobType, String payload) {
+    return Job.builder().id(id).status("queued").jobType(jobType).payload(payload).build();
+  }
+
+  private static class RetriedJob implements PersistableJob {
+    private final Exception failure;
+
+    RetriedJob(Exception failure) {
+      this.failure = failure;
+    }
+
+    @Override
+    public RetryPolicy retryPolicy() {
+      return RetryPolicy.builder().maxAttempts(3).retryOn(IOException.class).build();
+    }
+
+    @Override
+    public void accept(JobContext ctx) throws Exception {
+      throw failure;
+    }
+  }
+
+  private static class UnstorableJob implements PersistableJob {
+    public String getValue() {
+      throw new IllegalStateException("cannot read value");
+    }
+
+    @Override
+    public void accept(JobContext ctx) {}
+  }
+
+  @Test
+  public void getExecutorStats_reports_executor_state() {
+    // arrange
+    LinkedBlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+    queue.add(() -> {});
+    when(jobExecutor.getMaxPoolSize()).thenReturn(8);
+    when(jobExecutor.getQueueCapacity()).thenReturn(50);
+    when(threadPoolExecutor.getActiveCount()).thenReturn(3);
+    when(threadPoolExecutor.getQueue()).thenReturn(queue);
+    when(threadPoolExecutor.getCompletedTaskCount()).thenReturn(42L);
+    ReflectionTestUtils.setField(jobService, "executorThreads", "virtual");
+
+    // act
+    JobExecutorStats stats = jobService.getExecutorStats();
+
+    // assert
+    assertEquals(
+        JobExecutorStats.builder()
+            .virtualThreads(true)
+            .poolSize(8)
+            .activeJobs(3)
+            .queuedJobs(1)
+            .queueCapacity(50)
+            .completedJobs(42L)
+            .rejectedJobs(0L)
+            .build(),
+        stats);
+  }
+}
@@ -0,0 +1,53 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import org.junit.jupiter.api.Test;
+
+public class RetryPolicyTests {
+
+  @Test
+  public void none_never_retries() {
+    assertFalse(RetryPolicy.NONE.shouldRetry(1, new Exception("failed")));
+  }
+
+  @Test
+  public void retries_any_failure_until_max_attempts() {
+    // arrange
+    RetryPolicy policy = RetryPolicy.builder().maxAttempts(3).build();
+
+    // act and assert
+    assertTrue(policy.shouldRetry(1, new Exception("failed")));
+    assertTrue(policy.shouldRetry(2, new Exception("failed")));
+    assertFalse(policy.shouldRetry(3, new Exception("failed")));
+  }
+
+  @Test
+  public void retries_only_listed_failures_and_their_wrappers() {
+    // arrange
+    RetryPolicy policy = RetryPolicy.builder().retryOn(IOException.class).build();
+
+    // act and assert
+    assertTrue(policy.shouldRetry(1, new SocketTimeoutException("timed out")));
+    assertTrue(policy.shouldRetry(1, new RuntimeException(new IOException("reset"))));
+    assertFalse(policy.shouldRetry(1, new IllegalStateException("bad state")));
+  }
+
+  @Test
+  public void backoff_grows_exponentially_up_to_max() {
+    // arrange
+    RetryPolicy policy =
+        RetryPolicy.builder().initialBackoffMs(100).multiplier(3).maxBackoffMs(1000).build();
+
+    // act and assert
+    assertEquals(100, policy.backoffMs(0));
+    assertEquals(100, policy.backoffMs(1));
+    assertEquals(300, policy.backoffMs(2));
+    assertEquals(900, policy.backoffMs(3));
+    assertEquals(1000, policy.backoffMs(4));
+  }
+}
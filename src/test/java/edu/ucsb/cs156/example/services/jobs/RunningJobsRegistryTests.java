@@ -0,0 +1,103 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class RunningJobsRegistryTests {
+
+  private JobContext mockContext(Job job) {
+    JobContext context = mock(JobContext.class);
+    when(context.getJob()).thenReturn(job);
+    return context;
+  }
+
+  private JobContext mockContext(long id) {
+    return mockContext(Job.builder().id(id).build());
+  }
+
+  @Test
+  public void flushLogs_flushes_registered_contexts_only() {
+    // arrange
+    RunningJobsRegistry registry = new RunningJobsRegistry();
+    JobContext running = mockContext(1L);
+    JobContext finished = mockContext(2L);
+    registry.register(running);
+    registry.register(finished);
+    registry.unregister(finished);
+
+    // act
+    registry.flushLogs();
+
+    // assert
+    verify(running, times(1)).flush();
+    verify(finished, never()).flush();
+  }
+
+  @Test
+  public void flushLogs_continues_after_a_failed_flush() {
+    // arrange
+    RunningJobsRegistry registry = new RunningJobsRegistry();
+    JobContext failing = mockContext(1L);
+    JobContext healthy = mockContext(2L);
+    doThrow(new RuntimeException("database unavailable")).when(failing).flush();
+    registry.register(failing);
+    registry.register(healthy);
+
+    // act
+    registry.flushLogs();
+
+    // assert
+    verify(failing, times(1)).flush();
+    verify(healthy, times(1)).flush();
+  }
+
+  @Test
+  public void stopCancelledJobs_does_nothing_without_running_jobs() {
+    // arrange
+    RunningJobsRegistry registry = new RunningJobsRegistry();
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    ReflectionTestUtils.setField(registry, "jobsRepository", jobsRepository);
+
+    // act
+    registry.stopCancelledJobs();
+
+    // assert
+    verify(jobsRepository, never()).findCancelRequested(any());
+  }
+
+  @Test
+  public void stopCancelledJobs_cancels_requested_and_timed_out_jobs() {
+    // arrange
+    RunningJobsRegistry registry = new RunningJobsRegistry();
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    ReflectionTestUtils.setField(registry, "jobsRepository", jobsRepository);
+    ZonedDateTime now = ZonedDateTime.now();
+    JobContext requested = mockContext(Job.builder().id(1L).build());
+    JobContext timedOut =
+        mockContext(Job.builder().id(2L).startedAt(now.minusMinutes(2)).timeoutMs(60000L).build());
+    JobContext withinTimeout =
+        mockContext(Job.builder().id(3L).startedAt(now).timeoutMs(60000L).build());
+    JobContext notStarted = mockContext(Job.builder().id(4L).timeoutMs(60000L).build());
+    registry.register(requested);
+    registry.register(timedOut);
+    registry.register(withinTimeout);
+    registry.register(notStarted);
+    when(jobsRepository.findCancelRequested(any())).thenReturn(List.of(1L, 99L));
+
+    // act
+    registry.stopCancelledJobs();
+
+    // assert
+    verify(requested, times(1)).cancel("cancelled", "Job cancelled");
+    verify(timedOut, times(1)).cancel("timeout", "Job timed out after 60000 ms");
+    verify(withinTimeout, never()).cancel(any(), any());
+    verify(notStarted, never()).cancel(any(), any());
+  }
+}
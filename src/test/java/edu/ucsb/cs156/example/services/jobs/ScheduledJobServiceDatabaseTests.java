@@ -0,0 +1,72 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.ScheduledJobDefinition;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.repositories.ScheduledJobDefinitionsRepository;
+import edu.ucsb.cs156.example.services.wiremock.WiremockService;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Tests of how ScheduledJobService claims firings, against the real repository. */
+@DataJpaTest
+@Import(ScheduledJobService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ScheduledJobServiceDatabaseTests {
+
+  @Autowired private ScheduledJobService scheduledJobService;
+
+  @Autowired private ScheduledJobDefinitionsRepository scheduledJobDefinitionsRepository;
+
+  @MockitoBean private JobService jobService;
+
+  // needed by ExampleApplication, which the slice still loads
+  @MockitoBean private WiremockService wiremockService;
+
+  @BeforeEach
+  public void setup() {
+    scheduledJobDefinitionsRepository.deleteAll();
+  }
+
+  @Test
+  public void fireDueSchedules_keeps_next_run_when_job_cannot_be_queued() {
+    // arrange
+    ZonedDateTime due = ZonedDateTime.now().minusMinutes(1).truncatedTo(ChronoUnit.SECONDS);
+    ScheduledJobDefinition definition =
+        scheduledJobDefinitionsRepository.save(
+            ScheduledJobDefinition.builder()
+                .name("nightly")
+                .jobType(TestJob.class.getName())
+                .payload("{}")
+                .cron("0 0 3 * * *")
+                .enabled(true)
+                .nextRunAt(due)
+                .build());
+    when(jobService.runScheduledJob(any())).thenThrow(new IllegalStateException("queue is down"));
+
+    // act
+    scheduledJobService.fireDueSchedules();
+
+    // assert
+    ScheduledJobDefinition after =
+        scheduledJobDefinitionsRepository.findById(definition.getId()).orElseThrow();
+    assertEquals(due.toInstant(), after.getNextRunAt().toInstant());
+    assertNull(after.getLastRunAt());
+    assertNull(after.getLastJobId());
+    verify(jobService, never()).pollQueue();
+  }
+}
@@ -0,0 +1,177 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.ScheduledJobDefinition;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.repositories.ScheduledJobDefinitionsRepository;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ScheduledJobServiceTests {
+
+  @Mock private ScheduledJobDefinitionsRepository scheduledJobDefinitionsRepository;
+
+  @Mock private JobService jobService;
+
+  @Mock private TransactionTemplate transactionTemplate;
+
+  @InjectMocks private ScheduledJobService scheduledJobService;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(
+            invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+  }
+
+  private ScheduledJobDefinition definition(boolean enabled) {
+    return ScheduledJobDefinition.builder()
+        .id(1L)
+        .name("nightly")
+        .jobType(TestJob.class.getName())
+        .payload("{}")
+        .cron("0 0 3 * * *")
+        .enabled(enabled)
+        .build();
+  }
+
+  @Test
+  public void save_sets_next_run_of_enabled_schedule() throws Exception {
+    // arrange
+    ScheduledJobDefinition definition = definition(true);
+    when(scheduledJobDefinitionsRepository.save(definition)).thenReturn(definition);
+    ZonedDateTime before = ZonedDateTime.now();
+
+    // act
+    ScheduledJobDefinition saved = scheduledJobService.save(definition);
+
+    // assert
+    assertEquals(definition, saved);
+    assertEquals(3, saved.getNextRunAt().getHour());
+    assertTrue(saved.getNextRunAt().isAfter(before));
+    assertTrue(saved.getNextRunAt().isBefore(before.plusDays(1)));
+    verify(jobService, times(1)).loadJob(TestJob.class.getName(), "{}");
+  }
+
+  @Test
+  public void save_clears_next_run_of_disabled_schedule() {
+    // arrange
+    ScheduledJobDefinition definition = definition(false);
+    definition.setNextRunAt(ZonedDateTime.now());
+
+    // act
+    scheduledJobService.save(definition);
+
+    // assert
+    assertNull(definition.getNextRunAt());
+    verify(scheduledJobDefinitionsRepository, times(1)).save(definition);
+  }
+
+  @Test
+  public void save_rejects_bad_cron_expression() {
+    // arrange
+    ScheduledJobDefinition definition = definition(true);
+    definition.setCron("every day");
+
+    // act
+    assertThrows(IllegalArgumentException.class, () -> scheduledJobService.save(definition));
+
+    // assert
+    verify(scheduledJobDefinitionsRepository, never()).save(any());
+  }
+
+  @Test
+  public void save_rejects_job_that_cannot_be_loaded() throws Exception {
+    // arrange
+    ScheduledJobDefinition definition = definition(true);
+    definition.setJobType("NoSuchJob");
+    when(jobService.loadJob("NoSuchJob", "{}")).thenThrow(new ClassNotFoundException("NoSuchJob"));
+
+    // act
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> scheduledJobService.save(definition));
+
+    // assert
+    assertEquals("Job could not be loaded: NoSuchJob", e.getMessage());
+    verify(scheduledJobDefinitionsRepository, never()).save(any());
+  }
+
+  @Test
+  public void fireDueSchedules_queues_job_for_claimed_schedule() {
+    // arrange
+    ScheduledJobDefinition definition = definition(true);
+    ZonedDateTime due = ZonedDateTime.now().minusMinutes(1);
+    definition.setNextRunAt(due);
+    when(scheduledJobDefinitionsRepository.findDue(any())).thenReturn(List.of(definition));
+    when(scheduledJobDefinitionsRepository.claimRun(eq(1L), eq(due), any(), any())).thenReturn(1);
+    when(jobService.runScheduledJob(definition)).thenReturn(Job.builder().id(42L).build());
+
+    // act
+    scheduledJobService.fireDueSchedules();
+
+    // assert
+    verify(scheduledJobDefinitionsRepository, times(1))
+        .claimRun(
+            eq(1L),
+            eq(due),
+            argThat(next -> next.getHour() == 3 && next.isAfter(ZonedDateTime.now())),
+            any());
+    verify(scheduledJobDefinitionsRepository, times(1)).recordLastJob(1L, 42L);
+    verify(jobService, times(1)).pollQueue();
+  }
+
+  @Test
+  public void fireDueSchedules_skips_schedule_claimed_elsewhere() {
+    // arrange
+    ScheduledJobDefinition definition = definition(true);
+    definition.setNextRunAt(ZonedDateTime.now().minusMinutes(1));
+    when(scheduledJobDefinitionsRepository.findDue(any())).thenReturn(List.of(definition));
+    when(scheduledJobDefinitionsRepository.claimRun(anyLong(), any(), any(), any())).thenReturn(0);
+
+    // act
+    scheduledJobService.fireDueSchedules();
+
+    // assert
+    verify(jobService, never()).runScheduledJob(any());
+    verify(scheduledJobDefinitionsRepository, never()).recordLastJob(anyLong(), anyLong());
+    verify(jobService, never()).pollQueue();
+  }
+
+  @Test
+  public void fireDueSchedules_goes_on_to_next_schedule_when_job_cannot_be_queued() {
+    // arrange
+    ScheduledJobDefinition failing = definition(true);
+    failing.setNextRunAt(ZonedDateTime.now().minusMinutes(1));
+    ScheduledJobDefinition other = definition(true);
+    other.setId(2L);
+    other.setNextRunAt(failing.getNextRunAt());
+    when(scheduledJobDefinitionsRepository.findDue(any())).thenReturn(List.of(failing, other));
+    when(scheduledJobDefinitionsRepository.claimRun(anyLong(), any(), any(), any())).thenReturn(1);
+    when(jobService.runScheduledJob(failing)).thenThrow(new IllegalStateException("queue is down"));
+    when(jobService.runScheduledJob(other)).thenReturn(Job.builder().id(42L).build());
+
+    // act
+    scheduledJobService.fireDueSchedules();
+
+    // assert
+    verify(transactionTemplate, times(2)).execute(any());
+    verify(scheduledJobDefinitionsRepository, never()).recordLastJob(eq(1L), anyLong());
+    verify(scheduledJobDefinitionsRepository, times(1)).recordLastJob(2L, 42L);
+    verify(jobService, times(1)).pollQueue();
+  }
+}
@@ -5,12 +5,14 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 
 
+import edu.ucsb.cs156.example.services.AdminDirectory;
+import edu.ucsb.cs156.example.services.AuthAuditLog;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
 import org.springframework.context.annotation.Import;
 
 @TestConfiguration
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, AdminDirectory.class, AuthAuditLog.class})
 public class TestConfig {
 
     @Bean